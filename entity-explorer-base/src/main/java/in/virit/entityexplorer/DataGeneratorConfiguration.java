@@ -0,0 +1,23 @@
+package in.virit.entityexplorer;
+
+import com.vaadin.flow.server.ServiceInitEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Shows the "Generate rows" action of the explorer, which writes generated
+ * rows to the application's database. Only for development databases, so it
+ * is off unless the application sets
+ * {@code entityexplorer.data-generator.enabled=true}. Imported by the
+ * autoconfigurations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "entityexplorer.data-generator.enabled", havingValue = "true")
+public class DataGeneratorConfiguration {
+
+    @EventListener
+    void enableDataGenerator(ServiceInitEvent evt) {
+        ExplorerServices.enableDataGenerator(evt.getSource().getContext());
+    }
+}
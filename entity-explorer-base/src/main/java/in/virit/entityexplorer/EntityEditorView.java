@@ -16,6 +16,7 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.popover.Popover;
 import com.vaadin.flow.dom.Style;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
+import in.virit.entityexplorer.data.ExplorerMetrics;
 import jakarta.persistence.MapsId;
 import jakarta.persistence.metamodel.Attribute;
 import jakarta.persistence.metamodel.EntityType;
@@ -152,14 +153,11 @@ public class EntityEditorView extends VVerticalLayout implements EntityManagerAw
         var em = getEntityManager();
         AutoForm<Object> form = ctx.createForm(entity);
         form.setSaveHandler(v -> {
-            em.getTransaction().begin();
-            em.merge(entity);
-            try {
-                em.getTransaction().commit();
-            } catch (Exception e) {
-                em.getTransaction().rollback();
-                Notification.show("Error occured while saving:" + e.getMessage());
-                Logger.getLogger(getClass().getName()).log(Level.SEVERE, e.getMessage(), e);
+            Exception failure = EntityWrites.run(em, getStatementLog(), entityType.getName(),
+                    ExplorerMetrics.Operation.SAVE, writer -> writer.merge(entity));
+            if (failure != null) {
+                Notification.show("Error occured while saving:" + failure.getMessage());
+                Logger.getLogger(getClass().getName()).log(Level.SEVERE, failure.getMessage(), failure);
             }
             navigate(EntityExplorer.class)
                     .ifPresent(view -> view.setEntityType(entityType));
@@ -215,9 +213,16 @@ public class EntityEditorView extends VVerticalLayout implements EntityManagerAw
             JpaEntityGrid<Object> gridSelect = new JpaEntityGrid<>(entityType1, getEntityManager());
             gridSelect.setMinWidth("70vw");
             gridSelect.getColumnByKey("actions").removeFromParent();
+            // a slow listing doesn't block the editor
+            gridSelect.setAsyncLoading(true);
 
             gridSelect.addValueChangeListener(e -> {
-                value = e.getValue();
+                if (gridSelect.isPlaceholder(e.getValue())) {
+                    return;
+                }
+                // the listed row may be detached, reload it into the editor's context
+                value = e.getValue() == null ? null : getEntityManager().find(getJavaType(),
+                        getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(e.getValue()));
                 GenericManyToOneEditor.this.updateValue();
                 setPresentationValue(value);
                 gridSelect.findAncestor(Popover.class).close();
@@ -33,12 +33,17 @@ public class EntityExplorer extends VVerticalLayout implements HasUrlParameter<S
         removeAll();
         this.entityType = entityType;
         JpaEntityGrid<Object> grid = new JpaEntityGrid<>(entityType);
-        add(new VHorizontalLayout()
+        VHorizontalLayout toolbar = new VHorizontalLayout()
                 .withDefaultVerticalComponentAlignment(Alignment.BASELINE)
-                .withExpanded(grid.createFilterField())
-                .withComponents(new NewEntityButton())
-        );
+                .withExpanded(grid.createFilterField());
+        if (ExplorerServices.isDataGeneratorEnabled()) {
+            // writes to the database, only when the app opts in
+            toolbar.add(new GenerateRowsButton());
+        }
+        toolbar.add(new NewEntityButton());
+        add(toolbar);
         addAndExpand(grid);
+        add(new StatementLogPanel(grid.getStatementLog()));
         updateViewTitle();
     }
 
@@ -49,10 +54,10 @@ public class EntityExplorer extends VVerticalLayout implements HasUrlParameter<S
                 return;
             }
             // If coming in with deep link, we need to find the entity type
-            EntityType<?> entityType = entityManagerFactory.getMetamodel().getEntities().stream()
-                    .filter(e -> e.getName().equals(s))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("No entity with name " + s));
+            EntityType<?> entityType = ExplorerServices.metamodel().getEntity(s);
+            if (entityType == null) {
+                throw new IllegalArgumentException("No entity with name " + s);
+            }
             setEntityType(entityType);
         }
     }
@@ -71,6 +76,16 @@ public class EntityExplorer extends VVerticalLayout implements HasUrlParameter<S
         }
     }
     
+    private class GenerateRowsButton extends VButton {
+        public GenerateRowsButton() {
+            addClickListener(event -> new GenerateRowsDialog(entityManagerFactory, entityType,
+                    () -> setEntityType(entityType)).open());
+            setIcon(VaadinIcon.DATABASE.create());
+            setTooltipText("Generates " + entityType.getName() + " rows, for development databases");
+            addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        }
+    }
+
     private class NewEntityButton extends VButton {
         public NewEntityButton() {
             addClickListener(event -> {
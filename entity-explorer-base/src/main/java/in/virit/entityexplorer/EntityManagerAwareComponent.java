@@ -4,9 +4,13 @@ import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.DetachNotifier;
 import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.server.VaadinService;
+import in.virit.entityexplorer.data.StatementLog;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.stat.SessionStatistics;
 
 import java.util.logging.Logger;
 
@@ -21,6 +25,9 @@ import java.util.logging.Logger;
  */
 public interface EntityManagerAwareComponent extends DetachNotifier, HasElement {
 
+    /** Component data key marking a pending {@link #clearEntityManagerAfterResponse()}. */
+    String CLEAR_SCHEDULED = EntityManagerAwareComponent.class.getName() + ".clearScheduled";
+
     /**
      * Get the entity manager for this component. The entity manager is created lazily and closed when the component is
      * detached.
@@ -33,7 +40,7 @@ public interface EntityManagerAwareComponent extends DetachNotifier, HasElement
         EntityManager entityManager = ComponentUtil.getData(component, EntityManager.class);
         if (entityManager == null) {
             Logger.getLogger(EntityManagerAwareComponent.class.getName()).fine("Creating a new entity manager for " + getClass().getSimpleName());
-            entityManager = getEntityManagerFactory().createEntityManager();
+            entityManager = getStatementLog().open(getEntityManagerFactory());
             ComponentUtil.setData(component, EntityManager.class, entityManager);
             EntityManager finalEntityManager = entityManager;
             addDetachListener(e -> {
@@ -44,6 +51,72 @@ public interface EntityManagerAwareComponent extends DetachNotifier, HasElement
         return entityManager;
     }
 
+    /**
+     * Get the log of the SQL statements executed by this component's entity manager (and others opened through
+     * it). Created lazily.
+     *
+     * @return the statement log
+     */
+    default StatementLog getStatementLog() {
+        Component component = (Component) this;
+        StatementLog statementLog = ComponentUtil.getData(component, StatementLog.class);
+        if (statementLog == null) {
+            statementLog = new StatementLog(ExplorerServices.metrics());
+            ComponentUtil.setData(component, StatementLog.class, statementLog);
+        }
+        return statementLog;
+    }
+
+    /**
+     * Clears the persistence context of this component's entity manager once
+     * the current response has been prepared, i.e. after the entities loaded
+     * during the request have been rendered. This "managed read" pattern
+     * keeps the persistence context (and heap) bounded in long browsing
+     * sessions, at the cost of loaded entities becoming detached: anything
+     * used later, e.g. in click listeners, must be reloaded by id. Nothing is
+     * cleared while a transaction is active.
+     */
+    default void clearEntityManagerAfterResponse() {
+        Component component = (Component) this;
+        EntityManager entityManager = ComponentUtil.getData(component, EntityManager.class);
+        UI ui = UI.getCurrent();
+        if (entityManager == null || ui == null
+                || ComponentUtil.getData(component, CLEAR_SCHEDULED) != null) {
+            return;
+        }
+        ComponentUtil.setData(component, CLEAR_SCHEDULED, Boolean.TRUE);
+        ui.beforeClientResponse(component, context -> {
+            ComponentUtil.setData(component, CLEAR_SCHEDULED, null);
+            if (entityManager.isOpen() && !entityManager.getTransaction().isActive()) {
+                ExplorerServices.metrics().persistenceContextCleared(component.getClass().getSimpleName(),
+                        getPersistenceContextStats().entityCount());
+                entityManager.clear();
+            }
+        });
+    }
+
+    /**
+     * @return the size of this component's persistence context, zeros if no
+     * entity manager has been created yet
+     */
+    default PersistenceContextStats getPersistenceContextStats() {
+        EntityManager entityManager = ComponentUtil.getData((Component) this, EntityManager.class);
+        if (entityManager == null || !entityManager.isOpen()) {
+            return new PersistenceContextStats(0, 0);
+        }
+        SessionStatistics statistics = entityManager.unwrap(Session.class).getStatistics();
+        return new PersistenceContextStats(statistics.getEntityCount(), statistics.getCollectionCount());
+    }
+
+    /**
+     * The size of a persistence context.
+     *
+     * @param entityCount     number of managed entity instances
+     * @param collectionCount number of managed collection instances
+     */
+    record PersistenceContextStats(int entityCount, int collectionCount) {
+    }
+
     /**
      * Get the entity manager factory for this component. The entity manager factory is retrieved from the Vaadin
      * service (in practice via Spring ApplicationContext).
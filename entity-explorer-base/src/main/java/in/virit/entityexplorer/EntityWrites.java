@@ -0,0 +1,59 @@
+package in.virit.entityexplorer;
+
+import in.virit.entityexplorer.data.ExplorerMetrics;
+import in.virit.entityexplorer.data.StatementLog;
+import in.virit.entityexplorer.jfr.EntityWriteEvent;
+import jakarta.persistence.EntityManager;
+
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Runs the entity writes of the explorer UI, each in a transaction of its
+ * own, recorded as an {@link EntityWriteEvent} and in the
+ * {@link ExplorerMetrics}. Committed writes drop the cached counts and pages
+ * of the entity.
+ */
+final class EntityWrites {
+
+    private EntityWrites() {
+    }
+
+    /**
+     * @param statementLog the log of {@code em}, to count the statements of
+     *                     the write
+     * @param write        the write, e.g. a merge, run in the transaction
+     * @return the failure of the write or the commit, after rolling back, or
+     * {@code null} if committed
+     */
+    static Exception run(EntityManager em, StatementLog statementLog, String entityName,
+            ExplorerMetrics.Operation operation, Consumer<EntityManager> write) {
+        EntityWriteEvent event = new EntityWriteEvent();
+        event.begin();
+        long statementsBefore = statementLog.getThreadStatementCount();
+        long start = System.nanoTime();
+        Exception failure = null;
+        em.getTransaction().begin();
+        try {
+            write.accept(em);
+            em.getTransaction().commit();
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            failure = e;
+        }
+        ExplorerServices.metrics().entityWritten(entityName, operation, System.nanoTime() - start, failure != null);
+        if (event.shouldCommit()) {
+            event.entityName = entityName;
+            event.operation = operation.name().toLowerCase(Locale.ROOT);
+            event.failed = failure != null;
+            event.statements = statementLog.getThreadStatementCount() - statementsBefore;
+            event.commit();
+        }
+        if (failure == null) {
+            ExplorerServices.invalidate(entityName);
+        }
+        return failure;
+    }
+}
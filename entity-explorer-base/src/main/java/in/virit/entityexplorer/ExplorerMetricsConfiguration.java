@@ -0,0 +1,40 @@
+package in.virit.entityexplorer;
+
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinContext;
+import in.virit.entityexplorer.data.MicrometerExplorerMetrics;
+import in.virit.entityexplorer.data.PageCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Publishes the explorer's database activity to the application's Micrometer
+ * {@link MeterRegistry}, if it has one (e.g. with Spring Boot Actuator). See
+ * {@link MicrometerExplorerMetrics} for the meters. Imported by the
+ * autoconfigurations; without Micrometer on the classpath this configuration
+ * is skipped.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class ExplorerMetricsConfiguration {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ExplorerMetricsConfiguration(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    void registerMetrics(ServiceInitEvent evt) {
+        meterRegistry.ifAvailable(registry -> {
+            VaadinContext context = evt.getSource().getContext();
+            MicrometerExplorerMetrics metrics = new MicrometerExplorerMetrics(registry);
+            // the page cache is created with the first listing
+            metrics.monitorPageCache(() -> context.getAttribute(PageCache.class));
+            ExplorerServices.installMetrics(context, metrics);
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package in.virit.entityexplorer;
+
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import in.virit.entityexplorer.data.AssociationSummaries;
+import in.virit.entityexplorer.data.EntityVersions;
+import in.virit.entityexplorer.data.EntityWriteListener;
+import in.virit.entityexplorer.data.ExplorerMetrics;
+import in.virit.entityexplorer.data.MetamodelIndex;
+import in.virit.entityexplorer.data.PageCache;
+import in.virit.entityexplorer.data.ParameterizedFilterCache;
+import in.virit.entityexplorer.data.RowCountService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Access to the application-scoped helpers shared by all explorer components.
+ * They are stored in the VaadinContext, so there is exactly one instance per
+ * application regardless of how the explorer is wired into the Spring app.
+ */
+final class ExplorerServices {
+
+    /** Context attribute type marking the write listener as registered. */
+    private record WriteListenerRegistration(boolean registered) {
+    }
+
+    /** Context attribute type enabling the data generator. */
+    private record DataGeneratorEnabled(boolean enabled) {
+    }
+
+    private ExplorerServices() {
+    }
+
+    static RowCountService rowCounts() {
+        VaadinService service = VaadinService.getCurrent();
+        listenToWrites(service);
+        return service.getContext().getAttribute(RowCountService.class,
+                () -> new RowCountService(entityManagerFactory(service)));
+    }
+
+    static PageCache pageCache() {
+        VaadinService service = VaadinService.getCurrent();
+        listenToWrites(service);
+        return service.getContext().getAttribute(PageCache.class, PageCache::new);
+    }
+
+    /**
+     * @return the parameterized forms of the JPQL quick filters used in the
+     * application
+     */
+    static ParameterizedFilterCache parameterizedFilters() {
+        return VaadinService.getCurrent().getContext().getAttribute(ParameterizedFilterCache.class,
+                ParameterizedFilterCache::new);
+    }
+
+    static EntityVersions entityVersions() {
+        VaadinService service = VaadinService.getCurrent();
+        listenToWrites(service);
+        return service.getContext().getAttribute(EntityVersions.class, EntityVersions::new);
+    }
+
+    static AssociationSummaries associationSummaries() {
+        VaadinService service = VaadinService.getCurrent();
+        listenToWrites(service);
+        return associationSummaries(service);
+    }
+
+    private static AssociationSummaries associationSummaries(VaadinService service) {
+        return service.getContext().getAttribute(AssociationSummaries.class,
+                () -> new AssociationSummaries(entityManagerFactory(service), metamodel()));
+    }
+
+    /**
+     * @return the metamodel index of the application's EntityManagerFactory
+     */
+    static MetamodelIndex metamodel() {
+        VaadinService service = VaadinService.getCurrent();
+        return service.getContext().getAttribute(MetamodelIndex.class,
+                () -> new MetamodelIndex(entityManagerFactory(service).getMetamodel()));
+    }
+
+    /**
+     * @return the metrics the explorer reports its database activity to,
+     * {@link ExplorerMetrics#NONE} unless installed with
+     * {@link #installMetrics(VaadinContext, ExplorerMetrics)} or outside of a
+     * Vaadin request
+     */
+    static ExplorerMetrics metrics() {
+        VaadinService service = VaadinService.getCurrent();
+        if (service == null) {
+            return ExplorerMetrics.NONE;
+        }
+        ExplorerMetrics metrics = service.getContext().getAttribute(ExplorerMetrics.class);
+        return metrics == null ? ExplorerMetrics.NONE : metrics;
+    }
+
+    /**
+     * Sets the metrics of the application, e.g. on service initialization.
+     */
+    static void installMetrics(VaadinContext context, ExplorerMetrics metrics) {
+        context.setAttribute(ExplorerMetrics.class, metrics);
+    }
+
+    /**
+     * @return true if the application enabled the "Generate rows" action,
+     * see {@link DataGeneratorConfiguration}
+     */
+    static boolean isDataGeneratorEnabled() {
+        VaadinService service = VaadinService.getCurrent();
+        return service != null && service.getContext().getAttribute(DataGeneratorEnabled.class) != null;
+    }
+
+    /**
+     * Enables the "Generate rows" action of the application.
+     */
+    static void enableDataGenerator(VaadinContext context) {
+        context.setAttribute(DataGeneratorEnabled.class, new DataGeneratorEnabled(true));
+    }
+
+    /**
+     * Drops the cached counts and pages of an entity after the explorer wrote
+     * it. Host application writes are caught by the {@link EntityWriteListener}.
+     */
+    static void invalidate(String entityName) {
+        rowCounts().invalidate(entityName);
+        pageCache().invalidate(entityName);
+        entityVersions().increment(entityName);
+        associationSummaries().invalidate(entityName);
+    }
+
+    private static void listenToWrites(VaadinService service) {
+        VaadinContext context = service.getContext();
+        context.getAttribute(WriteListenerRegistration.class, () -> {
+            // the listener runs on any thread, so it holds on to the services
+            RowCountService rowCounts = context.getAttribute(RowCountService.class,
+                    () -> new RowCountService(entityManagerFactory(service)));
+            PageCache pageCache = context.getAttribute(PageCache.class, PageCache::new);
+            EntityVersions versions = context.getAttribute(EntityVersions.class, EntityVersions::new);
+            AssociationSummaries summaries = associationSummaries(service);
+            return new WriteListenerRegistration(EntityWriteListener.register(entityManagerFactory(service),
+                    entityName -> {
+                        rowCounts.invalidate(entityName);
+                        pageCache.invalidate(entityName);
+                        versions.increment(entityName);
+                        summaries.invalidate(entityName);
+                    }));
+        });
+    }
+
+    private static EntityManagerFactory entityManagerFactory(VaadinService service) {
+        return service.getInstantiator().getOrCreate(EntityManagerFactory.class);
+    }
+}
@@ -1,12 +1,14 @@
 package in.virit.entityexplorer;
 
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.dom.Style;
+import in.virit.entityexplorer.data.RowCountService;
 import in.virit.entityexplorer.filter.FilterGroup;
-import in.virit.entityexplorer.filter.FilterPredicateBuilder;
-import in.virit.entityexplorer.filter.FilterProperty;
 import in.virit.entityexplorer.filter.ui.FilterBuilderDialog;
 import org.vaadin.firitin.components.button.VButton;
 import org.vaadin.firitin.components.orderedlayout.VHorizontalLayout;
+import org.vaadin.firitin.util.style.LumoProps;
 
 /**
  * The filtering toolbar of a {@link JpaEntityGrid}: the free-form JPQL quick
@@ -19,6 +21,7 @@ public class FilterToolbar<T> extends VHorizontalLayout {
     private final JpaEntityGrid<T> grid;
     private final JpaEntityGrid.FilterInput filterInput;
     private final FilterBuilderButton filterBuilderButton = new FilterBuilderButton();
+    private final RowCountLabel rowCountLabel = new RowCountLabel();
 
     public FilterToolbar(JpaEntityGrid<T> grid) {
         this.grid = grid;
@@ -31,7 +34,8 @@ public class FilterToolbar<T> extends VHorizontalLayout {
         });
         setDefaultVerticalComponentAlignment(Alignment.BASELINE);
         addAndExpand(filterInput);
-        add(filterBuilderButton);
+        add(filterBuilderButton, rowCountLabel);
+        grid.addRowCountListener(rowCountLabel::update);
     }
 
     private void applyVisualFilter(FilterGroup snapshot) {
@@ -39,7 +43,7 @@ public class FilterToolbar<T> extends VHorizontalLayout {
         // unfiltered, and the visual filter is applied after that, so the
         // ordering keeps "last applied wins" true without suppressing events.
         filterInput.setValue("");
-        grid.filter((root, cb) -> FilterPredicateBuilder.toPredicate(snapshot, root, cb));
+        grid.filter(snapshot);
         filterBuilderButton.updateBadge(snapshot.conditionCount());
     }
 
@@ -48,6 +52,21 @@ public class FilterToolbar<T> extends VHorizontalLayout {
         filterBuilderButton.updateBadge(0);
     }
 
+    /** Shows how many rows the current filter matches, once counted. */
+    private static class RowCountLabel extends Span {
+
+        RowCountLabel() {
+            getStyle().setWhiteSpace(Style.WhiteSpace.NOWRAP);
+            getStyle().setColor(LumoProps.CONTRAST_50PCT.var());
+        }
+
+        void update(RowCountService.RowCount rowCount) {
+            setText(rowCount.exact()
+                    ? rowCount.count() + " rows"
+                    : "over " + rowCount.count() + " rows");
+        }
+    }
+
     /**
      * Opens the (lazily created, then reused) filter builder dialog. Reusing
      * one dialog instance keeps the filter tree editable across openings.
@@ -64,7 +83,7 @@ public class FilterToolbar<T> extends VHorizontalLayout {
                 if (dialog == null) {
                     dialog = new FilterBuilderDialog(
                             grid.getEntityType().getName(),
-                            FilterProperty.listFor(grid.getEntityType()),
+                            grid.getMetadata().getFilterProperties(),
                             FilterToolbar.this::applyVisualFilter,
                             FilterToolbar.this::clearVisualFilter);
                 }
@@ -0,0 +1,129 @@
+package in.virit.entityexplorer;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import in.virit.entityexplorer.data.DataGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.vaadin.firitin.components.button.VButton;
+import org.vaadin.firitin.components.dialog.VDialog;
+import org.vaadin.firitin.components.textfield.VIntegerField;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fills the listed entity with generated rows using the {@link DataGenerator},
+ * meant for development databases. The rows are written in the background,
+ * the dialog shows the progress and refreshes the listing when done. In UIs
+ * without push, the UI polls while the rows are written.
+ */
+class GenerateRowsDialog extends VDialog {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final int POLL_INTERVAL_MILLIS = 500;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityType<?> entityType;
+    private final Runnable onGenerated;
+
+    private final VIntegerField rows = new VIntegerField("Rows");
+    private final VIntegerField seed = new VIntegerField("Seed");
+    private final ProgressBar progressBar = new ProgressBar();
+    private final VButton generate = new VButton("Generate");
+    private final VButton close = new VButton("Close");
+
+    GenerateRowsDialog(EntityManagerFactory entityManagerFactory, EntityType<?> entityType, Runnable onGenerated) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityType = entityType;
+        this.onGenerated = onGenerated;
+        setHeaderTitle("Generate " + entityType.getName() + " rows");
+
+        rows.setMin(1);
+        rows.setMax(10_000_000);
+        rows.setValue(1_000);
+        rows.setStepButtonsVisible(true);
+        seed.setValue(42);
+        seed.setTooltipText("The same seed generates the same values");
+        progressBar.setVisible(false);
+        add(new Paragraph("Writes generated rows to the database, meant for development databases. "
+                + "Required associations to empty tables generate their targets too."), rows, seed, progressBar);
+
+        generate.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+        generate.addClickListener(() -> generate());
+        close.addClickListener(() -> close());
+        getFooter().add(close, generate);
+    }
+
+    private void generate() {
+        if (rows.getValue() == null || rows.isInvalid()) {
+            return;
+        }
+        long count = rows.getValue();
+        long seedValue = seed.getValue() == null ? 0 : seed.getValue();
+        UI ui = UI.getCurrent();
+        // without push, progress and completion reach the browser by polling
+        boolean polling = !ui.getPushConfiguration().getPushMode().isEnabled();
+        int pollInterval = ui.getPollInterval();
+        if (polling) {
+            ui.setPollInterval(POLL_INTERVAL_MILLIS);
+        }
+        setCloseOnEsc(false);
+        setCloseOnOutsideClick(false);
+        rows.setEnabled(false);
+        seed.setEnabled(false);
+        generate.setEnabled(false);
+        close.setEnabled(false);
+        progressBar.setVisible(true);
+        progressBar.setValue(0);
+
+        Set<String> generated = ConcurrentHashMap.newKeySet();
+        generated.add(entityType.getName());
+        DataGenerator generator = new DataGenerator(entityManagerFactory, seedValue);
+        CompletableFuture.supplyAsync(() -> generator.generate(entityType, count, progress -> {
+                    generated.add(progress.entityName());
+                    if (progress.entityName().equals(entityType.getName())) {
+                        ui.access(() -> progressBar.setValue((double) progress.generated() / progress.total()));
+                    }
+                }), EXECUTOR)
+                .whenComplete((written, failure) -> ui.access(() -> {
+                    if (polling) {
+                        ui.setPollInterval(pollInterval);
+                    }
+                    // the generator doesn't report its writes one by one
+                    generated.forEach(this::invalidate);
+                    if (failure != null) {
+                        Logger.getLogger(GenerateRowsDialog.class.getName()).log(Level.INFO, "Generating rows failed", failure);
+                        Notification.show("Generating rows failed: " + failure.getMessage())
+                                .addThemeVariants(NotificationVariant.LUMO_ERROR);
+                    } else {
+                        Notification.show("Generated " + written + " " + entityType.getName() + " rows")
+                                .addThemeVariants(NotificationVariant.LUMO_SUCCESS);
+                    }
+                    close();
+                    onGenerated.run();
+                }));
+    }
+
+    /**
+     * Invalidates the entity and its entity supertypes, like the
+     * {@link in.virit.entityexplorer.data.EntityWriteListener} does.
+     */
+    private void invalidate(String entityName) {
+        Class<?> generatedClass = ExplorerServices.metamodel().getEntity(entityName).getJavaType();
+        for (EntityType<?> type : entityManagerFactory.getMetamodel().getEntities()) {
+            if (type.getJavaType().isAssignableFrom(generatedClass)) {
+                ExplorerServices.invalidate(type.getName());
+            }
+        }
+    }
+}
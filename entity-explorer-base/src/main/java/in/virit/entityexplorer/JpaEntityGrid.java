@@ -2,23 +2,61 @@ package in.virit.entityexplorer;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.grid.GridNoneSelectionModel;
+import com.vaadin.flow.component.grid.GridSelectionModel;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.grid.dataview.GridLazyDataView;
 import com.vaadin.flow.component.html.Div;
-import com.vaadin.flow.component.html.Emphasis;
 import com.vaadin.flow.component.html.H3;
-import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.html.Paragraph;
 import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.popover.Popover;
 import com.vaadin.flow.data.provider.QuerySortOrder;
 import com.vaadin.flow.data.provider.SortDirection;
-import com.vaadin.flow.dom.Style;
+import com.vaadin.flow.data.renderer.LitRenderer;
+import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.shared.Registration;
+import in.virit.entityexplorer.data.AssociationSummaries;
+import in.virit.entityexplorer.data.AsyncPageLoader;
+import in.virit.entityexplorer.data.CountQuery;
+import in.virit.entityexplorer.data.EntityMetadata;
+import in.virit.entityexplorer.data.ExplorerMetrics;
+import in.virit.entityexplorer.data.FetchPlan;
+import in.virit.entityexplorer.data.NPlusOneDetector;
+import in.virit.entityexplorer.data.PageCache;
+import in.virit.entityexplorer.data.PagePrefetcher;
+import in.virit.entityexplorer.data.ParameterizedJpql;
+import in.virit.entityexplorer.data.Projection;
+import in.virit.entityexplorer.data.RowCountService;
+import in.virit.entityexplorer.data.StatementLog;
+import in.virit.entityexplorer.data.TableSnapshot;
 import in.virit.entityexplorer.filter.CriteriaListing;
+import in.virit.entityexplorer.filter.FilterGroup;
+import in.virit.entityexplorer.filter.FilterQueryPlan;
 import in.virit.entityexplorer.filter.FilterSpecification;
+import in.virit.entityexplorer.filter.InMemoryFilter;
+import in.virit.entityexplorer.filter.KeysetPagination;
+import in.virit.entityexplorer.filter.PropertyAccessors;
+import in.virit.entityexplorer.jfr.FilterBuildEvent;
+import in.virit.entityexplorer.jfr.PageFetchEvent;
+import in.virit.entityexplorer.jfr.RenderEvent;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.metamodel.Attribute;
 import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.Hibernate;
 import org.vaadin.firitin.components.button.VButton;
 import org.vaadin.firitin.components.grid.GridSelect;
 import org.vaadin.firitin.components.orderedlayout.VHorizontalLayout;
@@ -27,17 +65,103 @@ import org.vaadin.firitin.components.popover.PopoverButton;
 import org.vaadin.firitin.components.textfield.VTextField;
 import org.vaadin.firitin.rad.PrettyPrinter;
 
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.vaadin.firitin.util.style.LumoProps;
 import tools.jackson.databind.introspect.BeanPropertyDefinition;
 
 public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwareComponent {
 
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+    private static final TruncatingFormatter CELL_FORMATTER = new TruncatingFormatter(40);
+    private static final TruncatingFormatter SUMMARY_FORMATTER = new TruncatingFormatter(100);
+    private static final String ROW_ACTIONS = """
+            <div style="display: flex; align-items: center;">
+                <vaadin-button theme="tertiary-inline" title="Edit entity" @click=${edit}>
+                    <vaadin-icon icon="vaadin:edit"></vaadin-icon>
+                </vaadin-button>
+                <vaadin-button theme="tertiary-inline error"
+                        title="Tries to delete entity. Note, that this can fail for constraint violations."
+                        @click=${remove}>
+                    <vaadin-icon icon="vaadin:trash"></vaadin-icon>
+                </vaadin-button>
+                <vaadin-button theme="tertiary-inline" title="Browse entity details" @click=${browse}>
+                    <vaadin-icon icon="vaadin:eye"></vaadin-icon>
+                </vaadin-button>
+            </div>""";
+    private static final String ASSOCIATION = """
+            <div style="display: flex; align-items: center;">
+                <em style="max-width: 200px; overflow: hidden; text-overflow: ellipsis;"
+                        title="Column is an assosiation to another entity.">🔗→ ${item.summary}</em>
+                <vaadin-button theme="tertiary-inline" title="Browse entity details" @click=${browse}>
+                    <vaadin-icon icon="vaadin:eye"></vaadin-icon>
+                </vaadin-button>
+            </div>""";
+
     private EntityType entityType;
+    private final EntityMetadata metadata;
+    private boolean keysetPaginationEnabled = true;
+    /** Re-applies the current filter, e.g. after a listing option changes. */
+    private Runnable currentListing = () -> listEntities("");
+    private RowCountService.Strategy countStrategy = RowCountService.Strategy.EXACT;
+    /** Incremented on each listing change, to discard stale async counts. */
+    private int listingGeneration;
+    private final List<SerializableConsumer<RowCountService.RowCount>> rowCountListeners = new ArrayList<>();
+    private boolean projectionEnabled;
+    private boolean managedReadMode = true;
+    private int readAheadPages = 1;
+    private boolean pageCacheEnabled = true;
+    private transient PagePrefetcher<T> prefetcher;
+    private boolean asyncLoading;
+    private transient AsyncPageLoader<T> asyncLoader;
+    /** Rows shown while their page loads, with identifiers of their own. */
+    private final Map<T, Placeholder> placeholders = new IdentityHashMap<>();
+    /** The placeholder rows of each page still loading. */
+    private final Map<AsyncPageLoader.PageKey, List<T>> placeholderPages = new HashMap<>();
+    private long placeholderSerial;
+    /** The projection the current rows were loaded with, null for full entities. */
+    private transient Projection<T> currentProjection;
+    private int inMemoryThreshold = 500;
+    private Duration snapshotTimeToLive = Duration.ofSeconds(30);
+    /** All rows of a small table, while listed in memory. */
+    private transient TableSnapshot<T> snapshot;
+    /** The entity version at which the table was found too large for memory. */
+    private long tooLargeAtVersion = -1;
+    /** Incremented to discard a snapshot still loading in the background. */
+    private int snapshotRequest;
+    private boolean snapshotLoading;
+    /** The listing to re-apply once the snapshot has loaded, and its generation. */
+    private Runnable snapshotListing;
+    private int snapshotListingGeneration;
+    private final NPlusOneDetector nPlusOneDetector;
+    private final List<SerializableConsumer<NPlusOneDetector.Report>> nPlusOneListeners = new ArrayList<>();
+    /** Causes already warned about, to notify the user only once per cause. */
+    private final Set<String> warnedNPlusOneCauses = new HashSet<>();
+    /** Records rendering the rows fetched for the current response, if any. */
+    private transient RenderEvent renderEvent;
+    private long renderStatementsBefore;
+
+    /** Identifies a placeholder row, entities may consider blank instances equal. */
+    private record Placeholder(long serial) implements Serializable {
+    }
 
     public JpaEntityGrid(EntityType<?> entityType) {
         this(entityType, null);
@@ -50,39 +174,47 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
             ComponentUtil.setData(this, EntityManager.class, entityManager);
         }
         this.entityType = entityType;
+        this.metadata = ExplorerServices.metamodel().get(entityType);
+        this.nPlusOneDetector = new NPlusOneDetector(getStatementLog());
         addThemeVariants(GridVariant.LUMO_ROW_STRIPES);
 
-        addComponentColumn(entity -> new VHorizontalLayout(
-                new QuickEditButton(entity),
-                new DeleteEntityButton(entity),
-                new PrettyPrintButton(entity)
-        )
-                .withSpacing(false))
+        // client side templates instead of components per row, the clicks
+        // reach the server with the item resolved from its key
+        addColumn(LitRenderer.<T>of(ROW_ACTIONS)
+                .withFunction("edit", loadedOnly(this::editEntity))
+                .withFunction("remove", loadedOnly(this::confirmDelete))
+                .withFunction("browse", loadedOnly(entity -> browse(loadFullEntity(entity)))))
                 .setFlexGrow(0)
                 .setAutoWidth(true)
                 .setKey("actions")
                 .setHeader("Actions");
 
-        for (BeanPropertyDefinition bpf : getBeanPropertyDefinitions()) {
-            Attribute<?, ?> attribute = getAttributeOrNull(entityType, bpf.getName());
+        // introspected once per entity, shared by all grids of the application
+        for (EntityMetadata.Column descriptor : metadata.getColumns(this::getBeanPropertyDefinitions)) {
+            BeanPropertyDefinition bpf = descriptor.property();
+            // lazy loads while reading a cell are attributed to its column
+            Function<Object, Object> counting = nPlusOneDetector.counting(bpf.getName(), descriptor.accessor());
+            // placeholder rows show empty cells
+            Function<Object, Object> accessor = entity -> isPlaceholder(entity) ? null : counting.apply(entity);
+            Attribute<?, ?> attribute = descriptor.attribute();
             Column column;
-            if (attribute == null) {
+            if (descriptor.kind() == EntityMetadata.ColumnKind.COMPUTED) {
                 // A bean property with no matching JPA attribute, e.g. a derived
                 // getter like Customer.getCreditRating(). Show it as a read-only
                 // computed column; it has no DB column, so no sorting/filtering.
-                column = addColumn(stringValue(bpf));
+                column = addColumn(stringValue(accessor));
                 column.setKey(bpf.getName());
                 column.setHeader(new ColumnHeader(bpf.getName(), "COMPUTED", bpf.getRawPrimaryType()));
                 column.setSortable(false);
-            } else if (!attribute.isAssociation()) {
+            } else if (descriptor.kind() == EntityMetadata.ColumnKind.VALUE) {
                 if (attribute.getJavaType() == String.class) {
-                    column = addColumn(stringValue(bpf));
-                    column.setKey(bpf.getName());
-                    column.setSortProperty(bpf.getName());
+                    column = addColumn(stringValue(accessor));
                 } else {
                     // Let Vaadin figure out the best renderer
-                    column = addColumn(bpf.getName());
+                    column = addColumn(entity -> accessor.apply(entity));
                 }
+                column.setKey(bpf.getName());
+                column.setSortProperty(bpf.getName());
                 if (bpf.getName().equals("id") || bpf.getName().equals("lastUpdate")) {
                     column.setVisible(false);
                 }
@@ -90,12 +222,24 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
                 // Basic-typed attributes sort in the backend (JPQL/criteria
                 // order by); associations, embeddables and computed columns
                 // stay unsortable.
-                column.setSortable(isSortable(attribute));
+                column.setSortable(descriptor.sortable());
+            } else if (attribute instanceof SingularAttribute<?, ?> toOne
+                    && AssociationSummaries.canSummarize((EntityType<?>) toOne.getType())) {
+                // just the id and label of the target, the entity itself is
+                // only loaded when browsed
+                EntityType<?> target = (EntityType<?>) toOne.getType();
+                column = addColumn(LitRenderer.<T>of(ASSOCIATION)
+                        .withProperty("summary", entity -> summary(target, accessor.apply(entity)))
+                        .withFunction("browse", entity -> browseReference(target, accessor.apply(entity))));
+                column.setKey(attribute.getName());
+                column.setHeader(new ColumnHeader(attribute));
+                column.setSortable(false);
             } else {
-                column = addComponentColumn(entity -> {
-                    Object associationValue = bpf.getAccessor().getValue(entity);
-                    return new AssociationColumn(associationValue);
-                });
+                // collections, and targets without a single id attribute;
+                // reattached on demand for lazy loading deeper relations
+                column = addColumn(LitRenderer.<T>of(ASSOCIATION)
+                        .withProperty("summary", entity -> PrettyPrinter.printOneLiner(accessor.apply(entity), 100))
+                        .withFunction("browse", entity -> browse(loadFullEntity(accessor.apply(entity)))));
                 column.setKey(attribute.getName());
                 column.setHeader(new ColumnHeader(attribute));
                 column.setSortable(false);
@@ -103,8 +247,17 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
 
             column.setResizable(true);
             column.setAutoWidth(true);
+            Column<T> finalColumn = column;
+            column.getElement().addPropertyChangeListener("hidden", e -> onColumnVisibilityChange(finalColumn));
         }
         withColumnSelector();
+        addDetachListener(e -> {
+            if (prefetcher != null) {
+                prefetcher.cancel();
+            }
+            cancelAsyncLoads();
+            discardSnapshot();
+        });
 
         listEntities(entityType);
 
@@ -115,15 +268,12 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
      * overly long string representations. Works for both persistent String
      * attributes and computed (non-persistent) properties.
      */
-    private ValueProvider<T, String> stringValue(BeanPropertyDefinition bpf) {
+    private ValueProvider<T, String> stringValue(Function<Object, Object> accessor) {
         return b -> {
             try {
-                String str = "" + bpf.getAccessor().getValue(b);
                 // cut long strings. Less data and vaadin don't support max width for grid cols (and viritin's solution seem to bug some times)
-                if (str.length() > 40) {
-                    str = str.substring(0, 40) + "...";
-                }
-                return str;
+                Object value = accessor.apply(b);
+                return value == null ? "" : CELL_FORMATTER.format(value);
             } catch (Exception ex) {
                 Logger.getLogger(JpaEntityGrid.class.getName()).log(Level.SEVERE, null, ex);
             }
@@ -131,15 +281,6 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
         };
     }
 
-    private static Attribute<?, ?> getAttributeOrNull(EntityType<?> entityType, String name) {
-        try {
-            return entityType.getAttribute(name);
-        } catch (IllegalArgumentException e) {
-            // Not a persistent attribute (e.g. a derived getter with no field)
-            return null;
-        }
-    }
-
     class ColumnHeader extends Div {
 
         ColumnHeader(Attribute attr) {
@@ -161,9 +302,12 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
         return entityType;
     }
 
+    public EntityMetadata getMetadata() {
+        return metadata;
+    }
+
     private void listEntities(EntityType<?> entityType) {
-        String jpql = getBaseJpqlQuery();
-        listEntities(jpql);
+        listEntities("");
     }
 
     private String getBaseJpqlQuery() {
@@ -171,30 +315,548 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
         return jpql;
     }
 
-    private void listEntities(String jpql) {
-        setItems(query -> {
-            return getEntityManager().createQuery(jpql + orderByClause(query.getSortOrders()))
-                    .setFirstResult(query.getOffset())
-                    .setMaxResults(query.getLimit())
-                    .getResultList().stream();
+    /**
+     * Lists the entities with an optional JPQL where clause.
+     */
+    private void listEntities(String jpqlFilter) {
+        if (jpqlFilter.isBlank() && listInMemory(new FilterGroup(), () -> listEntities(""))) {
+            return;
+        }
+        // literals become bound parameters, so filter variants share plans
+        FilterBuildEvent event = new FilterBuildEvent();
+        event.begin();
+        long start = System.nanoTime();
+        ParameterizedJpql filter = ExplorerServices.parameterizedFilters()
+                .forFilter(getEntityManager(), entityType.getName(), jpqlFilter);
+        ExplorerServices.metrics().filterBuilt(entityType.getName(), System.nanoTime() - start);
+        commit(event, "jpql");
+        listEntities(filter);
+    }
+
+    /**
+     * Lists the entities with a parameterized JPQL where clause. A fresh
+     * keyset pagination state is used for each filter, as remembered page
+     * boundaries are only valid for the same result set.
+     */
+    private void listEntities(ParameterizedJpql filter) {
+        currentListing = () -> listEntities(filter);
+        closeSnapshot();
+        KeysetPagination keyset = keysetPaginationEnabled ? KeysetPagination.forEntity(entityType) : null;
+        PagePrefetcher<T> prefetcher = newPrefetcher();
+        GridLazyDataView<T> dataView = setItems(query -> {
+            List<CriteriaListing.PropertySort> sorts = toPropertySorts(query.getSortOrders());
+            return fetchPage(prefetcher, filter, sorts, query.getOffset(), query.getLimit(),
+                    jpqlLoader(filter, keyset, sorts));
+        });
+        dataView.setIdentifierProvider(this::identifier);
+        countRows(dataView, filter, CountQuery.jpql(entityType.getName(), filter));
+    }
+
+    /**
+     * Creates the page loader for the JPQL listing. The column dependent
+     * plans are resolved here, on the UI thread, as the loader may also be
+     * called from read-ahead threads.
+     */
+    private PagePrefetcher.PageLoader<T> jpqlLoader(ParameterizedJpql filter, KeysetPagination keyset,
+            List<CriteriaListing.PropertySort> sorts) {
+        Projection<T> projection = projection();
+        if (projection != null) {
+            String selection = projection.getPaths().stream()
+                    .map(path -> "e." + path)
+                    .collect(Collectors.joining(", "));
+            return (em, offset, limit) -> fetchJpqlRows(em, selection, projection.getPaths().size(), Map.of(),
+                    filter, keyset, sorts, offset, limit)
+                    .stream().map(projection::toEntity).toList();
+        }
+        FetchPlan fetchPlan = fetchPlan();
+        boolean readOnly = managedReadMode;
+        return (em, offset, limit) -> {
+            Map<String, Object> hints = queryHints(em, fetchPlan, readOnly);
+            List<T> page;
+            if (keyset == null) {
+                String where = filter.isEmpty() ? "" : " where " + filter.jpql();
+                Query query = em.createQuery(getBaseJpqlQuery() + where + orderByClause(sorts));
+                filter.bind(query);
+                hints.forEach(query::setHint);
+                page = query.setFirstResult(offset)
+                        .setMaxResults(limit)
+                        .getResultList();
+            } else {
+                page = fetchJpqlRows(em, "e", 1, hints, filter, keyset, sorts, offset, limit)
+                        .stream().map(row -> (T) row[0]).toList();
+            }
+            fetchPlan.initializeCollections(em, entityType.getName(), page);
+            return page;
+        };
+    }
+
+    /**
+     * Serves a page through the read-ahead prefetcher of the listing and, if
+     * the rows can be shared, the application-wide page cache.
+     *
+     * @param filterKey identifies the filter in the page cache
+     */
+    private Stream<T> fetchPage(PagePrefetcher<T> prefetcher, Object filterKey,
+            List<CriteriaListing.PropertySort> sorts, int offset, int limit, PagePrefetcher.PageLoader<T> loader) {
+        // pages are only valid for the same ordering and columns
+        Object ordering = List.of(sorts, visibleColumnKeys());
+        StatementLog statementLog = getStatementLog();
+        ExplorerMetrics metrics = ExplorerServices.metrics();
+        String entityName = entityType.getName();
+        PagePrefetcher.PageLoader<T> unlogged = loader;
+        loader = (em, pageOffset, pageLimit) -> statementLog.scope(
+                "fetch offset " + pageOffset + ", limit " + pageLimit, () -> {
+                    PageFetchEvent event = new PageFetchEvent();
+                    event.begin();
+                    long statementsBefore = statementLog.getThreadStatementCount();
+                    long start = System.nanoTime();
+                    List<T> rows = unlogged.load(em, pageOffset, pageLimit);
+                    metrics.pageFetched(entityName, System.nanoTime() - start, rows.size());
+                    if (event.shouldCommit()) {
+                        event.entityName = entityName;
+                        event.offset = pageOffset;
+                        event.limit = pageLimit;
+                        event.rows = rows.size();
+                        event.statements = statementLog.getThreadStatementCount() - statementsBefore;
+                        event.commit();
+                    }
+                    return rows;
+                });
+        if (pageCacheEnabled && rowsShareable()) {
+            PageCache pageCache = ExplorerServices.pageCache();
+            PagePrefetcher.PageLoader<T> uncached = loader;
+            EntityManagerFactory entityManagerFactory = getEntityManagerFactory();
+            Set<String> relatedEntities = shownAssociationTargets();
+            loader = (em, pageOffset, pageLimit) -> pageCache.get(new PageCache.PageKey(entityType.getName(),
+                    relatedEntities, filterKey, ordering, pageOffset, pageLimit), () -> {
+                        // shared rows must not belong to any session, so they
+                        // are loaded with an entity manager closed right after
+                        try (EntityManager own = statementLog.open(entityManagerFactory)) {
+                            return uncached.load(own, pageOffset, pageLimit);
+                        }
+                    });
+        }
+        UI current = UI.getCurrent();
+        if (asyncLoading && managedReadMode && current != null
+                && current.getPushConfiguration().getPushMode().isEnabled()) {
+            return fetchPageAsync(current, ordering, offset, limit, loader);
+        }
+        long statementsBefore = statementLog.getThreadStatementCount();
+        List<T> page = prefetcher.fetch(getEntityManager(), ordering, offset, limit, loader);
+        summarizeAssociations(page);
+        nPlusOneDetector.pageFetched(page.size(), statementsBefore);
+        if (managedReadMode) {
+            clearEntityManagerAfterResponse();
+        }
+        UI ui = UI.getCurrent();
+        if (ui != null) {
+            beginRender(page.size());
+            // served pages stay attached to their entity manager until rendered
+            ui.beforeClientResponse(this, context -> {
+                prefetcher.releaseServed();
+                endRender();
+                reportNPlusOne(nPlusOneDetector.pagesRendered());
+            });
+        } else {
+            prefetcher.releaseServed();
+        }
+        return page.stream();
+    }
+
+    /**
+     * Serves a page loaded off the UI thread, or placeholder rows while it is
+     * loading. The listing is refreshed, and the page served, once it has
+     * loaded; the update reaches the browser through push. The association
+     * summaries of the page are loaded off the UI thread too.
+     */
+    private Stream<T> fetchPageAsync(UI ui, Object ordering, int offset, int limit,
+            PagePrefetcher.PageLoader<T> pageLoader) {
+        Consumer<List<T>> summarizer = associationSummarizer();
+        PagePrefetcher.PageLoader<T> loader = (em, pageOffset, pageLimit) -> {
+            List<T> rows = pageLoader.load(em, pageOffset, pageLimit);
+            summarizer.accept(rows);
+            return rows;
+        };
+        if (asyncLoader == null) {
+            // the loads hand their pages to this UI, captured here on its thread
+            StatementLog statementLog = getStatementLog();
+            EntityManagerFactory entityManagerFactory = getEntityManagerFactory();
+            asyncLoader = new AsyncPageLoader<>(() -> statementLog.open(entityManagerFactory),
+                    task -> ui.access(task::run), this::pageLoaded);
+        }
+        AsyncPageLoader<T> servedBy = asyncLoader;
+        List<T> page = servedBy.fetch(ordering, offset, limit, loader);
+        if (page == null) {
+            // the same placeholders each time the loading page is requested
+            return placeholderPages.computeIfAbsent(new AsyncPageLoader.PageKey(ordering, offset, limit), key -> {
+                List<T> rows = new ArrayList<>(limit);
+                for (int i = 0; i < limit; i++) {
+                    T placeholder = newPlaceholder();
+                    placeholders.put(placeholder, new Placeholder(placeholderSerial++));
+                    rows.add(placeholder);
+                }
+                return rows;
+            }).stream();
+        }
+        // the page's own statements ran on the loading thread
+        nPlusOneDetector.pageFetched(page.size(), getStatementLog().getThreadStatementCount());
+        beginRender(page.size());
+        ui.beforeClientResponse(this, context -> {
+            servedBy.releaseServed();
+            endRender();
+            reportNPlusOne(nPlusOneDetector.pagesRendered());
         });
+        return page.stream();
+    }
+
+    private T newPlaceholder() {
+        try {
+            Constructor<T> constructor = (Constructor<T>) entityType.getJavaType().getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create placeholder rows for " + entityType.getName(), e);
+        }
+    }
+
+    /**
+     * Shows a loaded page: the grid requests its rows again and gets the
+     * loaded ones instead of placeholders. Placeholders of pages still
+     * loading stay placeholders.
+     */
+    private void pageLoaded(AsyncPageLoader.PageKey page) {
+        List<T> rows = placeholderPages.remove(page);
+        if (rows != null) {
+            rows.forEach(placeholders::remove);
+        }
+        getDataCommunicator().reset();
+    }
+
+    private void cancelAsyncLoads() {
+        if (asyncLoader != null) {
+            asyncLoader.cancel();
+            asyncLoader = null;
+        }
+        placeholders.clear();
+        placeholderPages.clear();
+    }
+
+    private Object identifier(T row) {
+        Placeholder placeholder = placeholders.get(row);
+        return placeholder != null ? placeholder : row;
+    }
+
+    /**
+     * @return true if the row is a placeholder shown while its page loads,
+     * see {@link #setAsyncLoading(boolean)}
+     */
+    public boolean isPlaceholder(Object row) {
+        return placeholders.containsKey(row);
+    }
+
+    private SerializableConsumer<T> loadedOnly(SerializableConsumer<T> action) {
+        return row -> {
+            if (!isPlaceholder(row)) {
+                action.accept(row);
+            }
+        };
+    }
+
+    /**
+     * Enables or disables loading pages from the database asynchronously,
+     * off by default. The queries then run on virtual threads without the
+     * session lock, so a slow query doesn't freeze the rest of the UI or
+     * other grids of the session. Until a page has loaded, the grid shows
+     * empty placeholder rows (see {@link #isPlaceholder(Object)}); loads of
+     * pages the user has scrolled away from are cancelled.
+     * <p>
+     * Requires server push to fill in the loaded rows; without push, and
+     * outside managed read mode, pages are loaded synchronously. Small
+     * tables listed in memory are not affected.
+     */
+    public void setAsyncLoading(boolean asyncLoading) {
+        this.asyncLoading = asyncLoading;
+        currentListing.run();
+    }
+
+    public boolean isAsyncLoading() {
+        return asyncLoading;
+    }
+
+    /**
+     * @return true if the rows loaded for the current columns can be shared
+     * with other sessions: unmanaged projection rows, or in managed read mode
+     * entities, provided no computed column is shown (a derived getter could
+     * touch lazy state that is not loaded). Shared entities are loaded with an
+     * entity manager of their own, closed before they are cached.
+     */
+    private boolean rowsShareable() {
+        if (currentProjection != null) {
+            return true;
+        }
+        return managedReadMode && visibleColumnKeys().stream()
+                .allMatch(key -> key.equals("actions") || metadata.getAttribute(key) != null);
+    }
+
+    /**
+     * Enables or disables sharing loaded pages with other users through the
+     * application-wide page cache, on by default. Cached pages expire after
+     * a while and are dropped when the entity is written through JPA.
+     */
+    public void setPageCacheEnabled(boolean pageCacheEnabled) {
+        this.pageCacheEnabled = pageCacheEnabled;
+        currentListing.run();
+    }
+
+    public boolean isPageCacheEnabled() {
+        return pageCacheEnabled;
+    }
+
+    /**
+     * Replaces the prefetcher of the previous listing and drops its async
+     * loader, cancelling their loads, as their pages are stale after a filter
+     * change. The async loader of the new listing is created with its first
+     * page. Both are only used in managed read mode, where rows are detached
+     * after rendering anyway, so it makes no difference which entity manager
+     * loaded them.
+     */
+    private PagePrefetcher<T> newPrefetcher() {
+        if (prefetcher != null) {
+            prefetcher.cancel();
+        }
+        cancelAsyncLoads();
+        StatementLog statementLog = getStatementLog();
+        EntityManagerFactory entityManagerFactory = getEntityManagerFactory();
+        prefetcher = new PagePrefetcher<>(() -> statementLog.open(entityManagerFactory),
+                managedReadMode ? readAheadPages : 0);
+        return prefetcher;
+    }
+
+    /**
+     * Sets how many pages are loaded ahead in the scroll direction on a
+     * background thread, 1 by default. Use 0 to disable read-ahead. Only
+     * effective in managed read mode.
+     */
+    public void setReadAheadPages(int readAheadPages) {
+        this.readAheadPages = readAheadPages;
+        currentListing.run();
+    }
+
+    public int getReadAheadPages() {
+        return readAheadPages;
+    }
+
+    /**
+     * Executes a JPQL tuple query for a page. With keyset pagination, the key
+     * values are selected after the given selection and remembered as the
+     * page boundary.
+     *
+     * @param selection     the select list, e.g. {@code e} or attribute paths
+     * @param selectionSize the number of items in the selection
+     */
+    private List<Object[]> fetchJpqlRows(EntityManager em, String selection, int selectionSize,
+            Map<String, Object> hints, ParameterizedJpql filter, KeysetPagination keyset,
+            List<CriteriaListing.PropertySort> sorts, int offset, int limit) {
+        List<CriteriaListing.PropertySort> keyOrder = keyset == null ? sorts : keyset.keyOrder(sorts);
+        KeysetPagination.Boundary boundary = keyset == null ? null : keyset.seek(keyOrder, offset);
+        Map<String, Object> parameters = new HashMap<>(filter.parameters());
+        StringBuilder jpql = new StringBuilder("select ").append(selection);
+        if (keyset != null) {
+            keyOrder.forEach(sort -> jpql.append(", e.").append(sort.path()));
+        }
+        jpql.append(" from ").append(entityType.getName()).append(" e");
+        if (boundary != null) {
+            String seek = keyset.toJpql("e", keyOrder, boundary.values(), parameters);
+            jpql.append(filter.isEmpty()
+                    ? " where " + seek
+                    : " where (" + filter.jpql() + ") and " + seek);
+        } else if (!filter.isEmpty()) {
+            jpql.append(" where ").append(filter.jpql());
+        }
+        jpql.append(orderByClause(keyOrder));
+
+        TypedQuery<Object[]> query = em.createQuery(jpql.toString(), Object[].class);
+        parameters.forEach(query::setParameter);
+        hints.forEach(query::setHint);
+        List<Object[]> rows = query
+                .setFirstResult(boundary == null ? offset : offset - boundary.offset())
+                .setMaxResults(limit)
+                .getResultList();
+        if (keyset != null && !rows.isEmpty()) {
+            Object[] last = rows.getLast();
+            keyset.record(keyOrder, offset + rows.size(),
+                    Arrays.asList(last).subList(selectionSize, last.length));
+        }
+        return rows;
+    }
+
+    /**
+     * @return the projection of the visible columns to load the rows with,
+     * or {@code null} if full entities must be loaded (projection mode off,
+     * rows selectable, or computed/association columns visible)
+     */
+    private Projection<T> projection() {
+        // partial rows must never become the value or reach selection events
+        boolean selectable = !(getSelectionModel() instanceof GridNoneSelectionModel);
+        currentProjection = projectionEnabled && !selectable
+                ? Projection.forAttributes((EntityType<T>) entityType, visibleColumnKeys(), Set.of("actions"))
+                : null;
+        return currentProjection;
+    }
+
+    /**
+     * Rows loaded with a projection lack the data of columns that were
+     * hidden at the time, so they are reloaded when such a column is shown.
+     */
+    private void onColumnVisibilityChange(Column<T> column) {
+        if (column.isVisible() && currentProjection != null
+                && !currentProjection.contains(column.getKey())) {
+            getDataProvider().refreshAll();
+        }
+    }
+
+    /**
+     * Enables or disables the projection mode, off by default. In projection
+     * mode only the visible basic columns (and the id) are selected from the
+     * database and rows are lightweight, unmanaged entity instances with just
+     * those fields populated. Edit, delete and browse actions load the full
+     * entity by id. If computed or association columns are visible, full
+     * entities are loaded, as their inputs are unknown.
+     * <p>
+     * Only effective with {@link SelectionMode#NONE}: the partial instances
+     * are never exposed as the value of the grid or in selection events.
+     */
+    public void setProjectionMode(boolean enabled) {
+        this.projectionEnabled = enabled;
+        currentListing.run();
+    }
+
+    @Override
+    public GridSelectionModel<T> setSelectionMode(SelectionMode selectionMode) {
+        GridSelectionModel<T> model = super.setSelectionMode(selectionMode);
+        if (projectionEnabled) {
+            // (un)selectable rows change whether rows may be projected
+            currentListing.run();
+        }
+        return model;
+    }
+
+    public boolean isProjectionMode() {
+        return projectionEnabled;
+    }
+
+    /**
+     * @return the full entity managed by this grid's entity manager for a
+     * row or an association value. Rows loaded in projection mode are partial
+     * and must never be merged or edited as such, and in managed read mode
+     * rendered entities are detached, so both are reloaded by id.
+     */
+    private Object loadFullEntity(Object entity) {
+        EntityManager em = getEntityManager();
+        if (entity == null || em.contains(entity)) {
+            return entity;
+        }
+        Object id = getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+        return em.find(Hibernate.getClass(entity), id);
+    }
+
+    /**
+     * Plans loading the associations shown in the visible columns together
+     * with each page, instead of lazily per row and column.
+     */
+    private FetchPlan fetchPlan() {
+        return FetchPlan.forAttributes(entityType, visibleColumnKeys());
+    }
+
+    /**
+     * @return the hints for an entity page query: the load graph of the fetch
+     * plan and, in managed read mode, read-only loading
+     */
+    private Map<String, Object> queryHints(EntityManager em, FetchPlan fetchPlan, boolean readOnly) {
+        Map<String, Object> hints = new HashMap<>();
+        fetchPlan.addHints(hints, em, entityType.getJavaType());
+        if (readOnly) {
+            // no dirty checking snapshots for entities that are only shown
+            hints.put(READ_ONLY_HINT, true);
+        }
+        return hints;
+    }
+
+    /**
+     * Enables or disables the managed read mode, on by default. In this mode
+     * pages are loaded read-only and the entity manager is cleared after each
+     * response, so heap usage stays flat no matter how far the user scrolls.
+     * Actions on a row (edit, delete, browse) reload the entity by id.
+     */
+    public void setManagedReadMode(boolean managedReadMode) {
+        this.managedReadMode = managedReadMode;
+        discardSnapshot();
+        currentListing.run();
+    }
+
+    public boolean isManagedReadMode() {
+        return managedReadMode;
+    }
+
+    /**
+     * @return the names of the entities shown in the visible association
+     * columns, e.g. in the one-liners of collections, whose writes make
+     * cached pages stale too
+     */
+    private Set<String> shownAssociationTargets() {
+        Set<String> targets = new HashSet<>();
+        for (String key : visibleColumnKeys()) {
+            Attribute<?, ?> attribute = metadata.getAttribute(key);
+            if (attribute instanceof PluralAttribute<?, ?, ?> collection
+                    && collection.getElementType() instanceof EntityType<?> target) {
+                targets.add(target.getName());
+            } else if (attribute instanceof SingularAttribute<?, ?> toOne
+                    && toOne.getType() instanceof EntityType<?> target) {
+                targets.add(target.getName());
+            }
+        }
+        return Set.copyOf(targets);
+    }
+
+    private List<String> visibleColumnKeys() {
+        return getColumns().stream()
+                .filter(Column::isVisible)
+                .map(Column::getKey)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     /**
      * Builds a JPQL order by clause from the grid's sort state. The sorted
      * keys are column sort properties, which are always attribute names set
-     * by this class — never free-form client input.
+     * by this class — never free-form client input. NULLs sort as the
+     * smallest value, the same way as in the criteria listing.
      */
-    private static String orderByClause(List<QuerySortOrder> sortOrders) {
-        if (sortOrders.isEmpty()) {
+    private static String orderByClause(List<CriteriaListing.PropertySort> sorts) {
+        if (sorts.isEmpty()) {
             return "";
         }
-        return sortOrders.stream()
-                .map(so -> "e." + so.getSorted()
-                        + (so.getDirection() == SortDirection.DESCENDING ? " desc" : ""))
+        return sorts.stream()
+                .map(sort -> "e." + sort.path()
+                        + (sort.ascending() ? " asc nulls first" : " desc nulls last"))
                 .collect(Collectors.joining(", ", " order by ", ""));
     }
 
+    /**
+     * Enables or disables keyset (seek) pagination, on by default. With it,
+     * scrolling deep into a large table costs the same as the first page;
+     * random jumps still fall back to offset paging. Entities without a
+     * single basic id always use offset paging.
+     */
+    public void setKeysetPagination(boolean enabled) {
+        this.keysetPaginationEnabled = enabled;
+        currentListing.run();
+    }
+
+    public boolean isKeysetPagination() {
+        return keysetPaginationEnabled;
+    }
+
     private static List<CriteriaListing.PropertySort> toPropertySorts(List<QuerySortOrder> sortOrders) {
         return sortOrders.stream()
                 .map(so -> new CriteriaListing.PropertySort(so.getSorted(),
@@ -202,19 +864,39 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
                 .toList();
     }
 
-    /** Sorting is offered for basic-typed persistent attributes only. */
-    private static boolean isSortable(Attribute<?, ?> attribute) {
-        return attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC;
+    public void filter(String jpqlFilter) {
+        listEntities(jpqlFilter);
     }
 
-    public void filter(String jpqlFilter) {
-        if (jpqlFilter.isEmpty()) {
-            listEntities(entityType);
-        } else {
-            String baseJpqlQuery = getBaseJpqlQuery();
-            String jpql = baseJpqlQuery + " where ";
-            jpql += jpqlFilter;
-            listEntities(jpql);
+    /**
+     * Filters with a visual filter tree. The tree is compiled once into a
+     * parameterized JPQL plan, so page fetches only bind values, and
+     * listings with equal filters share cached pages and counts. Small
+     * tables are filtered in memory instead, see
+     * {@link #setInMemoryThreshold(int)}.
+     *
+     * @param group the filter, compiled as it is now; later changes to it
+     * don't affect the listing
+     */
+    public void filter(FilterGroup group) {
+        FilterGroup copy = group.copy();
+        if (listInMemory(copy, () -> filter(copy))) {
+            return;
+        }
+        FilterBuildEvent event = new FilterBuildEvent();
+        event.begin();
+        long start = System.nanoTime();
+        FilterQueryPlan plan = FilterQueryPlan.compile(copy, "e");
+        ExplorerServices.metrics().filterBuilt(entityType.getName(), System.nanoTime() - start);
+        commit(event, "visual");
+        listEntities(new ParameterizedJpql(plan.where(), plan.parameters()));
+    }
+
+    private void commit(FilterBuildEvent event, String kind) {
+        if (event.shouldCommit()) {
+            event.entityName = entityType.getName();
+            event.kind = kind;
+            event.commit();
         }
     }
 
@@ -227,69 +909,541 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
      * fetch with the then-current EntityManager's CriteriaBuilder.
      */
     public void filter(FilterSpecification<T> specification) {
+        currentListing = () -> filter(specification);
+        closeSnapshot();
         Class<T> javaType = (Class<T>) entityType.getJavaType();
-        setItems(query -> CriteriaListing.fetch(getEntityManager(), javaType,
-                specification, toPropertySorts(query.getSortOrders()),
-                query.getOffset(), query.getLimit()).stream());
+        KeysetPagination keyset = keysetPaginationEnabled ? KeysetPagination.forEntity(entityType) : null;
+        PagePrefetcher<T> prefetcher = newPrefetcher();
+        GridLazyDataView<T> dataView = setItems(query -> {
+            List<CriteriaListing.PropertySort> sorts = toPropertySorts(query.getSortOrders());
+            return fetchPage(prefetcher, specification, sorts, query.getOffset(), query.getLimit(),
+                    criteriaLoader(javaType, specification, keyset, sorts));
+        });
+        dataView.setIdentifierProvider(this::identifier);
+        // lambdas have no value equality, so the count is cached for this
+        // very specification instance only
+        countRows(dataView, specification, CountQuery.criteria(javaType, specification));
     }
 
-    public Component createFilterField() {
-        return new FilterToolbar<>(this);
+    /**
+     * Lists the rows of a small table from an in-memory snapshot, loaded
+     * once, filtering and sorting them with the same semantics as the
+     * database listings.
+     * <p>
+     * Without a snapshot, the size of the table is checked and the snapshot
+     * loaded in the background, and the listing is re-applied in memory once
+     * loaded; meanwhile the caller lists from the database. The same happens
+     * when the entity has been written or the snapshot has expired, as the
+     * table may have grown past the threshold since.
+     *
+     * @param listing re-applies this listing, see {@link #currentListing}
+     * @return false if the table is too large, its snapshot not loaded yet,
+     * or in-memory listing is not used, in which case nothing was changed
+     */
+    private boolean listInMemory(FilterGroup group, Runnable listing) {
+        if (inMemoryThreshold <= 0 || !managedReadMode) {
+            return false;
+        }
+        if (snapshot != null && snapshot.getVersion() != ExplorerServices.entityVersions().get(entityType.getName())) {
+            closeSnapshot();
+        }
+        if (snapshot == null) {
+            loadSnapshotInBackground(listing);
+            return false;
+        }
+        currentListing = listing;
+        // the snapshot holds full entities, projections don't apply
+        currentProjection = null;
+        if (prefetcher != null) {
+            prefetcher.cancel();
+            prefetcher = null;
+        }
+        cancelAsyncLoads();
+        int generation = ++listingGeneration;
+        InMemoryRows rows = new InMemoryRows(snapshot, generation,
+                InMemoryFilter.compile(group, (Class<T>) entityType.getJavaType()));
+        setItems(query -> {
+            long statementsBefore = getStatementLog().getThreadStatementCount();
+            List<T> page = rows.sorted(toPropertySorts(query.getSortOrders())).stream()
+                    .skip(query.getOffset())
+                    .limit(query.getLimit())
+                    .toList();
+            summarizeAssociations(page);
+            nPlusOneDetector.pageFetched(page.size(), statementsBefore);
+            UI ui = UI.getCurrent();
+            if (ui != null) {
+                beginRender(page.size());
+                ui.beforeClientResponse(this, context -> {
+                    endRender();
+                    reportNPlusOne(nPlusOneDetector.pagesRendered());
+                });
+            }
+            return page.stream();
+        }, query -> {
+            int count = rows.filtered().size();
+            if (generation == listingGeneration) {
+                rowCountListeners.forEach(listener -> listener.accept(new RowCountService.RowCount(count, true)));
+            }
+            return count;
+        });
+        return true;
     }
 
-    private class DeleteEntityButton extends org.vaadin.firitin.components.button.DeleteButton {
+    /**
+     * @return true if the entity has been written since the snapshot was
+     * loaded or the snapshot has expired
+     */
+    private boolean isOutdated(TableSnapshot<T> snapshot) {
+        return snapshot.getVersion() != ExplorerServices.entityVersions().get(entityType.getName())
+                || snapshot.isOlderThan(snapshotTimeToLive);
+    }
 
-        DeleteEntityButton(Object entity) {
-            super(() -> {
-                EntityManager em = getEntityManager();
-                em.getTransaction().begin();
-                var reattached = em.merge(entity);
-                em.remove(reattached);
-                try {
-                    em.getTransaction().commit();
-                } catch (Exception e) {
-                    em.getTransaction().rollback();
-                    String msg = e.getMessage();
-                    if (e instanceof jakarta.persistence.RollbackException re) {
-                        msg += ":" + e.getCause().getMessage();
+    /**
+     * Counts the rows of the table up to the threshold on a background
+     * thread, and if the table fits, loads its snapshot there too. On the UI
+     * thread, the loaded snapshot then re-applies the latest listing that
+     * asked for it, unless another listing has been applied since.
+     *
+     * @param listing the listing to re-apply in memory
+     */
+    private void loadSnapshotInBackground(Runnable listing) {
+        UI ui = UI.getCurrent();
+        String entityName = entityType.getName();
+        long version = ExplorerServices.entityVersions().get(entityName);
+        if (ui == null || tooLargeAtVersion == version) {
+            return;
+        }
+        snapshotListing = listing;
+        // the database listing the caller applies meanwhile is the next one
+        snapshotListingGeneration = listingGeneration + 1;
+        if (snapshotLoading) {
+            return;
+        }
+        snapshotLoading = true;
+        int request = ++snapshotRequest;
+        int threshold = inMemoryThreshold;
+        EntityManagerFactory emf = getEntityManagerFactory();
+        EntityType<T> type = (EntityType<T>) entityType;
+        FetchPlan fetchPlan = fetchPlan();
+        CompletableFuture.supplyAsync(() -> {
+            try (EntityManager em = emf.createEntityManager()) {
+                if (CountQuery.jpql(entityName, "").countUpTo(em, threshold + 1) > threshold) {
+                    return null;
+                }
+            }
+            return TableSnapshot.load(emf, type, fetchPlan, version);
+        }).whenComplete((loaded, failure) -> {
+            try {
+                ui.access(() -> {
+                    if (request != snapshotRequest) {
+                        // threshold or mode changed meanwhile
+                        closeQuietly(loaded);
+                        return;
+                    }
+                    snapshotLoading = false;
+                    if (failure != null) {
+                        Logger.getLogger(JpaEntityGrid.class.getName()).log(Level.FINE, "Table snapshot failed", failure);
+                    } else if (loaded == null) {
+                        tooLargeAtVersion = version;
+                    } else if (snapshotListingGeneration != listingGeneration) {
+                        loaded.close();
+                    } else {
+                        closeSnapshot();
+                        snapshot = loaded;
+                        snapshotListing.run();
                     }
-                    Notification.show(msg);
+                });
+            } catch (UIDetachedException e) {
+                closeQuietly(loaded);
+            }
+        });
+    }
+
+    private static void closeQuietly(TableSnapshot<?> loaded) {
+        if (loaded != null) {
+            loaded.close();
+        }
+    }
+
+    private void closeSnapshot() {
+        if (snapshot != null) {
+            snapshot.close();
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Closes the snapshot and discards the one loading in the background,
+     * e.g. when the threshold changes.
+     */
+    private void discardSnapshot() {
+        closeSnapshot();
+        snapshotRequest++;
+        snapshotLoading = false;
+        tooLargeAtVersion = -1;
+    }
+
+    /**
+     * The filtered and sorted rows of an in-memory listing, computed lazily
+     * and kept until the sort order changes. Once the snapshot is outdated,
+     * the listing is re-applied after this round trip, from the database
+     * until the snapshot has been reloaded in the background.
+     */
+    private final class InMemoryRows {
+
+        private final TableSnapshot<T> source;
+        private final int generation;
+        private final Predicate<T> predicate;
+        private List<T> filtered;
+        private List<CriteriaListing.PropertySort> sortedBy;
+        private List<T> sorted;
+        private boolean relisting;
+
+        InMemoryRows(TableSnapshot<T> source, int generation, Predicate<T> predicate) {
+            this.source = source;
+            this.generation = generation;
+            this.predicate = predicate;
+        }
+
+        List<T> filtered() {
+            if (!relisting && isOutdated(source)) {
+                UI ui = UI.getCurrent();
+                if (ui != null) {
+                    relisting = true;
+                    ui.beforeClientResponse(JpaEntityGrid.this, context -> {
+                        if (generation == listingGeneration && snapshot == source) {
+                            closeSnapshot();
+                            currentListing.run();
+                        }
+                    });
                 }
-                listEntities(entityType);
-            });
-            setTooltipText("Tries to delete entity. Note, that this can fail for constraint violations.");
-            addThemeVariants(ButtonVariant.LUMO_TERTIARY_INLINE);
+            }
+            if (filtered == null) {
+                filtered = source.getRows().stream().filter(predicate).toList();
+            }
+            return filtered;
+        }
+
+        List<T> sorted(List<CriteriaListing.PropertySort> sorts) {
+            List<T> rows = filtered();
+            if (sorted == null || !sorts.equals(sortedBy)) {
+                // a stable sort, so equal rows stay in id order
+                sorted = sorts.isEmpty() ? rows : rows.stream()
+                        .sorted(InMemoryFilter.comparator((Class<T>) entityType.getJavaType(), sorts))
+                        .toList();
+                sortedBy = sorts;
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * Sets the row count up to which a table is loaded into memory once and
+     * then filtered (visual filters) and sorted without the database, 500 by
+     * default. The table size is checked with a bounded count in the
+     * background when a listing starts, which is paged from the database
+     * until the snapshot has loaded; larger tables stay paged from the
+     * database. Use 0 to always query the database. Only effective in
+     * managed read mode.
+     * <p>
+     * String ordering in memory follows Java rather than the database
+     * collation. Writes through JPA reload the snapshot in the background, as
+     * the table may have grown past the threshold; changes made to the
+     * table by other means are seen once the snapshot expires, see {@link
+     * #setSnapshotTimeToLive(Duration)}.
+     */
+    public void setInMemoryThreshold(int inMemoryThreshold) {
+        this.inMemoryThreshold = inMemoryThreshold;
+        discardSnapshot();
+        currentListing.run();
+    }
+
+    public int getInMemoryThreshold() {
+        return inMemoryThreshold;
+    }
+
+    /**
+     * Sets how long the in-memory snapshot of a table is used before it is
+     * reloaded, 30 seconds by default. Bulk JPQL, native SQL and writes of
+     * other nodes don't reload it otherwise.
+     */
+    public void setSnapshotTimeToLive(Duration snapshotTimeToLive) {
+        this.snapshotTimeToLive = snapshotTimeToLive;
+    }
+
+    public Duration getSnapshotTimeToLive() {
+        return snapshotTimeToLive;
+    }
+
+    /**
+     * @return true if the current listing is served from memory
+     */
+    public boolean isListedInMemory() {
+        return snapshot != null;
+    }
+
+    /**
+     * Creates the page loader for the criteria listing, see {@link #jpqlLoader}.
+     */
+    private PagePrefetcher.PageLoader<T> criteriaLoader(Class<T> javaType, FilterSpecification<T> specification,
+            KeysetPagination keyset, List<CriteriaListing.PropertySort> sorts) {
+        Projection<T> projection = projection();
+        if (projection != null) {
+            return (em, offset, limit) -> CriteriaListing.fetchProjection(em, javaType,
+                    specification, sorts, keyset, projection.getPaths(), offset, limit)
+                    .stream().map(projection::toEntity).toList();
+        }
+        FetchPlan fetchPlan = fetchPlan();
+        boolean readOnly = managedReadMode;
+        return (em, offset, limit) -> {
+            List<T> page = CriteriaListing.fetch(em, javaType, specification, sorts,
+                    keyset, queryHints(em, fetchPlan, readOnly), offset, limit);
+            fetchPlan.initializeCollections(em, entityType.getName(), page);
+            return page;
+        };
+    }
+
+    /**
+     * Resolves the row count of the current listing in the background and
+     * pushes it to the grid when ready. The first page never waits for the
+     * count; until it arrives, the grid grows its size while scrolling.
+     */
+    private void countRows(GridLazyDataView<T> dataView, Object filterKey, CountQuery countQuery) {
+        int generation = ++listingGeneration;
+        UI ui = UI.getCurrent();
+        if (countStrategy == RowCountService.Strategy.NONE || ui == null) {
+            return;
         }
+        ExplorerServices.rowCounts()
+                .count(entityType.getName(), filterKey, countStrategy, countQuery)
+                .thenAccept(rowCount -> ui.access(() -> {
+                    if (generation != listingGeneration) {
+                        // filter changed meanwhile
+                        return;
+                    }
+                    int count = (int) Math.min(rowCount.count(), Integer.MAX_VALUE);
+                    if (rowCount.exact()) {
+                        dataView.setItemCountCallback(query -> count);
+                    } else {
+                        dataView.setItemCountEstimate(count);
+                    }
+                    rowCountListeners.forEach(listener -> listener.accept(rowCount));
+                }))
+                .exceptionally(e -> {
+                    // e.g. an invalid JPQL filter, reported by the fetch already
+                    Logger.getLogger(JpaEntityGrid.class.getName()).log(Level.FINE, "Row count failed", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Sets how the row count of listings is resolved, {@link
+     * RowCountService.Strategy#EXACT} by default. Use {@link
+     * RowCountService.Strategy#ESTIMATE} for huge tables.
+     */
+    public void setCountStrategy(RowCountService.Strategy countStrategy) {
+        this.countStrategy = countStrategy;
+        currentListing.run();
     }
 
-    private static class PrettyPrintButton extends PopoverButton {
+    public RowCountService.Strategy getCountStrategy() {
+        return countStrategy;
+    }
+
+    /**
+     * Adds a listener notified when the (possibly estimated) row count of the
+     * current listing becomes available.
+     */
+    public Registration addRowCountListener(SerializableConsumer<RowCountService.RowCount> listener) {
+        rowCountListeners.add(listener);
+        return () -> rowCountListeners.remove(listener);
+    }
 
-        public PrettyPrintButton(Object entity) {
-            super(() -> PrettyPrinter.toVaadin(entity));
-            setIcon(VaadinIcon.EYE.create());
-            addThemeVariants(ButtonVariant.LUMO_TERTIARY_INLINE);
-            setTooltipText("Browse entity details");
+    /**
+     * Starts recording the rendering of fetched rows as a {@link RenderEvent},
+     * unless already recording for the current response, and adds the rows.
+     */
+    private void beginRender(int rows) {
+        if (renderEvent == null) {
+            renderEvent = new RenderEvent();
+            if (!renderEvent.isEnabled()) {
+                renderEvent = null;
+                return;
+            }
+            renderEvent.begin();
+            renderStatementsBefore = getStatementLog().getThreadStatementCount();
         }
+        renderEvent.rows += rows;
     }
 
-    private static class AssociationColumn extends VHorizontalLayout {
+    private void endRender() {
+        if (renderEvent != null) {
+            renderEvent.end();
+            if (renderEvent.shouldCommit()) {
+                renderEvent.entityName = entityType.getName();
+                renderEvent.statements = getStatementLog().getThreadStatementCount() - renderStatementsBefore;
+                renderEvent.commit();
+            }
+            renderEvent = null;
+        }
+    }
 
-        public AssociationColumn(Object value) {
-            add(
-                    new Emphasis("🔗→ " + PrettyPrinter.printOneLiner(value, 100)) {
-                {
-                    setMaxWidth("200px");
-                    getStyle().setOverflow(Style.Overflow.HIDDEN);
-                    getStyle().set("text-overflow", "ellipsis");
-                    setTitle("Column is an assosiation to another entity.");
-                }
-            },
-                    new PrettyPrintButton(value)
-            );
-            setSpacing(false);
+    /**
+     * @return the detector of N+1 statement patterns in the listing, e.g. to
+     * tune its thresholds
+     */
+    public NPlusOneDetector getNPlusOneDetector() {
+        return nPlusOneDetector;
+    }
+
+    /**
+     * Adds a listener notified each time rendering a set of rows ran more
+     * statements than the {@link NPlusOneDetector} tolerates, e.g. to count
+     * them in a metric.
+     */
+    public Registration addNPlusOneListener(SerializableConsumer<NPlusOneDetector.Report> listener) {
+        nPlusOneListeners.add(listener);
+        return () -> nPlusOneListeners.remove(listener);
+    }
+
+    /**
+     * Logs a detected N+1 pattern and tells the user about it, once per
+     * cause, naming the column to hide or the mapping to fix.
+     */
+    private void reportNPlusOne(NPlusOneDetector.Report report) {
+        if (report == null) {
+            return;
+        }
+        String culprit = report.culprit();
+        String cause;
+        if (culprit == null) {
+            cause = "the page fetch itself, e.g. eagerly fetched associations";
+        } else if (metadata.getAttribute(culprit) == null) {
+            cause = "the computed column " + culprit + ", which lazily loads data";
+        } else {
+            cause = "lazy loading of the association " + culprit;
+        }
+        String message = report.statements() + " SQL statements for " + report.rows() + " rows of "
+                + entityType.getName() + ", mostly by " + cause;
+        ExplorerServices.metrics().nPlusOneDetected(entityType.getName(), report);
+        nPlusOneListeners.forEach(listener -> listener.accept(report));
+        Logger logger = Logger.getLogger(JpaEntityGrid.class.getName());
+        if (warnedNPlusOneCauses.add(String.valueOf(culprit))) {
+            logger.warning("N+1 query pattern: " + message + " " + report.lazyLoads());
+            Notification notification = Notification.show("Possible N+1 query problem: " + message
+                    + ". Consider hiding the column.", 5000, Notification.Position.BOTTOM_END);
+            notification.addThemeVariants(NotificationVariant.LUMO_WARNING);
+        } else {
+            logger.fine("N+1 query pattern: " + message);
         }
     }
 
+    public Component createFilterField() {
+        return new FilterToolbar<>(this);
+    }
+
+    private void editEntity(T entity) {
+        Object fullEntity = loadFullEntity(entity);
+        UI.getCurrent().navigate(EntityEditorView.class).ifPresent(view -> {
+            view.editEntity(fullEntity);
+        });
+    }
+
+    private void confirmDelete(T entity) {
+        Dialog dialog = new Dialog("Delete entity?");
+        dialog.add(new Paragraph(PrettyPrinter.printOneLiner(loadFullEntity(entity), 100)));
+        Button delete = new Button("Delete", e -> {
+            dialog.close();
+            deleteEntity(entity);
+        });
+        delete.addThemeVariants(ButtonVariant.LUMO_PRIMARY, ButtonVariant.LUMO_ERROR);
+        dialog.getFooter().add(new Button("Cancel", e -> dialog.close()), delete);
+        dialog.open();
+    }
+
+    /**
+     * Tries to delete entity. Note, that this can fail for constraint violations.
+     */
+    private void deleteEntity(Object entity) {
+        Object fullEntity = loadFullEntity(entity);
+        Exception failure = EntityWrites.run(getEntityManager(), getStatementLog(), entityType.getName(),
+                ExplorerMetrics.Operation.DELETE, em -> em.remove(em.merge(fullEntity)));
+        if (failure != null) {
+            String msg = failure.getMessage();
+            if (failure instanceof jakarta.persistence.RollbackException) {
+                msg += ":" + failure.getCause().getMessage();
+            }
+            Notification.show(msg);
+        }
+        listEntities(entityType);
+    }
+
+    /**
+     * Loads the summaries of the to-one associations shown for a page, one
+     * query per association for the targets not cached yet, before the cells
+     * ask for them one by one.
+     */
+    private void summarizeAssociations(List<T> page) {
+        associationSummarizer().accept(page);
+    }
+
+    /**
+     * Captures the shown to-one associations on the UI thread, for loading
+     * the summaries of a page on any thread, see {@link
+     * #summarizeAssociations(List)}.
+     */
+    private Consumer<List<T>> associationSummarizer() {
+        PersistenceUnitUtil util = getEntityManagerFactory().getPersistenceUnitUtil();
+        AssociationSummaries summaries = ExplorerServices.associationSummaries();
+        List<Map.Entry<EntityType<?>, Function<Object, Object>>> toOnes = new ArrayList<>();
+        for (String key : visibleColumnKeys()) {
+            if (metadata.getAttribute(key) instanceof SingularAttribute<?, ?> toOne && toOne.isAssociation()
+                    && AssociationSummaries.canSummarize((EntityType<?>) toOne.getType())) {
+                toOnes.add(Map.entry((EntityType<?>) toOne.getType(),
+                        PropertyAccessors.forPath(entityType.getJavaType(), key)));
+            }
+        }
+        return page -> {
+            if (page.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<EntityType<?>, Function<Object, Object>> toOne : toOnes) {
+                List<Object> ids = page.stream()
+                        .map(toOne.getValue())
+                        .filter(Objects::nonNull)
+                        .map(util::getIdentifier)
+                        .distinct()
+                        .toList();
+                summaries.summarize(toOne.getKey(), ids);
+            }
+        };
+    }
+
+    /**
+     * @param reference the associated entity, only its id is read
+     */
+    private String summary(EntityType<?> target, Object reference) {
+        if (reference == null) {
+            return "";
+        }
+        // the id of a reference is known without loading it
+        Object id = getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(reference);
+        AssociationSummaries.Summary summary = ExplorerServices.associationSummaries().summarize(target, id);
+        return summary == null ? "#" + id : SUMMARY_FORMATTER.format(summary);
+    }
+
+    private void browseReference(EntityType<?> target, Object reference) {
+        if (reference != null) {
+            Object id = getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(reference);
+            browse(getEntityManager().find(target.getJavaType(), id));
+        }
+    }
+
+    private static void browse(Object entity) {
+        Dialog dialog = new Dialog(PrettyPrinter.toVaadin(entity));
+        dialog.open();
+    }
+
     static class FilterInput extends VTextField {
 
         public FilterInput(JpaEntityGrid grid) {
@@ -366,18 +1520,4 @@ public class JpaEntityGrid<T> extends GridSelect<T> implements EntityManagerAwar
         }
     }
 
-    private class QuickEditButton extends VButton {
-
-        public QuickEditButton(Object proxy) {
-            setIcon(VaadinIcon.EDIT.create());
-            addThemeVariants(ButtonVariant.LUMO_TERTIARY_INLINE);
-            addClickListener(() -> {
-                navigate(EntityEditorView.class).ifPresent(view -> {
-                    view.editEntity(proxy);
-                });
-            });
-            setTooltipText("Edit entity");
-        }
-    }
-
 }
@@ -0,0 +1,88 @@
+package in.virit.entityexplorer;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.details.Details;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
+import in.virit.entityexplorer.data.StatementLog;
+import org.vaadin.firitin.components.button.VButton;
+
+import java.util.Locale;
+
+/**
+ * A collapsible panel listing the SQL statements of a component, e.g. the
+ * {@link JpaEntityGrid} of a view, newest first: the SQL, how long it took,
+ * the rows it returned and the grid fetch (offset/limit) that caused it.
+ * Statements recorded on other threads (read-ahead) show up with the next
+ * response.
+ */
+public class StatementLogPanel extends Details {
+
+    private final StatementLog statementLog;
+    private final Grid<StatementLog.Entry> statements = new Grid<>();
+    private Runnable removeListener;
+    private boolean refreshScheduled;
+
+    public StatementLogPanel(StatementLog statementLog) {
+        this.statementLog = statementLog;
+        setSummaryText("SQL statements");
+        setWidthFull();
+
+        statements.addColumn(StatementLog.Entry::sql)
+                .setHeader("SQL")
+                .setFlexGrow(1)
+                .setTooltipGenerator(StatementLog.Entry::sql);
+        statements.addColumn(entry -> String.format(Locale.ROOT, "%.2f ms", entry.durationMillis()))
+                .setHeader("Duration")
+                .setAutoWidth(true)
+                .setFlexGrow(0);
+        statements.addColumn(entry -> entry.rows() < 0 ? "" : String.valueOf(entry.rows()))
+                .setHeader("Rows")
+                .setAutoWidth(true)
+                .setFlexGrow(0);
+        statements.addColumn(entry -> entry.cause() == null ? "" : entry.cause())
+                .setHeader("Cause")
+                .setAutoWidth(true)
+                .setFlexGrow(0);
+        statements.addThemeVariants(GridVariant.LUMO_COMPACT);
+        statements.setHeight("300px");
+
+        VButton clear = new VButton("Clear", e -> {
+            statementLog.clear();
+            refresh();
+        });
+        clear.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
+        add(clear, statements);
+
+        addOpenedChangeListener(e -> refresh());
+        addAttachListener(e -> {
+            UI ui = e.getUI();
+            removeListener = statementLog.addListener(entry -> {
+                if (UI.getCurrent() == ui) {
+                    scheduleRefresh();
+                } else {
+                    ui.access(this::scheduleRefresh);
+                }
+            });
+        });
+        addDetachListener(e -> removeListener.run());
+    }
+
+    /** Refreshes once per response, not for each statement. */
+    private void scheduleRefresh() {
+        if (!refreshScheduled && isOpened()) {
+            refreshScheduled = true;
+            getUI().ifPresent(ui -> ui.beforeClientResponse(this, context -> {
+                refreshScheduled = false;
+                refresh();
+            }));
+        }
+    }
+
+    private void refresh() {
+        if (isOpened()) {
+            statements.setItems(statementLog.getEntries().reversed());
+        }
+    }
+}
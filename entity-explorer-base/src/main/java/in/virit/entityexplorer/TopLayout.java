@@ -7,26 +7,15 @@ import com.vaadin.flow.component.sidenav.SideNavItem;
 import com.vaadin.flow.router.RouteConfiguration;
 import com.vaadin.flow.server.auth.AnonymousAllowed;
 import com.vaadin.flow.spring.annotation.SpringComponent;
-import jakarta.persistence.EntityManagerFactory;
-import jakarta.persistence.metamodel.EntityType;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.vaadin.firitin.appframework.AdvancedSideNav;
 import org.vaadin.firitin.appframework.MainLayout;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-
 @SpringComponent
 @Scope("prototype")
 @AnonymousAllowed
 public class TopLayout extends MainLayout {
 
-    @Autowired
-    EntityManagerFactory entityManagerFactory;
-
     @Override
     protected String getDrawerHeader() {
         return "}> JPA Explorer";
@@ -53,9 +42,8 @@ public class TopLayout extends MainLayout {
 
         String ee = RouteConfiguration.forSessionScope().getUrl(EntityExplorer.class);
 
-        List<EntityType<?>> entities = new ArrayList<>(entityManagerFactory.getMetamodel().getEntities());
-        Collections.sort(entities, Comparator.comparing(EntityType::getName));
-        entities.forEach(e -> {
+        // sorted once per application
+        ExplorerServices.metamodel().getEntities().forEach(e -> {
             // TODO VMP
             // TODO VMP 2X
 
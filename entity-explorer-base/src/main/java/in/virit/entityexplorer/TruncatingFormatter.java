@@ -0,0 +1,34 @@
+package in.virit.entityexplorer;
+
+/**
+ * Formats cell values cut to a maximum length, followed by an ellipsis.
+ * Short strings are returned as they are, and of longer character sequences
+ * only the kept part is copied, so rendering a page doesn't copy whole
+ * values for every cell. Other values are formatted with
+ * {@link String#valueOf(Object)} first.
+ */
+final class TruncatingFormatter {
+
+    private static final String ELLIPSIS = "...";
+
+    private final int maxLength;
+
+    /**
+     * @param maxLength the number of characters kept from longer values,
+     *                  before the ellipsis
+     */
+    TruncatingFormatter(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    String format(Object value) {
+        CharSequence text = value instanceof CharSequence sequence ? sequence : String.valueOf(value);
+        if (text.length() <= maxLength) {
+            return text.toString();
+        }
+        return new StringBuilder(maxLength + ELLIPSIS.length())
+                .append(text, 0, maxLength)
+                .append(ELLIPSIS)
+                .toString();
+    }
+}
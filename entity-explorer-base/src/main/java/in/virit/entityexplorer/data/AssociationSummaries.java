@@ -0,0 +1,174 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-scoped cache of association summaries: the id and a label of
+ * an associated entity, which is all an association cell shows. Summaries
+ * are loaded with one projection query ({@code select id, label ... where id
+ * in (...)}) per target entity and page, instead of hydrating the full target
+ * entities, and are dropped when the target entity is written (see
+ * {@link #invalidate(String)}).
+ * <p>
+ * The label attribute is chosen heuristically ({@link
+ * EntityMetadata#getLabelAttribute()}) unless configured with {@link
+ * #setLabelAttribute(String, String)}. Only targets with a single id
+ * attribute can be summarized, see {@link #canSummarize(EntityType)}.
+ */
+public class AssociationSummaries {
+
+    /**
+     * @param id    the id of the associated entity
+     * @param label the value of its label attribute, {@code null} if it has
+     *              none
+     */
+    public record Summary(Object id, String label) {
+
+        @Override
+        public String toString() {
+            return label == null ? "#" + id : "#" + id + " " + label;
+        }
+    }
+
+    private record Key(String entityName, Object id) {
+    }
+
+    /** Ids per query, well below the bind parameter limits of databases. */
+    private static final int BATCH_SIZE = 500;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MetamodelIndex metamodel;
+    private final Map<String, String> labelAttributes = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Key, Summary> summaries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Summary> eldest) {
+            return size() > maxSummaries;
+        }
+    };
+    private volatile int maxSummaries = 10_000;
+
+    public AssociationSummaries(EntityManagerFactory entityManagerFactory, MetamodelIndex metamodel) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.metamodel = metamodel;
+    }
+
+    /**
+     * @return true if the entity has a single id attribute to query the
+     * summaries by, false e.g. for an {@code @IdClass}
+     */
+    public static boolean canSummarize(EntityType<?> target) {
+        return target.hasSingleIdAttribute();
+    }
+
+    /**
+     * Returns the summaries of the given entities, loading the ones not
+     * cached with one query (per {@value #BATCH_SIZE} ids). Nothing is
+     * returned for entities that {@linkplain #canSummarize(EntityType) can't
+     * be summarized}.
+     *
+     * @param target the entity type of the ids
+     * @param ids    the ids to summarize
+     * @return the summaries by id; ids of missing entities are left out
+     */
+    public Map<Object, Summary> summarize(EntityType<?> target, Collection<?> ids) {
+        Map<Object, Summary> result = new HashMap<>();
+        Set<Object> missing = new LinkedHashSet<>();
+        synchronized (summaries) {
+            for (Object id : ids) {
+                Summary summary = summaries.get(new Key(target.getName(), id));
+                if (summary != null) {
+                    result.put(id, summary);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        // loaded outside the lock, concurrent misses may both load
+        List<Summary> loaded = load(target, new ArrayList<>(missing));
+        synchronized (summaries) {
+            for (Summary summary : loaded) {
+                summaries.put(new Key(target.getName(), summary.id()), summary);
+                result.put(summary.id(), summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the summary of one entity, {@code null} if it doesn't exist
+     */
+    public Summary summarize(EntityType<?> target, Object id) {
+        return summarize(target, List.of(id)).get(id);
+    }
+
+    private List<Summary> load(EntityType<?> target, List<Object> ids) {
+        if (!canSummarize(target)) {
+            return List.of();
+        }
+        SingularAttribute<?, ?> idAttribute = target.getId(target.getIdType().getJavaType());
+        String label = getLabelAttribute(target);
+        String jpql = "select e." + idAttribute.getName() + (label == null ? "" : ", e." + label)
+                + " from " + target.getName() + " e where e." + idAttribute.getName() + " in :ids";
+        List<Summary> loaded = new ArrayList<>();
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Object> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+                for (Object row : em.createQuery(jpql).setParameter("ids", batch).getResultList()) {
+                    loaded.add(row instanceof Object[] tuple
+                            ? new Summary(tuple[0], tuple[1] == null ? null : tuple[1].toString())
+                            : new Summary(row, null));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Sets the attribute shown as the label of the entity in association
+     * cells, instead of the heuristically chosen one.
+     *
+     * @param labelAttribute a basic attribute of the entity
+     */
+    public void setLabelAttribute(String entityName, String labelAttribute) {
+        labelAttributes.put(entityName, labelAttribute);
+        invalidate(entityName);
+    }
+
+    /**
+     * @return the label attribute of the entity, {@code null} if only ids are
+     * shown
+     */
+    public String getLabelAttribute(EntityType<?> entityType) {
+        String configured = labelAttributes.get(entityType.getName());
+        return configured != null ? configured : metamodel.get(entityType).getLabelAttribute();
+    }
+
+    /**
+     * Drops the cached summaries of an entity, e.g. after it was written.
+     */
+    public void invalidate(String entityName) {
+        synchronized (summaries) {
+            summaries.keySet().removeIf(key -> key.entityName().equals(entityName));
+        }
+    }
+
+    public void setMaxSummaries(int maxSummaries) {
+        this.maxSummaries = maxSummaries;
+    }
+}
@@ -0,0 +1,216 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the pages of one lazy listing on virtual threads, so that slow
+ * queries don't hold the UI lock. A page request returns null while the page
+ * is loading; once loaded, the page is handed to the UI thread and the
+ * listing is asked to request it again, see the constructor.
+ * <p>
+ * Requests that are not going to be needed any more are cancelled: loads of
+ * pages more than a page away from the latest requested one, or of another
+ * ordering. Loads that have not started are skipped; running ones are not
+ * interrupted, as interrupting a virtual thread in JDBC I/O closes the
+ * connection's socket, and their page is discarded once loaded.
+ * <p>
+ * Each load uses an entity manager of its own; the entities of a served page
+ * stay attached to it until {@link #releaseServed()}, like with the {@link
+ * PagePrefetcher}.
+ * <p>
+ * Not thread-safe; apart from the loads themselves, everything runs on the
+ * UI thread of the listing. Use a new instance per filter and
+ * {@link #cancel()} the old one.
+ *
+ * @param <T> the row type
+ */
+public class AsyncPageLoader<T> {
+
+    /**
+     * Identifies a requested page, see {@link #fetch}.
+     */
+    public record PageKey(Object ordering, int offset, int limit) {
+    }
+
+    /** A loaded page, or the failure loading it. */
+    private record LoadedPage<T>(List<T> rows, EntityManager entityManager, RuntimeException failure) {
+    }
+
+    /** A load in progress. */
+    private static final class Request {
+        private Future<?> future;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Supplier<EntityManager> entityManagers;
+    private final Consumer<Runnable> uiAccess;
+    private final Consumer<PageKey> onLoaded;
+    private final Map<PageKey, Request> loading = new HashMap<>();
+    private final Map<PageKey, LoadedPage<T>> loaded = new HashMap<>();
+    private final List<EntityManager> served = new ArrayList<>();
+    private volatile boolean cancelled;
+    private int cancelledLoads;
+
+    /**
+     * @param entityManagers opens the entity managers of the loads, e.g. ones
+     *                       logged in a {@link StatementLog}
+     * @param uiAccess       runs a task on the UI thread, e.g. with
+     *                       {@code UI.access}; throws if the UI is gone
+     * @param onLoaded       called on the UI thread with the page that has
+     *                       loaded, should make the listing request its pages
+     *                       again
+     */
+    public AsyncPageLoader(Supplier<EntityManager> entityManagers, Consumer<Runnable> uiAccess,
+            Consumer<PageKey> onLoaded) {
+        this.entityManagers = entityManagers;
+        this.uiAccess = uiAccess;
+        this.onLoaded = onLoaded;
+    }
+
+    /**
+     * Returns the requested page if it has been loaded, otherwise starts
+     * loading it (unless already loading) and returns null. Loads far from
+     * the requested page are cancelled.
+     *
+     * @param ordering the ordering of the listing, e.g. the sort orders
+     * @param loader   loads a page, must not depend on UI state as it is
+     *                 called from a background thread
+     * @throws RuntimeException the failure of loading the page
+     */
+    public List<T> fetch(Object ordering, int offset, int limit, PagePrefetcher.PageLoader<T> loader) {
+        cancelled = false;
+        PageKey key = new PageKey(ordering, offset, limit);
+        discardStale(key);
+        LoadedPage<T> page = loaded.remove(key);
+        if (page != null) {
+            if (page.failure() != null) {
+                throw page.failure();
+            }
+            served.add(page.entityManager());
+            return page.rows();
+        }
+        if (!loading.containsKey(key)) {
+            Request request = new Request();
+            loading.put(key, request);
+            request.future = EXECUTOR.submit(() -> load(key, request, loader));
+        }
+        return null;
+    }
+
+    private void load(PageKey key, Request request, PagePrefetcher.PageLoader<T> loader) {
+        if (cancelled) {
+            return;
+        }
+        EntityManager em = entityManagers.get();
+        LoadedPage<T> page;
+        try {
+            page = new LoadedPage<>(loader.load(em, key.offset(), key.limit()), em, null);
+        } catch (RuntimeException e) {
+            em.close();
+            page = new LoadedPage<>(List.of(), null, e);
+        }
+        LoadedPage<T> result = page;
+        try {
+            uiAccess.accept(() -> {
+                if (loading.get(key) != request) {
+                    // cancelled meanwhile
+                    close(result);
+                    return;
+                }
+                loading.remove(key);
+                loaded.put(key, result);
+                onLoaded.accept(key);
+            });
+        } catch (RuntimeException e) {
+            Logger.getLogger(AsyncPageLoader.class.getName()).log(Level.FINE, "Loaded page not delivered", e);
+            close(result);
+        }
+    }
+
+    /**
+     * Cancels loads, and drops loaded pages, of another ordering or more than
+     * a page away from the requested one.
+     */
+    private void discardStale(PageKey requested) {
+        Iterator<Map.Entry<PageKey, Request>> requests = loading.entrySet().iterator();
+        while (requests.hasNext()) {
+            Map.Entry<PageKey, Request> entry = requests.next();
+            if (isStale(entry.getKey(), requested)) {
+                entry.getValue().future.cancel(false);
+                cancelledLoads++;
+                requests.remove();
+            }
+        }
+        Iterator<Map.Entry<PageKey, LoadedPage<T>>> pages = loaded.entrySet().iterator();
+        while (pages.hasNext()) {
+            Map.Entry<PageKey, LoadedPage<T>> entry = pages.next();
+            if (isStale(entry.getKey(), requested)) {
+                close(entry.getValue());
+                pages.remove();
+            }
+        }
+    }
+
+    private static boolean isStale(PageKey key, PageKey requested) {
+        return !Objects.equals(key.ordering(), requested.ordering())
+                || Math.abs(key.offset() - requested.offset()) > requested.limit();
+    }
+
+    private static void close(LoadedPage<?> page) {
+        if (page.entityManager() != null) {
+            page.entityManager().close();
+        }
+    }
+
+    /**
+     * @return true if a requested page is still loading
+     */
+    public boolean isLoading() {
+        return !loading.isEmpty();
+    }
+
+    /**
+     * Closes the entity managers of served pages. Call once the served rows
+     * have been rendered.
+     */
+    public void releaseServed() {
+        served.forEach(EntityManager::close);
+        served.clear();
+    }
+
+    /**
+     * Cancels all loads and drops the loaded pages, e.g. when the filter
+     * changes or the listing is detached.
+     */
+    public void cancel() {
+        cancelled = true;
+        loading.values().forEach(request -> request.future.cancel(false));
+        cancelledLoads += loading.size();
+        loading.clear();
+        loaded.values().forEach(AsyncPageLoader::close);
+        loaded.clear();
+        releaseServed();
+    }
+
+    /**
+     * @return the number of loads cancelled as they were no longer needed
+     */
+    public int getCancelledLoads() {
+        return cancelledLoads;
+    }
+}
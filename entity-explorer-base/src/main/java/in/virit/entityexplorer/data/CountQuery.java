@@ -0,0 +1,72 @@
+package in.virit.entityexplorer.data;
+
+import in.virit.entityexplorer.filter.CriteriaListing;
+import in.virit.entityexplorer.filter.FilterSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * The count version of a listing query, executed by {@link RowCountService}
+ * with an EntityManager of its own (never the UI component's one, as counts
+ * run on a background thread).
+ */
+public interface CountQuery {
+
+    /**
+     * @return the exact number of matching rows
+     */
+    long count(EntityManager em);
+
+    /**
+     * @return the number of matching rows, counting at most {@code limit}
+     */
+    long countUpTo(EntityManager em, int limit);
+
+    /**
+     * @param entityName the JPQL entity name
+     * @param jpqlFilter JPQL where clause using {@code e} as the alias (or
+     *                   unqualified attributes), empty for no filtering
+     */
+    static CountQuery jpql(String entityName, String jpqlFilter) {
+        return jpql(entityName, ParameterizedJpql.literal(jpqlFilter));
+    }
+
+    /**
+     * @param entityName the JPQL entity name
+     * @param filter     JPQL where clause using {@code e} as the alias, with
+     *                   its parameters
+     */
+    static CountQuery jpql(String entityName, ParameterizedJpql filter) {
+        String from = " from " + entityName + " e" + (filter.isEmpty() ? "" : " where " + filter.jpql());
+        return new CountQuery() {
+            @Override
+            public long count(EntityManager em) {
+                TypedQuery<Long> query = em.createQuery("select count(e)" + from, Long.class);
+                filter.bind(query);
+                return query.getSingleResult();
+            }
+
+            @Override
+            public long countUpTo(EntityManager em, int limit) {
+                Query query = em.createQuery("select 1" + from);
+                filter.bind(query);
+                return query.setMaxResults(limit).getResultList().size();
+            }
+        };
+    }
+
+    static <T> CountQuery criteria(Class<T> entityClass, FilterSpecification<T> specification) {
+        return new CountQuery() {
+            @Override
+            public long count(EntityManager em) {
+                return CriteriaListing.count(em, entityClass, specification);
+            }
+
+            @Override
+            public long countUpTo(EntityManager em, int limit) {
+                return CriteriaListing.countUpTo(em, entityClass, specification, limit);
+            }
+        };
+    }
+}
@@ -0,0 +1,474 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EmbeddableType;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.Session;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Fills any entity with generated rows, e.g. to see how a listing behaves
+ * with millions of rows in a development database. The values are derived
+ * from the JPA metamodel:
+ * <ul>
+ *     <li>basic types (strings, numbers, dates and times, booleans, UUIDs)
+ *     and enums, with plausible values for common string attribute names like
+ *     email, phone, city or name, cut to the column length</li>
+ *     <li>embeddables, filled the same way</li>
+ *     <li>many-to-one associations, pointing to existing rows of the target
+ *     entity; if there are none and the association is required, target rows
+ *     are generated first</li>
+ *     <li>generated ids and versions are left to the persistence provider,
+ *     assigned numeric, string and UUID ids are generated</li>
+ * </ul>
+ * Optional attributes are left null now and then. Collections are not
+ * generated.
+ * <p>
+ * Rows are written in chunks by several writer threads, each chunk in a
+ * transaction of its own, with JDBC batching and the persistence context
+ * flushed and cleared after each batch. The values of a chunk only depend on
+ * the seed, the entity and the chunk, so the same seed generates the same
+ * rows regardless of the thread count (ids generated by the database
+ * excluded). Note that Hibernate can't batch inserts of entities with
+ * IDENTITY ids.
+ * <p>
+ * The writes don't invalidate the explorer's caches one by one; callers
+ * should invalidate the entity once done.
+ */
+public class DataGenerator {
+
+    /**
+     * @param entityName the entity being generated, may be a target of the
+     *                   requested one
+     * @param generated  rows written so far
+     * @param total      rows to write
+     */
+    public record Progress(String entityName, long generated, long total) {
+    }
+
+    /** Sets the value of one attribute of a new row. */
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(Object row, EntityManager em, Random random, long index) throws ReflectiveOperationException;
+    }
+
+    private static final int CHUNK_SIZE = 10_000;
+    /** Caps the ids of association targets kept in memory while generating. */
+    private static final int MAX_TARGET_IDS = 10_000;
+    /** Target rows generated for required associations to an empty table. */
+    private static final int DEFAULT_TARGET_ROWS = 1_000;
+
+    private static final List<String> FIRST_NAMES = List.of("Anna", "Ben", "Clara", "David", "Emma", "Felix",
+            "Greta", "Hans", "Ida", "Jonas", "Katharina", "Lukas", "Mia", "Noah", "Olivia", "Paul");
+    private static final List<String> LAST_NAMES = List.of("Müller", "Schmidt", "Schneider", "Fischer", "Weber",
+            "Meyer", "Wagner", "Becker", "Schulz", "Hoffmann", "Koch", "Richter", "Klein", "Wolf");
+    private static final List<String> COMPANY_WORDS = List.of("Acme", "Zenith", "Nordlicht", "Hansa", "Alpen",
+            "Rhein", "Falke", "Stern", "Linde", "Kranich", "Blau", "Eiche");
+    private static final List<String> INDUSTRIES = List.of("Manufacturing", "Logistics", "Medical", "Software",
+            "Retail", "Energy", "Consulting", "Foods", "Textiles", "Insurance");
+    private static final List<String> CITIES = List.of("Berlin", "Hamburg", "Munich", "Cologne", "Frankfurt",
+            "Stuttgart", "Dusseldorf", "Leipzig", "Dortmund", "Essen", "Bremen", "Dresden", "Hanover");
+    private static final List<String> STREETS = List.of("Hauptstrasse", "Schulstrasse", "Gartenstrasse",
+            "Bahnhofstrasse", "Dorfstrasse", "Bergstrasse", "Lindenallee", "Kirchweg");
+    private static final List<String> COUNTRIES = List.of("Germany", "Austria", "Switzerland", "Finland");
+    private static final List<String> WORDS = List.of("lorem", "ipsum", "dolor", "sit", "amet", "consectetur",
+            "adipiscing", "elit", "sed", "do", "eiusmod", "tempor", "incididunt", "labore", "magna", "aliqua");
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final long seed;
+    private int threads = 4;
+    private int batchSize = 500;
+    private double nullRatio = 0.05;
+
+    /**
+     * @param seed the same seed generates the same values
+     */
+    public DataGenerator(EntityManagerFactory entityManagerFactory, long seed) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.seed = seed;
+    }
+
+    public <T> long generate(EntityType<T> entityType, long rows) {
+        return generate(entityType, rows, progress -> {
+        });
+    }
+
+    /**
+     * Generates rows and waits until they are written.
+     *
+     * @param progress notified after each written chunk, on a writer thread
+     * @return the number of rows written
+     * @throws IllegalArgumentException if values of an attribute type can't be
+     *                                  generated, or the entity can't be
+     *                                  instantiated
+     */
+    public <T> long generate(EntityType<T> entityType, long rows, Consumer<Progress> progress) {
+        return generate(entityType, rows, progress, new HashSet<>());
+    }
+
+    private <T> long generate(EntityType<T> entityType, long rows, Consumer<Progress> progress,
+            Set<EntityType<?>> inProgress) {
+        inProgress.add(entityType);
+        List<ValueWriter> writers = new ArrayList<>();
+        plan(entityType, entityType, "", writers, progress, inProgress);
+        int chunks = (int) ((rows + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicLong written = new AtomicLong();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(threads, chunks); i++) {
+                workers.add(executor.submit(() -> {
+                    for (int chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+                        long first = (long) chunk * CHUNK_SIZE;
+                        long count = Math.min(CHUNK_SIZE, rows - first);
+                        writeChunk(entityType, writers, chunk, first, count);
+                        progress.accept(new Progress(entityType.getName(), written.addAndGet(count), rows));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (Exception e) {
+                    // stop the others before their next chunk
+                    nextChunk.set(chunks);
+                    throw new IllegalStateException("Generating " + entityType.getName() + " rows failed",
+                            e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        }
+        inProgress.remove(entityType);
+        return written.get();
+    }
+
+    private <T> void writeChunk(EntityType<T> entityType, List<ValueWriter> writers, int chunk, long first,
+            long count) throws Exception {
+        Random random = new Random(seed ^ (31L * entityType.getName().hashCode() + chunk) * 0x9E3779B97F4A7C15L);
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            try {
+                em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            } catch (RuntimeException e) {
+                // not Hibernate, the configured batching applies
+            }
+            em.getTransaction().begin();
+            try {
+                EntityWriteListener.muted(() -> {
+                    for (long i = 0; i < count; i++) {
+                        T row = entityType.getJavaType().getDeclaredConstructor().newInstance();
+                        for (ValueWriter writer : writers) {
+                            writer.write(row, em, random, first + i);
+                        }
+                        em.persist(row);
+                        if ((i + 1) % batchSize == 0) {
+                            em.flush();
+                            em.clear();
+                        }
+                    }
+                    em.getTransaction().commit();
+                    return null;
+                });
+            } finally {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects a writer for each attribute of a managed type, recursing into
+     * embeddables.
+     *
+     * @param owner the entity or embeddable the values are set to
+     */
+    private void plan(EntityType<?> entityType, ManagedType<?> owner, String pathPrefix, List<ValueWriter> writers,
+            Consumer<Progress> progress, Set<EntityType<?>> inProgress) {
+        for (SingularAttribute<?, ?> attribute : owner.getSingularAttributes()) {
+            String path = pathPrefix + attribute.getName();
+            ValueWriter writer;
+            if (attribute.isVersion() || (attribute.isId() && isGenerated(attribute))) {
+                continue;
+            } else if (attribute.isId()) {
+                writer = assignedId(entityType, attribute);
+            } else if (attribute.isAssociation()) {
+                writer = reference(attribute, progress, inProgress);
+            } else if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED) {
+                List<ValueWriter> embedded = new ArrayList<>();
+                plan(entityType, (EmbeddableType<?>) attribute.getType(), path + ".", embedded, progress, inProgress);
+                writer = (row, em, random, index) -> {
+                    Object value = attribute.getJavaType().getDeclaredConstructor().newInstance();
+                    for (ValueWriter part : embedded) {
+                        part.write(value, em, random, index);
+                    }
+                    set(row, attribute, value);
+                };
+            } else {
+                writer = basic(attribute);
+            }
+            if (attribute.isOptional() && !attribute.isId()) {
+                ValueWriter required = writer;
+                writer = (row, em, random, index) -> {
+                    if (random.nextDouble() >= nullRatio) {
+                        required.write(row, em, random, index);
+                    }
+                };
+            }
+            writers.add(writer);
+        }
+    }
+
+    private ValueWriter assignedId(EntityType<?> entityType, SingularAttribute<?, ?> attribute) {
+        Class<?> type = attribute.getJavaType();
+        if (type == UUID.class) {
+            return (row, em, random, index) -> set(row, attribute, new UUID(seed, index));
+        } else if (type == String.class) {
+            return (row, em, random, index) -> set(row, attribute, new UUID(seed, index).toString());
+        }
+        long start;
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            Number max = (Number) em.createQuery("select max(e." + attribute.getName() + ") from "
+                    + entityType.getName() + " e").getSingleResult();
+            start = max == null ? 1 : max.longValue() + 1;
+        }
+        return (row, em, random, index) -> set(row, attribute, number(type, start + index, attribute));
+    }
+
+    private ValueWriter reference(SingularAttribute<?, ?> attribute, Consumer<Progress> progress,
+            Set<EntityType<?>> inProgress) {
+        EntityType<?> target = (EntityType<?>) attribute.getType();
+        if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.MANY_TO_ONE
+                || !target.hasSingleIdAttribute()) {
+            // one-to-ones would need unique targets, composite ids are not picked
+            if (attribute.isOptional()) {
+                return (row, em, random, index) -> {
+                };
+            }
+            throw new IllegalArgumentException("Can't generate the association " + attribute.getName()
+                    + " to " + target.getName());
+        }
+        List<Object> ids = targetIds(target);
+        if (ids.isEmpty() && !attribute.isOptional()) {
+            if (inProgress.contains(target)) {
+                throw new IllegalArgumentException("Can't generate the required association "
+                        + attribute.getName() + " to " + target.getName() + ", which is being generated");
+            }
+            generate(target, DEFAULT_TARGET_ROWS, progress, inProgress);
+            ids = targetIds(target);
+        }
+        if (ids.isEmpty()) {
+            return (row, em, random, index) -> {
+            };
+        }
+        List<Object> targetIds = ids;
+        Class<?> targetClass = target.getJavaType();
+        return (row, em, random, index) -> set(row, attribute,
+                em.getReference(targetClass, targetIds.get(random.nextInt(targetIds.size()))));
+    }
+
+    /**
+     * @return up to {@value #MAX_TARGET_IDS} ids of the target, in id order
+     * so the picks only depend on the seed
+     */
+    private List<Object> targetIds(EntityType<?> target) {
+        String idName = target.getId(target.getIdType().getJavaType()).getName();
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            return em.createQuery("select e." + idName + " from " + target.getName() + " e order by e." + idName,
+                            Object.class)
+                    .setMaxResults(MAX_TARGET_IDS)
+                    .getResultList();
+        }
+    }
+
+    private ValueWriter basic(SingularAttribute<?, ?> attribute) {
+        Class<?> type = attribute.getJavaType();
+        String name = attribute.getName().toLowerCase(Locale.ROOT);
+        if (type == String.class) {
+            int maxLength = columnLength(attribute);
+            return (row, em, random, index) -> {
+                String value = string(name, random, index);
+                set(row, attribute, value.length() > maxLength ? value.substring(0, maxLength) : value);
+            };
+        } else if (type == boolean.class || type == Boolean.class) {
+            return (row, em, random, index) -> set(row, attribute, random.nextInt(10) < 7);
+        } else if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return (row, em, random, index) -> set(row, attribute, constants[random.nextInt(constants.length)]);
+        } else if (type == LocalDate.class) {
+            return (row, em, random, index) -> set(row, attribute,
+                    LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9500)));
+        } else if (type == LocalDateTime.class) {
+            return (row, em, random, index) -> set(row, attribute,
+                    LocalDateTime.of(2000, 1, 1, 0, 0).plusMinutes(random.nextInt(9500 * 24 * 60)));
+        } else if (type == Instant.class) {
+            return (row, em, random, index) -> set(row, attribute,
+                    Instant.parse("2000-01-01T00:00:00Z").plusSeconds(random.nextLong(9500L * 24 * 60 * 60)));
+        } else if (type == LocalTime.class) {
+            return (row, em, random, index) -> set(row, attribute, LocalTime.ofSecondOfDay(random.nextInt(86_400)));
+        } else if (type == UUID.class) {
+            return (row, em, random, index) -> set(row, attribute, new UUID(random.nextLong(), random.nextLong()));
+        } else if (type == BigDecimal.class) {
+            return (row, em, random, index) -> set(row, attribute,
+                    BigDecimal.valueOf(random.nextLong(100_000_000L), 2));
+        } else if (type == double.class || type == Double.class) {
+            return (row, em, random, index) -> set(row, attribute, random.nextDouble() * 1000);
+        } else if (type == float.class || type == Float.class) {
+            return (row, em, random, index) -> set(row, attribute, random.nextFloat() * 1000);
+        } else if (number(type, 0, attribute) != null) {
+            return (row, em, random, index) -> set(row, attribute, number(type, random.nextInt(101), attribute));
+        } else if (attribute.isOptional()) {
+            // e.g. binary or custom types, left null
+            return (row, em, random, index) -> {
+            };
+        }
+        throw new IllegalArgumentException("Can't generate values of " + type.getName() + " for "
+                + attribute.getDeclaringType().getJavaType().getSimpleName() + "." + attribute.getName());
+    }
+
+    private static Object number(Class<?> type, long value, SingularAttribute<?, ?> attribute) {
+        if (type == long.class || type == Long.class) {
+            return value;
+        } else if (type == int.class || type == Integer.class) {
+            return (int) value;
+        } else if (type == short.class || type == Short.class) {
+            return (short) value;
+        } else if (type == BigInteger.class) {
+            return BigInteger.valueOf(value);
+        } else if (type == byte.class || type == Byte.class) {
+            return (byte) value;
+        }
+        if (attribute.isId()) {
+            throw new IllegalArgumentException("Can't generate assigned ids of " + type.getName() + " for "
+                    + attribute.getDeclaringType().getJavaType().getSimpleName());
+        }
+        return null;
+    }
+
+    private String string(String name, Random random, long index) {
+        if (name.contains("email") || name.contains("mail")) {
+            return "user" + index + "@example.com";
+        } else if (name.contains("phone") || name.contains("mobile")) {
+            return "+49 " + (30 + random.nextInt(70)) + " " + (1_000_000 + random.nextInt(9_000_000));
+        } else if (name.contains("city") || name.contains("town")) {
+            return pick(random, CITIES);
+        } else if (name.contains("street")) {
+            return pick(random, STREETS);
+        } else if (name.contains("postal") || name.contains("zip")) {
+            return String.valueOf(10_000 + random.nextInt(90_000));
+        } else if (name.contains("countrycode")) {
+            return "DE";
+        } else if (name.contains("country")) {
+            return pick(random, COUNTRIES);
+        } else if (name.contains("company")) {
+            return pick(random, COMPANY_WORDS) + " " + pick(random, INDUSTRIES) + " " + pick(random, CITIES);
+        } else if (name.contains("firstname")) {
+            return pick(random, FIRST_NAMES);
+        } else if (name.contains("lastname") || name.contains("surname")) {
+            return pick(random, LAST_NAMES);
+        } else if (name.contains("name")) {
+            return pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+        } else if (name.contains("number")) {
+            return String.valueOf(1 + random.nextInt(200));
+        }
+        StringBuilder text = new StringBuilder(pick(random, WORDS));
+        for (int i = random.nextInt(6); i > 0; i--) {
+            text.append(' ').append(pick(random, WORDS));
+        }
+        return text.toString();
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static boolean isGenerated(SingularAttribute<?, ?> attribute) {
+        return attribute.getJavaMember() instanceof AnnotatedElement member
+                && member.isAnnotationPresent(GeneratedValue.class);
+    }
+
+    private static int columnLength(SingularAttribute<?, ?> attribute) {
+        if (attribute.getJavaMember() instanceof AnnotatedElement member) {
+            Column column = member.getAnnotation(Column.class);
+            if (column != null) {
+                return column.length();
+            }
+        }
+        return 255;
+    }
+
+    /**
+     * Sets an attribute through its field, or its setter if the attribute is
+     * mapped with property access.
+     */
+    private static void set(Object target, SingularAttribute<?, ?> attribute, Object value)
+            throws ReflectiveOperationException {
+        Member member = attribute.getJavaMember();
+        if (member instanceof Field field) {
+            field.setAccessible(true);
+            field.set(target, value);
+        } else if (member instanceof Method getter) {
+            String name = attribute.getName();
+            Method setter = getter.getDeclaringClass().getDeclaredMethod(
+                    "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1), getter.getReturnType());
+            setter.setAccessible(true);
+            setter.invoke(target, value);
+        } else {
+            throw new IllegalArgumentException("Can't set " + attribute.getName());
+        }
+    }
+
+    /**
+     * Sets the number of writer threads, 4 by default. Each needs a database
+     * connection while writing.
+     */
+    public DataGenerator setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Sets the JDBC batch size, also the number of rows after which the
+     * persistence context is flushed and cleared, 500 by default.
+     */
+    public DataGenerator setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the share of optional attributes left null, 0.05 by default.
+     */
+    public DataGenerator setNullRatio(double nullRatio) {
+        this.nullRatio = nullRatio;
+        return this;
+    }
+}
@@ -0,0 +1,149 @@
+package in.virit.entityexplorer.data;
+
+import in.virit.entityexplorer.filter.FilterProperty;
+import in.virit.entityexplorer.filter.PropertyAccessors;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import tools.jackson.databind.introspect.BeanPropertyDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * What the explorer needs to know about an entity, derived once from the JPA
+ * metamodel and the entity class: the persistent attributes by name, the
+ * filterable properties and the grid column descriptors. Instances are
+ * shared through the {@link MetamodelIndex}, don't modify the returned lists.
+ */
+public final class EntityMetadata {
+
+    public enum ColumnKind {
+        /** A basic or embedded persistent attribute. */
+        VALUE,
+        /** A relation to other entities. */
+        ASSOCIATION,
+        /** A bean property without a persistent attribute, e.g. a derived getter. */
+        COMPUTED
+    }
+
+    /**
+     * A grid column of the entity.
+     *
+     * @param property  the bean property
+     * @param accessor  reads the value of the property from an entity
+     * @param attribute the persistent attribute, {@code null} for computed
+     *                  columns
+     * @param sortable  whether the column can be sorted in the database
+     *                  (basic-typed attributes only)
+     */
+    public record Column(String name, BeanPropertyDefinition property, Function<Object, Object> accessor,
+            Attribute<?, ?> attribute, ColumnKind kind, boolean sortable) {
+    }
+
+    private final EntityType<?> entityType;
+    private final Map<String, Attribute<?, ?>> attributes;
+    private final List<FilterProperty> filterProperties;
+    private final String labelAttribute;
+    private volatile List<Column> columns;
+
+    EntityMetadata(EntityType<?> entityType) {
+        this.entityType = entityType;
+        this.attributes = entityType.getAttributes().stream()
+                .collect(Collectors.toUnmodifiableMap(Attribute::getName, a -> (Attribute<?, ?>) a));
+        this.filterProperties = List.copyOf(FilterProperty.listFor(entityType));
+        this.labelAttribute = chooseLabelAttribute(entityType);
+    }
+
+    public EntityType<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the persistent attribute, or {@code null} if the name is not
+     * one (e.g. a derived getter with no field)
+     */
+    public Attribute<?, ?> getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    /**
+     * @return the properties the visual filter offers, sorted by path
+     */
+    public List<FilterProperty> getFilterProperties() {
+        return filterProperties;
+    }
+
+    /**
+     * @return the attribute that best describes an instance to humans, e.g.
+     * in association summaries, or {@code null} if there is no such string
+     * attribute
+     */
+    public String getLabelAttribute() {
+        return labelAttribute;
+    }
+
+    /**
+     * Picks a basic string attribute named like a label: {@code name},
+     * {@code title} or {@code label} first, then the first one (by name)
+     * ending with "name", then the first string attribute at all.
+     */
+    private static String chooseLabelAttribute(EntityType<?> entityType) {
+        List<String> candidates = entityType.getSingularAttributes().stream()
+                .filter(a -> a.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC)
+                .filter(a -> a.getJavaType() == String.class && !a.isId())
+                .map(Attribute::getName)
+                .sorted()
+                .toList();
+        for (String preferred : List.of("name", "title", "label")) {
+            if (candidates.contains(preferred)) {
+                return preferred;
+            }
+        }
+        return candidates.stream()
+                .filter(name -> name.toLowerCase(Locale.ROOT).endsWith("name"))
+                .findFirst()
+                .orElse(candidates.isEmpty() ? null : candidates.getFirst());
+    }
+
+    /**
+     * Returns the grid columns, describing the bean properties of the entity
+     * class on first call.
+     *
+     * @param beanProperties introspects the bean properties of the entity
+     *                       class, called only once
+     */
+    public List<Column> getColumns(Supplier<List<BeanPropertyDefinition>> beanProperties) {
+        List<Column> result = columns;
+        if (result == null) {
+            List<Column> described = new ArrayList<>();
+            for (BeanPropertyDefinition property : beanProperties.get()) {
+                Attribute<?, ?> attribute = attributes.get(property.getName());
+                ColumnKind kind = attribute == null ? ColumnKind.COMPUTED
+                        : attribute.isAssociation() ? ColumnKind.ASSOCIATION : ColumnKind.VALUE;
+                boolean sortable = attribute != null
+                        && attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC;
+                described.add(new Column(property.getName(), property, accessor(property), attribute, kind, sortable));
+            }
+            result = List.copyOf(described);
+            columns = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return a generated getter for the property, or if the property is
+     * named differently from its getter, Jackson's reflective accessor
+     */
+    private Function<Object, Object> accessor(BeanPropertyDefinition property) {
+        try {
+            return PropertyAccessors.forPath(entityType.getJavaType(), property.getName());
+        } catch (IllegalArgumentException e) {
+            return bean -> property.getAccessor().getValue(bean);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package in.virit.entityexplorer.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A change counter per entity, incremented whenever rows of the entity are
+ * written. Holders of in-memory copies of a table remember the version they
+ * loaded and reload when it has changed.
+ */
+public class EntityVersions {
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @return the current version of the entity, 0 if it was never written
+     */
+    public long get(String entityName) {
+        AtomicLong version = versions.get(entityName);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * Records a write of the entity.
+     */
+    public void increment(String entityName) {
+        versions.computeIfAbsent(entityName, name -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,123 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hibernate post-commit listener reporting the names of written entities, so
+ * cached pages and counts also follow writes made by the host application,
+ * not just the ones made through the explorer. A write invalidates the
+ * entity and its entity supertypes, as their listings include it too.
+ */
+public class EntityWriteListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    /** Set while the current thread writes without reporting, see {@link #muted}. */
+    private static final ThreadLocal<Boolean> MUTED = ThreadLocal.withInitial(() -> false);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Consumer<String> invalidator;
+
+    private EntityWriteListener(EntityManagerFactory entityManagerFactory, Consumer<String> invalidator) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.invalidator = invalidator;
+    }
+
+    /**
+     * Registers a listener calling {@code invalidator} with the JPA entity
+     * name of each committed insert, update or delete.
+     *
+     * @return true if registered, false if the persistence provider is not
+     * Hibernate (cached data then only follows writes made by the explorer)
+     */
+    public static boolean register(EntityManagerFactory entityManagerFactory, Consumer<String> invalidator) {
+        try {
+            EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getEventListenerRegistry();
+            EntityWriteListener listener = new EntityWriteListener(entityManagerFactory, invalidator);
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+            return true;
+        } catch (RuntimeException e) {
+            Logger.getLogger(EntityWriteListener.class.getName())
+                    .log(Level.INFO, "Not listening to entity writes, cached listings may be stale until expired", e);
+            return false;
+        }
+    }
+
+    /**
+     * Runs bulk writes without reporting each committed row, e.g. the
+     * {@link DataGenerator}'s. The caller reports the written entities once
+     * done. Applies to transactions committed by {@code work} on the current
+     * thread.
+     */
+    static <R> R muted(Callable<R> work) throws Exception {
+        boolean outer = MUTED.get();
+        MUTED.set(true);
+        try {
+            return work.call();
+        } finally {
+            MUTED.set(outer);
+        }
+    }
+
+    private void written(EntityPersister persister) {
+        if (MUTED.get()) {
+            return;
+        }
+        Class<?> writtenClass = persister.getMappedClass();
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            if (entityType.getJavaType().isAssignableFrom(writtenClass)) {
+                invalidator.accept(entityType.getName());
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        written(event.getPersister());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        written(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        written(event.getPersister());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+}
@@ -0,0 +1,65 @@
+package in.virit.entityexplorer.data;
+
+/**
+ * Receives measurements of the explorer's database activity, e.g. to publish
+ * them as metrics of the host application. The explorer reports to one
+ * application-scoped instance; {@link #NONE} ignores everything, and
+ * {@link MicrometerExplorerMetrics} is registered by the autoconfigurations
+ * when the application has a Micrometer registry.
+ * <p>
+ * Implementations must be thread-safe, read-ahead threads report too.
+ */
+public interface ExplorerMetrics {
+
+    /** Ignores all measurements. */
+    ExplorerMetrics NONE = new ExplorerMetrics() {
+    };
+
+    /** A write operation of the explorer UI. */
+    enum Operation {
+        SAVE, DELETE
+    }
+
+    /**
+     * A page of a listing was loaded from the database (not from a cache).
+     */
+    default void pageFetched(String entityName, long durationNanos, int rows) {
+    }
+
+    /**
+     * A filter of a listing was compiled into a query.
+     */
+    default void filterBuilt(String entityName, long durationNanos) {
+    }
+
+    /**
+     * An entity manager was opened through a {@link StatementLog}.
+     */
+    default void entityManagerOpened() {
+    }
+
+    /**
+     * An entity manager opened through a {@link StatementLog} was closed.
+     */
+    default void entityManagerClosed() {
+    }
+
+    /**
+     * The persistence context of a component's entity manager is about to be
+     * cleared after a response, holding this many entities.
+     */
+    default void persistenceContextCleared(String component, int entities) {
+    }
+
+    /**
+     * An entity was saved or deleted, successfully or not.
+     */
+    default void entityWritten(String entityName, Operation operation, long durationNanos, boolean failed) {
+    }
+
+    /**
+     * Rendering rows of a listing ran too many statements.
+     */
+    default void nPlusOneDetected(String entityName, NPlusOneDetector.Report report) {
+    }
+}
@@ -0,0 +1,101 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes which associations of a listed entity are shown and thus must be
+ * loaded together with a page, instead of lazily one row at a time (the
+ * classic N+1 problem of generic listings).
+ * <p>
+ * Shown to-one associations are added to a load graph of the page query, so
+ * they come in the same statement; associations that are not shown keep
+ * their mapped fetch type. Association cells show an id + label summary,
+ * loaded in one batch per page by the {@link AssociationSummaries} unless
+ * cached. Collections can't be join fetched in a paged query (that would
+ * paginate in memory), so they are initialized afterwards with one query per
+ * collection attribute for the whole page. A page of N rows thus costs
+ * 1 + (number of shown collection attributes) statements, plus one per shown
+ * to-one association for the summaries not yet cached.
+ *
+ * @param toOneAttributes      shown many-to-one and one-to-one attributes
+ * @param collectionAttributes shown one-to-many, many-to-many and element
+ *                             collection attributes
+ */
+public record FetchPlan(List<String> toOneAttributes, List<String> collectionAttributes) {
+
+    public static final FetchPlan NONE = new FetchPlan(List.of(), List.of());
+
+    private static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
+    /**
+     * Plans the fetching for the given attribute names, typically the keys of
+     * the visible grid columns. Names that are not associations are ignored.
+     */
+    public static FetchPlan forAttributes(ManagedType<?> type, Collection<String> attributeNames) {
+        List<String> toOne = new ArrayList<>();
+        List<String> collections = new ArrayList<>();
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            if (!attributeNames.contains(attribute.getName())) {
+                continue;
+            }
+            if (attribute.isCollection()) {
+                collections.add(attribute.getName());
+            } else if (attribute.isAssociation()) {
+                toOne.add(attribute.getName());
+            }
+        }
+        return toOne.isEmpty() && collections.isEmpty() ? NONE : new FetchPlan(toOne, collections);
+    }
+
+    public boolean isEmpty() {
+        return toOneAttributes.isEmpty() && collectionAttributes.isEmpty();
+    }
+
+    /**
+     * @return a load graph fetching the shown to-one associations, or
+     * {@code null} if none is shown
+     */
+    public <T> EntityGraph<T> toEntityGraph(EntityManager em, Class<T> entityClass) {
+        if (toOneAttributes.isEmpty()) {
+            return null;
+        }
+        EntityGraph<T> graph = em.createEntityGraph(entityClass);
+        graph.addAttributeNodes(toOneAttributes.toArray(String[]::new));
+        return graph;
+    }
+
+    /**
+     * Adds the load graph of the to-one associations to the hints of a page
+     * query.
+     */
+    public void addHints(Map<String, Object> hints, EntityManager em, Class<?> entityClass) {
+        EntityGraph<?> graph = toEntityGraph(em, entityClass);
+        if (graph != null) {
+            hints.put(LOAD_GRAPH, graph);
+        }
+    }
+
+    /**
+     * Initializes the shown collections of a fetched page, one statement per
+     * collection attribute. The entities must be managed by {@code em}.
+     */
+    public void initializeCollections(EntityManager em, String entityName, List<?> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        for (String collection : collectionAttributes) {
+            em.createQuery("select distinct e from " + entityName + " e left join fetch e."
+                            + collection + " where e in :page")
+                    .setParameter("page", page)
+                    .getResultList();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable index of the JPA metamodel for the explorer, built once per
+ * EntityManagerFactory and shared by all menus, views, grids and dialogs, so
+ * they don't have to sort the entities or introspect the entity classes each
+ * time they are created. The {@link EntityMetadata} of an entity is computed
+ * on first use.
+ */
+public final class MetamodelIndex {
+
+    private final List<EntityType<?>> entities;
+    private final Map<String, EntityType<?>> entitiesByName;
+    private final Map<EntityType<?>, EntityMetadata> metadata = new ConcurrentHashMap<>();
+
+    public MetamodelIndex(Metamodel metamodel) {
+        entities = metamodel.getEntities().stream()
+                .sorted(Comparator.comparing(EntityType::getName))
+                .collect(Collectors.toUnmodifiableList());
+        entitiesByName = entities.stream()
+                .collect(Collectors.toUnmodifiableMap(EntityType::getName, Function.identity()));
+    }
+
+    /**
+     * @return the entities, sorted by name
+     */
+    public List<EntityType<?>> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the entity with the JPQL name, or {@code null} if there is none
+     */
+    public EntityType<?> getEntity(String name) {
+        return entitiesByName.get(name);
+    }
+
+    /**
+     * @return the explorer metadata of the entity type, which may also be
+     * one of another persistence unit
+     */
+    public EntityMetadata get(EntityType<?> entityType) {
+        return metadata.computeIfAbsent(entityType, EntityMetadata::new);
+    }
+}
@@ -0,0 +1,142 @@
+package in.virit.entityexplorer.data;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the explorer's database activity to a Micrometer registry:
+ * <ul>
+ *     <li>{@code entityexplorer.fetch}: page fetch latency histogram, per
+ *     entity</li>
+ *     <li>{@code entityexplorer.page.rows}: rows per fetched page, per
+ *     entity</li>
+ *     <li>{@code entityexplorer.filter.build}: time to compile a filter into
+ *     a query, per entity</li>
+ *     <li>{@code entityexplorer.entitymanagers.open}: entity managers
+ *     currently open</li>
+ *     <li>{@code entityexplorer.persistencecontext.entities}: entities held
+ *     by a component's persistence context when it is cleared, per
+ *     component</li>
+ *     <li>{@code entityexplorer.write}: save and delete latency, per entity,
+ *     operation and outcome (success or failure)</li>
+ *     <li>{@code entityexplorer.nplusone}: detected N+1 statement patterns,
+ *     per entity</li>
+ *     <li>{@code entityexplorer.pagecache.hits},
+ *     {@code entityexplorer.pagecache.misses} and
+ *     {@code entityexplorer.pagecache.size}: lookups and pages of the shared
+ *     {@link PageCache}, see {@link #monitorPageCache(Supplier)}</li>
+ * </ul>
+ * Meters are registered lazily, Micrometer returns the existing meter for
+ * the same name and tags.
+ * <p>
+ * Micrometer is an optional dependency; only load this class when it is on
+ * the classpath.
+ */
+public class MicrometerExplorerMetrics implements ExplorerMetrics {
+
+    private final MeterRegistry registry;
+    private final AtomicInteger openEntityManagers;
+
+    public MicrometerExplorerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.openEntityManagers = registry.gauge("entityexplorer.entitymanagers.open", new AtomicInteger());
+    }
+
+    @Override
+    public void pageFetched(String entityName, long durationNanos, int rows) {
+        Timer.builder("entityexplorer.fetch")
+                .description("Latency of loading a listing page from the database")
+                .tag("entity", entityName)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("entityexplorer.page.rows")
+                .description("Rows per listing page loaded from the database")
+                .tag("entity", entityName)
+                .register(registry)
+                .record(rows);
+    }
+
+    @Override
+    public void filterBuilt(String entityName, long durationNanos) {
+        Timer.builder("entityexplorer.filter.build")
+                .description("Time to compile a filter into a query")
+                .tag("entity", entityName)
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void entityManagerOpened() {
+        openEntityManagers.incrementAndGet();
+    }
+
+    @Override
+    public void entityManagerClosed() {
+        openEntityManagers.decrementAndGet();
+    }
+
+    @Override
+    public void persistenceContextCleared(String component, int entities) {
+        DistributionSummary.builder("entityexplorer.persistencecontext.entities")
+                .description("Entities in a persistence context when cleared after a response")
+                .tag("component", component)
+                .register(registry)
+                .record(entities);
+    }
+
+    @Override
+    public void entityWritten(String entityName, Operation operation, long durationNanos, boolean failed) {
+        Timer.builder("entityexplorer.write")
+                .description("Latency of saving and deleting entities")
+                .tag("entity", entityName)
+                .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", failed ? "failure" : "success")
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publishes the statistics of the application's page cache as gauges.
+     *
+     * @param pageCache the cache, {@code null} until created
+     */
+    public void monitorPageCache(Supplier<PageCache> pageCache) {
+        pageCacheGauge("entityexplorer.pagecache.hits", "Page lookups served from the shared page cache",
+                pageCache, PageCache.Statistics::hits);
+        pageCacheGauge("entityexplorer.pagecache.misses", "Page lookups that loaded the page from the database",
+                pageCache, PageCache.Statistics::misses);
+        pageCacheGauge("entityexplorer.pagecache.size", "Pages in the shared page cache",
+                pageCache, PageCache.Statistics::size);
+    }
+
+    private void pageCacheGauge(String name, String description, Supplier<PageCache> pageCache,
+            ToDoubleFunction<PageCache.Statistics> value) {
+        Gauge.builder(name, pageCache, supplier -> {
+                    PageCache cache = supplier.get();
+                    return cache == null ? 0 : value.applyAsDouble(cache.getStatistics());
+                })
+                .description(description)
+                // the supplier is referenced by the gauge only
+                .strongReference(true)
+                .register(registry);
+    }
+
+    @Override
+    public void nPlusOneDetected(String entityName, NPlusOneDetector.Report report) {
+        Counter.builder("entityexplorer.nplusone")
+                .description("Renderings of listing rows running too many statements")
+                .tag("entity", entityName)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,121 @@
+package in.virit.entityexplorer.data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Detects the N+1 query problem in a listing: counts the statements run on
+ * the UI thread from the first page fetch of a request until the fetched
+ * rows have been rendered, and reports when there are more than a threshold
+ * relative to the number of rows. Cell values read through
+ * {@link #counting(String, Function)} attribute their lazy loads to their
+ * column, so the report names the association or computed column (e.g. a
+ * derived getter) to blame.
+ * <p>
+ * Not thread-safe; meant to be used from the UI thread of one listing.
+ */
+public class NPlusOneDetector {
+
+    /**
+     * @param rows        rows fetched and rendered
+     * @param statements  statements run for them
+     * @param lazyLoads   statements run while reading cell values, by column
+     *                    key, most first
+     */
+    public record Report(int rows, long statements, Map<String, Long> lazyLoads) {
+
+        /**
+         * @return the column causing the most lazy loads, or {@code null} if
+         * the statements ran while fetching (e.g. eager associations)
+         */
+        public String culprit() {
+            return lazyLoads.isEmpty() ? null : lazyLoads.keySet().iterator().next();
+        }
+    }
+
+    private final StatementLog statementLog;
+    private double statementsPerRow = 0.5;
+    private int minimumStatements = 5;
+    private boolean measuring;
+    private long startCount;
+    private int rows;
+    private final Map<String, Long> lazyLoads = new LinkedHashMap<>();
+
+    public NPlusOneDetector(StatementLog statementLog) {
+        this.statementLog = statementLog;
+    }
+
+    /**
+     * Starts measuring, unless already measuring for the current request,
+     * and adds the rows of a fetched page.
+     */
+    public void pageFetched(int pageRows, long statementCountBeforeFetch) {
+        if (!measuring) {
+            measuring = true;
+            startCount = statementCountBeforeFetch;
+            rows = 0;
+            lazyLoads.clear();
+        }
+        rows += pageRows;
+    }
+
+    /**
+     * Wraps a cell value reader, attributing the statements it runs to the
+     * column.
+     */
+    public <T, V> Function<T, V> counting(String column, Function<T, V> reader) {
+        return row -> {
+            long before = statementLog.getThreadStatementCount();
+            V value = reader.apply(row);
+            long lazy = statementLog.getThreadStatementCount() - before;
+            if (lazy > 0 && measuring) {
+                lazyLoads.merge(column, lazy, Long::sum);
+            }
+            return value;
+        };
+    }
+
+    /**
+     * Stops measuring once the fetched rows have been rendered.
+     *
+     * @return a report if there were too many statements, otherwise
+     * {@code null}
+     */
+    public Report pagesRendered() {
+        if (!measuring) {
+            return null;
+        }
+        measuring = false;
+        long statements = statementLog.getThreadStatementCount() - startCount;
+        if (statements <= Math.max(minimumStatements, statementsPerRow * rows)) {
+            return null;
+        }
+        Map<String, Long> byColumn = new LinkedHashMap<>();
+        lazyLoads.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> byColumn.put(e.getKey(), e.getValue()));
+        return new Report(rows, statements, Collections.unmodifiableMap(byColumn));
+    }
+
+    /**
+     * Sets how many statements per rendered row are tolerated, 0.5 by
+     * default (a page query plus a few batch queries stays well below).
+     */
+    public void setStatementsPerRow(double statementsPerRow) {
+        this.statementsPerRow = statementsPerRow;
+    }
+
+    public double getStatementsPerRow() {
+        return statementsPerRow;
+    }
+
+    /**
+     * Sets the number of statements always tolerated, 5 by default, so that
+     * small pages don't trigger reports.
+     */
+    public void setMinimumStatements(int minimumStatements) {
+        this.minimumStatements = minimumStatements;
+    }
+}
@@ -0,0 +1,163 @@
+package in.virit.entityexplorer.data;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Application-scoped LRU cache of listing pages, so that users browsing the
+ * same entity with the same filter and sort share the database round trips.
+ * Pages are evicted when the cache is full, when they expire, and when the
+ * listed entity or an entity rendered with it, e.g. the members shown in a
+ * collection column, is written (see {@link #invalidate(String)}).
+ * <p>
+ * The cached rows are shared between sessions and threads, so only pages that
+ * are safe to share should be put here: unmanaged projection rows, or
+ * entities that are detached and fully loaded for what is rendered. They must
+ * be treated as read-only; edits must load the entity by id.
+ */
+public class PageCache {
+
+    /**
+     * @param entityName      the listed entity, used for invalidation
+     * @param relatedEntities other entities whose rows are part of the page,
+     *                        e.g. the targets of shown association columns;
+     *                        writing them invalidates the page too
+     * @param filterKey       identifies the filter, e.g. a normalized JPQL
+     *                        where clause
+     * @param ordering        the sort orders and anything else the page
+     *                        content depends on, e.g. the loaded columns
+     */
+    public record PageKey(String entityName, Set<String> relatedEntities, Object filterKey, Object ordering,
+            int offset, int limit) {
+
+        /**
+         * A page of the entity's own rows only.
+         */
+        public PageKey(String entityName, Object filterKey, Object ordering, int offset, int limit) {
+            this(entityName, Set.of(), filterKey, ordering, offset, limit);
+        }
+
+        boolean dependsOn(String writtenEntity) {
+            return entityName.equals(writtenEntity) || relatedEntities.contains(writtenEntity);
+        }
+    }
+
+    /**
+     * @param hits   lookups served from the cache
+     * @param misses lookups that had to load the page
+     * @param size   pages currently cached
+     */
+    public record Statistics(long hits, long misses, int size) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private record CachedPage(List<?> rows, long expiresAt) {
+    }
+
+    private final LinkedHashMap<PageKey, CachedPage> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PageKey, CachedPage> eldest) {
+            return size() > maxPages;
+        }
+    };
+    /** Incremented on invalidation, so pages loaded meanwhile are not cached. */
+    private final EntityVersions generations = new EntityVersions();
+    private long clears;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile int maxPages = 500;
+    private volatile Duration timeToLive = Duration.ofSeconds(30);
+
+    /**
+     * Returns the cached page, or loads and caches it. Loading happens
+     * outside the cache lock, so two users missing the same page at the same
+     * time may both load it. A page whose entity is invalidated while it
+     * loads is returned but not cached, as it may be stale.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(PageKey key, Supplier<List<T>> loader) {
+        long generation;
+        long clearsBefore;
+        synchronized (pages) {
+            CachedPage cached = pages.get(key);
+            if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return (List<T>) cached.rows();
+            }
+            if (cached != null) {
+                pages.remove(key);
+            }
+            generation = generation(key);
+            clearsBefore = clears;
+        }
+        misses.incrementAndGet();
+        List<T> rows = loader.get();
+        synchronized (pages) {
+            if (generation(key) == generation && clears == clearsBefore) {
+                pages.put(key, new CachedPage(List.copyOf(rows), System.currentTimeMillis() + timeToLive.toMillis()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return the sum of the generations of the entities the page depends
+     * on, which only grows, so it changes with any of them
+     */
+    private long generation(PageKey key) {
+        long generation = generations.get(key.entityName());
+        for (String related : key.relatedEntities()) {
+            generation += generations.get(related);
+        }
+        return generation;
+    }
+
+    /**
+     * Drops the cached pages of an entity, and the pages of other entities
+     * that show its rows, e.g. after one was saved or deleted.
+     */
+    public void invalidate(String entityName) {
+        synchronized (pages) {
+            generations.increment(entityName);
+            pages.keySet().removeIf(key -> key.dependsOn(entityName));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (pages) {
+            clears++;
+            pages.clear();
+        }
+    }
+
+    public Statistics getStatistics() {
+        synchronized (pages) {
+            return new Statistics(hits.get(), misses.get(), pages.size());
+        }
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public void setMaxPages(int maxPages) {
+        this.maxPages = maxPages;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+}
@@ -0,0 +1,212 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-ahead page buffer for one lazy listing. The scroll direction is
+ * detected from successive page offsets, and the next page(s) in that
+ * direction are loaded on a virtual thread while the user is still looking
+ * at the current one, so that the next page request is served from memory.
+ * <p>
+ * Each read-ahead task uses an EntityManager of its own. The entities of a
+ * served page stay attached to it (lazy loading keeps working while the page
+ * is rendered) until {@link #releaseServed()} is called, typically once the
+ * response has been written.
+ * <p>
+ * Not thread-safe; meant to be used from the UI thread of its listing. Use a
+ * new instance per filter and {@link #cancel()} the old one.
+ *
+ * @param <T> the row type
+ */
+public class PagePrefetcher<T> {
+
+    /** Loads one page of a listing with the given entity manager. */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        List<T> load(EntityManager em, int offset, int limit);
+    }
+
+    private record PageKey(int offset, int limit) {
+    }
+
+    private record LoadedPage<T>(List<T> rows, EntityManager entityManager) {
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Supplier<EntityManager> entityManagers;
+    private final int readAheadPages;
+    private final Map<PageKey, CompletableFuture<LoadedPage<T>>> buffer = new LinkedHashMap<>();
+    private final List<EntityManager> served = new ArrayList<>();
+    private Object ordering;
+    private int lastOffset = -1;
+    private volatile boolean cancelled;
+    private int hits;
+    private int misses;
+
+    /**
+     * @param readAheadPages how many pages to load ahead in the scroll
+     *                       direction, 0 disables prefetching
+     */
+    public PagePrefetcher(EntityManagerFactory entityManagerFactory, int readAheadPages) {
+        this(entityManagerFactory::createEntityManager, readAheadPages);
+    }
+
+    /**
+     * @param entityManagers opens the entity managers of read-ahead tasks,
+     *                       e.g. ones logged in a {@link StatementLog}
+     * @param readAheadPages how many pages to load ahead in the scroll
+     *                       direction, 0 disables prefetching
+     */
+    public PagePrefetcher(Supplier<EntityManager> entityManagers, int readAheadPages) {
+        this.entityManagers = entityManagers;
+        this.readAheadPages = readAheadPages;
+    }
+
+    /**
+     * Returns the requested page, from the read-ahead buffer if available,
+     * otherwise loaded synchronously with {@code em}. Then schedules loading
+     * the following page(s) in the scroll direction.
+     *
+     * @param em       the entity manager for synchronous loads
+     * @param ordering the ordering of the listing, e.g. the sort orders; the
+     *                 buffer is dropped when it changes
+     * @param loader   loads a page, must not depend on UI state as it is also
+     *                 called from background threads
+     */
+    public List<T> fetch(EntityManager em, Object ordering, int offset, int limit, PageLoader<T> loader) {
+        // a detached listing may get attached again
+        cancelled = false;
+        if (!Objects.equals(ordering, this.ordering)) {
+            discardBuffer();
+            this.ordering = ordering;
+            lastOffset = -1;
+        }
+        List<T> rows = takeFromBuffer(new PageKey(offset, limit));
+        if (rows == null) {
+            misses++;
+            rows = loader.load(em, offset, limit);
+        } else {
+            hits++;
+        }
+        int direction = lastOffset < 0 ? 1 : Integer.signum(offset - lastOffset);
+        lastOffset = offset;
+        if (readAheadPages > 0 && direction != 0 && rows.size() == limit) {
+            readAhead(offset, limit, direction, loader);
+        }
+        return rows;
+    }
+
+    private List<T> takeFromBuffer(PageKey key) {
+        CompletableFuture<LoadedPage<T>> future = buffer.remove(key);
+        if (future == null) {
+            return null;
+        }
+        try {
+            LoadedPage<T> page = future.join();
+            served.add(page.entityManager());
+            return page.rows();
+        } catch (RuntimeException e) {
+            Logger.getLogger(PagePrefetcher.class.getName()).log(Level.FINE, "Read-ahead failed, loading again", e);
+            return null;
+        }
+    }
+
+    private void readAhead(int offset, int limit, int direction, PageLoader<T> loader) {
+        List<PageKey> keys = new ArrayList<>();
+        for (int i = 1; i <= readAheadPages; i++) {
+            int nextOffset = offset + direction * i * limit;
+            PageKey key = new PageKey(nextOffset, limit);
+            if (nextOffset >= 0 && !buffer.containsKey(key)) {
+                keys.add(key);
+            }
+        }
+        // pages in the other direction are not going to be needed
+        Iterator<Map.Entry<PageKey, CompletableFuture<LoadedPage<T>>>> it = buffer.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<PageKey, CompletableFuture<LoadedPage<T>>> entry = it.next();
+            if (Integer.signum(entry.getKey().offset() - offset) != direction) {
+                discard(entry.getValue());
+                it.remove();
+            }
+        }
+        // Pages are loaded one after another, so that with keyset pagination
+        // each one can seek from the boundary the previous one recorded.
+        CompletableFuture<?> previous = CompletableFuture.completedFuture(null);
+        for (PageKey key : keys) {
+            CompletableFuture<LoadedPage<T>> page = previous.thenApplyAsync(ignored -> load(key, loader), EXECUTOR);
+            buffer.put(key, page);
+            previous = page;
+        }
+    }
+
+    private LoadedPage<T> load(PageKey key, PageLoader<T> loader) {
+        if (cancelled) {
+            throw new IllegalStateException("Cancelled");
+        }
+        EntityManager em = entityManagers.get();
+        try {
+            return new LoadedPage<>(loader.load(em, key.offset(), key.limit()), em);
+        } catch (RuntimeException e) {
+            em.close();
+            throw e;
+        }
+    }
+
+    private static void discard(CompletableFuture<? extends LoadedPage<?>> page) {
+        // closes the entity manager on the loading thread once done
+        page.thenAccept(loaded -> loaded.entityManager().close());
+    }
+
+    private void discardBuffer() {
+        buffer.values().forEach(PagePrefetcher::discard);
+        buffer.clear();
+    }
+
+    /**
+     * Closes the entity managers of pages served from the buffer. Call once
+     * the served rows have been rendered.
+     */
+    public void releaseServed() {
+        served.forEach(EntityManager::close);
+        served.clear();
+    }
+
+    /**
+     * Stops read-ahead and drops the buffer, e.g. when the filter changes or
+     * the listing is detached.
+     */
+    public void cancel() {
+        cancelled = true;
+        discardBuffer();
+        releaseServed();
+    }
+
+    /**
+     * @return the number of page requests served from the read-ahead buffer
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of page requests loaded synchronously
+     */
+    public int getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,54 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Application-scoped LRU cache of the parameterized forms of JPQL quick
+ * filters, so that the literal extraction and the binding check of
+ * {@link ParameterizedJpql#forFilter} are done once per entity and
+ * normalized filter.
+ */
+public class ParameterizedFilterCache {
+
+    private final Map<String, ParameterizedJpql> filters;
+
+    /**
+     * Creates a cache of up to 1000 filters, capped for sessions trying lots
+     * of ad hoc filters.
+     */
+    public ParameterizedFilterCache() {
+        this(1000);
+    }
+
+    public ParameterizedFilterCache(int maxFilters) {
+        filters = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParameterizedJpql> eldest) {
+                return size() > maxFilters;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached parameterized form of a where clause of the given
+     * entity, resolving it with {@link ParameterizedJpql#forFilter} on a miss.
+     * Resolving happens outside the cache lock.
+     */
+    public ParameterizedJpql forFilter(EntityManager em, String entityName, String jpqlFilter) {
+        String cacheKey = entityName + " " + ParameterizedJpql.normalize(jpqlFilter);
+        synchronized (filters) {
+            ParameterizedJpql cached = filters.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ParameterizedJpql filter = ParameterizedJpql.forFilter(em, entityName, jpqlFilter);
+        synchronized (filters) {
+            filters.put(cacheKey, filter);
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,190 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A JPQL fragment, typically a quick filter typed by the user, with its
+ * literals extracted into bound parameters. Filters that differ only in
+ * their literals ({@code name like '%a%'}, {@code name like '%ab%'}, ...)
+ * then share one query shape, and thus one entry in Hibernate's query plan
+ * cache and one prepared statement in the database.
+ * <p>
+ * String and plain numeric literals are extracted, as {@code :q0},
+ * {@code :q1}, ... Fragments with JDBC escapes ({@code {d '...'}}) or input
+ * parameters of their own are kept as they are. As a literal may be compared
+ * with something a parameter of its Java type can't be bound to (e.g. a
+ * date attribute with a string literal), {@link #forFilter} checks that the
+ * parameterized shape binds and falls back to the literal fragment if not;
+ * {@link ParameterizedFilterCache} keeps the results.
+ *
+ * @param jpql       the fragment, with parameter references
+ * @param parameters the extracted literal values by parameter name
+ */
+public record ParameterizedJpql(String jpql, Map<String, Object> parameters) {
+
+    private static final String PARAMETER_PREFIX = "q";
+
+    public ParameterizedJpql {
+        parameters = Map.copyOf(parameters);
+    }
+
+    /**
+     * @return the fragment as is, without extracted parameters
+     */
+    public static ParameterizedJpql literal(String jpql) {
+        return new ParameterizedJpql(jpql, Map.of());
+    }
+
+    /**
+     * Resolves the parameterized form of a where clause of the given entity,
+     * using the alias {@code e}. Creates a query to check the binding, so
+     * cache the result, see {@link ParameterizedFilterCache}.
+     */
+    public static ParameterizedJpql forFilter(EntityManager em, String entityName, String jpqlFilter) {
+        String normalized = normalize(jpqlFilter);
+        ParameterizedJpql filter = extract(normalized);
+        if (!filter.parameters().isEmpty()) {
+            try {
+                filter.bind(em.createQuery("select e from " + entityName + " e where " + filter.jpql()));
+            } catch (IllegalArgumentException e) {
+                // a literal a parameter can't stand in for, or invalid JPQL,
+                // which then fails with the message of the user's own query
+                filter = literal(normalized);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Extracts the string and numeric literals of a JPQL fragment into
+     * parameters. No validation is done.
+     */
+    public static ParameterizedJpql extract(String jpql) {
+        if (jpql.indexOf('{') >= 0 || jpql.indexOf(':') >= 0 || jpql.indexOf('?') >= 0) {
+            return literal(jpql);
+        }
+        StringBuilder shape = new StringBuilder();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        int i = 0;
+        while (i < jpql.length()) {
+            char c = jpql.charAt(i);
+            if (c == '\'') {
+                StringBuilder value = new StringBuilder();
+                int end = i + 1;
+                while (true) {
+                    if (end >= jpql.length()) {
+                        // unterminated, let the parser report it
+                        return literal(jpql);
+                    }
+                    char v = jpql.charAt(end);
+                    if (v == '\'') {
+                        if (end + 1 < jpql.length() && jpql.charAt(end + 1) == '\'') {
+                            value.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    value.append(v);
+                    end++;
+                }
+                i = addParameter(shape, parameters, value.toString(), end + 1);
+            } else if (Character.isDigit(c) && (i == 0 || !isIdentifierPart(jpql.charAt(i - 1)))) {
+                int end = i;
+                while (end < jpql.length() && Character.isDigit(jpql.charAt(end))) {
+                    end++;
+                }
+                boolean decimal = end + 1 < jpql.length() && jpql.charAt(end) == '.'
+                        && Character.isDigit(jpql.charAt(end + 1));
+                if (decimal) {
+                    end++;
+                    while (end < jpql.length() && Character.isDigit(jpql.charAt(end))) {
+                        end++;
+                    }
+                }
+                boolean typed = end < jpql.length() && (isIdentifierPart(jpql.charAt(end)) || jpql.charAt(end) == '.');
+                if (typed || end - i > 18) {
+                    // typed (1L, 1.0BD), exponent or huge literal, keep as is
+                    while (end < jpql.length() && (isIdentifierPart(jpql.charAt(end)) || jpql.charAt(end) == '.')) {
+                        end++;
+                    }
+                    shape.append(jpql, i, end);
+                    i = end;
+                    continue;
+                }
+                i = addParameter(shape, parameters, numericValue(jpql.substring(i, end), decimal), end);
+            } else if (isIdentifierPart(c)) {
+                // identifiers may contain digits, copy them whole
+                int end = i;
+                while (end < jpql.length() && isIdentifierPart(jpql.charAt(end))) {
+                    end++;
+                }
+                shape.append(jpql, i, end);
+                i = end;
+            } else {
+                shape.append(c);
+                i++;
+            }
+        }
+        return new ParameterizedJpql(shape.toString(), parameters);
+    }
+
+    private static int addParameter(StringBuilder shape, Map<String, Object> parameters, Object value, int next) {
+        String name = PARAMETER_PREFIX + parameters.size();
+        parameters.put(name, value);
+        shape.append(':').append(name);
+        return next;
+    }
+
+    private static Object numericValue(String literal, boolean decimal) {
+        if (decimal) {
+            return Double.valueOf(literal);
+        }
+        long value = Long.parseLong(literal);
+        return value <= Integer.MAX_VALUE ? (Object) (int) value : value;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isJavaIdentifierPart(c);
+    }
+
+    /**
+     * Collapses whitespace outside string literals, so that trivially
+     * different spellings of a filter are treated as the same.
+     */
+    public static String normalize(String jpql) {
+        StringBuilder normalized = new StringBuilder();
+        boolean inLiteral = false;
+        boolean pendingSpace = false;
+        for (char c : jpql.strip().toCharArray()) {
+            if (!inLiteral && Character.isWhitespace(c)) {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    public boolean isEmpty() {
+        return jpql.isEmpty();
+    }
+
+    /**
+     * Binds the extracted parameters to a query containing the fragment.
+     */
+    public void bind(Query query) {
+        parameters.forEach(query::setParameter);
+    }
+}
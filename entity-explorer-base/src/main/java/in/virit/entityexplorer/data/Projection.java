@@ -0,0 +1,133 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads only some attributes of an entity with a tuple query, and turns each
+ * tuple into a lightweight, unmanaged instance of the entity class with just
+ * those fields populated. Used by the grid's projection mode: the rows can be
+ * rendered with the same column accessors as full entities, but nothing else
+ * is transferred, hydrated or kept in the persistence context.
+ * <p>
+ * Such partial instances must never be merged or edited; load the full
+ * entity by id for that. Neither should they escape to code expecting
+ * entities, which is why the grid projects only rows that can't be selected.
+ */
+public final class Projection<T> {
+
+    private final Constructor<T> constructor;
+    private final List<String> paths;
+    private final List<Field> fields;
+
+    private Projection(Constructor<T> constructor, List<String> paths, List<Field> fields) {
+        this.constructor = constructor;
+        this.paths = paths;
+        this.fields = fields;
+    }
+
+    /**
+     * Plans a projection of the given attributes, the id is always included.
+     *
+     * @param attributeNames   the attributes to load, typically the keys of
+     *                         the visible grid columns
+     * @param ignoredNames     names that may be in {@code attributeNames} but
+     *                         need no data, e.g. an actions column
+     * @return the projection, or {@code null} if a projection can't serve the
+     * attributes: some of them are associations or not persistent at all
+     * (computed getters may depend on any state), the entity has no single id,
+     * or it can't be instantiated with field access
+     */
+    public static <T> Projection<T> forAttributes(EntityType<T> entityType, Collection<String> attributeNames,
+            Set<String> ignoredNames) {
+        if (!entityType.hasSingleIdAttribute()) {
+            return null;
+        }
+        try {
+            Class<T> javaType = entityType.getJavaType();
+            List<String> paths = new ArrayList<>();
+            List<Field> fields = new ArrayList<>();
+            for (SingularAttribute<? super T, ?> attribute : entityType.getSingularAttributes()) {
+                if (attribute.isId()) {
+                    paths.addFirst(attribute.getName());
+                    fields.addFirst(field(javaType, attribute.getName()));
+                }
+            }
+            for (String name : attributeNames) {
+                if (ignoredNames.contains(name) || paths.contains(name)) {
+                    continue;
+                }
+                Attribute<?, ?> attribute = entityType.getAttributes().stream()
+                        .filter(a -> a.getName().equals(name))
+                        .findFirst().orElse(null);
+                if (attribute == null || attribute.isAssociation() || attribute.isCollection()) {
+                    return null;
+                }
+                paths.add(name);
+                fields.add(field(javaType, name));
+            }
+            Constructor<T> constructor = javaType.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return new Projection<>(constructor, List.copyOf(paths), List.copyOf(fields));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // try the superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+
+    /**
+     * @return the attribute paths to select, the id first
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return true if the projection loads the attribute
+     */
+    public boolean contains(String attributeName) {
+        return paths.contains(attributeName);
+    }
+
+    /**
+     * Creates the partial entity instance for one row.
+     *
+     * @param values the selected values in the order of {@link #getPaths()},
+     *               possibly followed by further values that are ignored
+     */
+    public T toEntity(Object[] values) {
+        try {
+            T instance = constructor.newInstance();
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                Object value = values[i];
+                if (value != null || !field.getType().isPrimitive()) {
+                    field.set(instance, value);
+                }
+            }
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate " + constructor.getDeclaringClass(), e);
+        }
+    }
+}
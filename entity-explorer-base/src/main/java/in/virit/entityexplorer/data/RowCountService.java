@@ -0,0 +1,136 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Counts listing rows in the background and caches the results per entity
+ * and filter for a while, so that grids can show a real size (and a stable
+ * scrollbar) without a count ever blocking the first page.
+ * <p>
+ * Counts run on virtual threads, each with a short-lived EntityManager of its
+ * own. One instance is shared by all grids of the application.
+ */
+public class RowCountService {
+
+    /** How a listing's row count is resolved. */
+    public enum Strategy {
+        /** Full {@code select count(e)} in the background. */
+        EXACT,
+        /**
+         * Counts at most {@link #getEstimateThreshold()} rows; above that the
+         * count is reported as an estimate and never computed exactly. Meant
+         * for huge tables where a full count would be slow.
+         */
+        ESTIMATE,
+        /** No counting, the grid grows its size while scrolling. */
+        NONE
+    }
+
+    /**
+     * @param count the row count, a lower bound if not exact
+     * @param exact false if the count is an estimate
+     */
+    public record RowCount(long count, boolean exact) {
+    }
+
+    private record Key(String entityName, Object filterKey) {
+    }
+
+    private record CachedCount(RowCount rowCount, long expiresAt) {
+    }
+
+    /** Caps the cache for sessions trying lots of ad hoc filters. */
+    private static final int MAX_CACHED_COUNTS = 1000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Key, CachedCount> cache = new ConcurrentHashMap<>();
+    /** Incremented on invalidation, so counts running meanwhile are not cached. */
+    private final EntityVersions generations = new EntityVersions();
+    private Duration timeToLive = Duration.ofSeconds(30);
+    private int estimateThreshold = 10_000;
+
+    public RowCountService(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Resolves the row count of a listing, from the cache if possible,
+     * otherwise on a background thread.
+     *
+     * @param entityName the entity listed, used for invalidation
+     * @param filterKey  a key identifying the filter (e.g. the JPQL where
+     *                   clause), or {@code null} if the result must not be
+     *                   cached
+     * @param strategy   {@link Strategy#EXACT} or {@link Strategy#ESTIMATE}
+     */
+    public CompletableFuture<RowCount> count(String entityName, Object filterKey, Strategy strategy,
+            CountQuery countQuery) {
+        Key key = filterKey == null ? null : new Key(entityName, filterKey);
+        if (key != null) {
+            CachedCount cached = cache.get(key);
+            if (cached != null && cached.expiresAt() > System.currentTimeMillis()
+                    && (cached.rowCount().exact() || strategy == Strategy.ESTIMATE)) {
+                return CompletableFuture.completedFuture(cached.rowCount());
+            }
+        }
+        long generation = generations.get(entityName);
+        return CompletableFuture.supplyAsync(() -> {
+            RowCount rowCount;
+            try (EntityManager em = entityManagerFactory.createEntityManager()) {
+                if (strategy == Strategy.ESTIMATE) {
+                    long probed = countQuery.countUpTo(em, estimateThreshold + 1);
+                    rowCount = probed > estimateThreshold
+                            ? new RowCount(estimateThreshold, false)
+                            : new RowCount(probed, true);
+                } else {
+                    rowCount = new RowCount(countQuery.count(em), true);
+                }
+            }
+            if (key != null) {
+                if (cache.size() >= MAX_CACHED_COUNTS) {
+                    cache.clear();
+                }
+                CachedCount cached = new CachedCount(rowCount, System.currentTimeMillis() + timeToLive.toMillis());
+                cache.put(key, cached);
+                if (generations.get(entityName) != generation) {
+                    // invalidated while counting, the count may be stale
+                    cache.remove(key, cached);
+                }
+            }
+            return rowCount;
+        }, executor);
+    }
+
+    /**
+     * Drops cached counts of an entity, e.g. after a row was added or removed.
+     */
+    public void invalidate(String entityName) {
+        generations.increment(entityName);
+        cache.keySet().removeIf(key -> key.entityName().equals(entityName));
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public int getEstimateThreshold() {
+        return estimateThreshold;
+    }
+
+    public void setEstimateThreshold(int estimateThreshold) {
+        this.estimateThreshold = estimateThreshold;
+    }
+}
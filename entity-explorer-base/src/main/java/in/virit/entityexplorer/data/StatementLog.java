@@ -0,0 +1,248 @@
+package in.virit.entityexplorer.data;
+
+import in.virit.entityexplorer.jfr.EntityManagerEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the SQL statements executed by the entity managers of a view, with
+ * their durations, so operators can see what a slow listing does. Entity
+ * managers opened with {@link #open(EntityManagerFactory)} capture their
+ * statements with a Hibernate {@link StatementInspector} and time their JDBC
+ * executions with a {@link SessionEventListener}. The statement inspector
+ * configured for the application still applies, the SQL it returns is
+ * recorded.
+ * <p>
+ * Work like a grid page fetch can be run in a {@link #scope(String, Supplier)},
+ * which labels its statements with the cause and gives the first one (the
+ * page query) the number of rows returned. Row counts of other statements,
+ * e.g. lazy loads, are unknown. The most recent {@value #MAX_ENTRIES}
+ * statements are kept. Thread-safe, read-ahead threads record too.
+ * <p>
+ * The opened and closed entity managers are reported to the
+ * {@link ExplorerMetrics} given on construction, and their lifetimes
+ * recorded as {@link EntityManagerEvent}s.
+ */
+public class StatementLog {
+
+    /**
+     * @param timestamp      when the statement completed, epoch millis
+     * @param sql            the SQL as sent to the JDBC driver
+     * @param durationNanos  the time spent executing it
+     * @param rows           rows returned, -1 if unknown
+     * @param cause          the scope it ran in, e.g. a grid fetch, or
+     *                       {@code null}
+     */
+    public record Entry(long timestamp, String sql, long durationNanos, int rows, String cause) {
+
+        public double durationMillis() {
+            return durationNanos / 1_000_000d;
+        }
+
+        Entry withRows(int rows) {
+            return new Entry(timestamp, sql, durationNanos, rows, cause);
+        }
+    }
+
+    private static final int MAX_ENTRIES = 200;
+
+    private record Scope(String cause, List<Entry> entries) {
+    }
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private final List<Consumer<Entry>> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Scope> scope = new ThreadLocal<>();
+    private final ThreadLocal<long[]> threadCount = ThreadLocal.withInitial(() -> new long[1]);
+    private final ExplorerMetrics metrics;
+
+    public StatementLog() {
+        this(ExplorerMetrics.NONE);
+    }
+
+    public StatementLog(ExplorerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Opens an entity manager whose statements are recorded in this log. If
+     * the persistence provider is not Hibernate, a plain one is returned.
+     */
+    public EntityManager open(EntityManagerFactory entityManagerFactory) {
+        SessionFactory sessionFactory;
+        try {
+            sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        } catch (RuntimeException e) {
+            Logger.getLogger(StatementLog.class.getName()).log(Level.FINE, "Not Hibernate, statements not logged", e);
+            return entityManagerFactory.createEntityManager();
+        }
+        Recorder recorder = new Recorder(sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getSessionFactoryOptions().getStatementInspector());
+        EntityManager entityManager = sessionFactory.withOptions()
+                .statementInspector(recorder)
+                .eventListeners(recorder)
+                .openSession();
+        metrics.entityManagerOpened();
+        return entityManager;
+    }
+
+    /**
+     * Runs a piece of work, labelling the statements it executes with the
+     * cause. The size of a list result is recorded as the row count of the
+     * first statement.
+     */
+    public <R> R scope(String cause, Supplier<R> work) {
+        Scope outer = scope.get();
+        Scope current = new Scope(cause, new ArrayList<>());
+        scope.set(current);
+        R result;
+        try {
+            result = work.get();
+        } finally {
+            if (outer == null) {
+                scope.remove();
+            } else {
+                scope.set(outer);
+            }
+        }
+        List<Entry> recorded = current.entries();
+        if (!recorded.isEmpty() && result instanceof List<?> rows) {
+            recorded.set(0, recorded.getFirst().withRows(rows.size()));
+        }
+        recorded.forEach(this::publish);
+        return result;
+    }
+
+    /**
+     * @return the number of statements recorded on the current thread so
+     * far; the difference of two calls is what ran in between, regardless of
+     * other threads
+     */
+    public long getThreadStatementCount() {
+        return threadCount.get()[0];
+    }
+
+    /**
+     * @return the recorded statements, oldest first
+     */
+    public List<Entry> getEntries() {
+        synchronized (entries) {
+            return List.copyOf(entries);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Adds a listener notified of each recorded statement, on the thread
+     * that executed it.
+     *
+     * @return removes the listener
+     */
+    public Runnable addListener(Consumer<Entry> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    private void record(String sql, long durationNanos) {
+        threadCount.get()[0]++;
+        Scope current = scope.get();
+        Entry entry = new Entry(System.currentTimeMillis(), sql, durationNanos, -1,
+                current == null ? null : current.cause());
+        if (current != null) {
+            // published when the scope ends, with the row count
+            current.entries().add(entry);
+        } else {
+            publish(entry);
+        }
+    }
+
+    private void publish(Entry entry) {
+        synchronized (entries) {
+            if (entries.size() == MAX_ENTRIES) {
+                entries.removeFirst();
+            }
+            entries.addLast(entry);
+        }
+        listeners.forEach(listener -> listener.accept(entry));
+    }
+
+    /**
+     * Captures the statements of one session. A session is used by one
+     * thread at a time, so no synchronization is needed here.
+     */
+    private final class Recorder implements StatementInspector, SessionEventListener {
+
+        private final EntityManagerEvent lifetime = new EntityManagerEvent();
+        /** The application's inspector, replaced for the session, or null. */
+        private final StatementInspector applicationInspector;
+        private String sql;
+        private long started;
+        private long statements;
+
+        Recorder(StatementInspector applicationInspector) {
+            this.applicationInspector = applicationInspector;
+            lifetime.begin();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (applicationInspector != null) {
+                String inspected = applicationInspector.inspect(sql);
+                if (inspected != null) {
+                    // null means unchanged
+                    sql = inspected;
+                }
+            }
+            this.sql = sql;
+            return sql;
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            started = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            statements++;
+            record(sql, System.nanoTime() - started);
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            started = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            statements++;
+            record(sql + " (batch)", System.nanoTime() - started);
+        }
+
+        @Override
+        public void end() {
+            metrics.entityManagerClosed();
+            if (lifetime.shouldCommit()) {
+                lifetime.statements = statements;
+                lifetime.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package in.virit.entityexplorer.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All rows of a (small) table, loaded once to be sorted and filtered in
+ * memory instead of querying the database for each change. The rows stay
+ * attached to an entity manager of their own, loaded read-only, so lazy
+ * associations keep working; {@link #close()} releases it.
+ * <p>
+ * The snapshot remembers the {@link EntityVersions} version of the entity it
+ * was loaded at, so holders can tell when the table has changed since, and
+ * when it was loaded: bulk JPQL, native SQL and other nodes don't bump the
+ * version, so holders should also reload once the snapshot is old enough.
+ */
+public final class TableSnapshot<T> implements AutoCloseable {
+
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+
+    private final EntityManager entityManager;
+    private final List<T> rows;
+    private final long version;
+    private final long loadedAt = System.currentTimeMillis();
+
+    private TableSnapshot(EntityManager entityManager, List<T> rows, long version) {
+        this.entityManager = entityManager;
+        this.rows = rows;
+        this.version = version;
+    }
+
+    /**
+     * Loads all rows of the entity, ordered by id if it has a single one
+     * (the same tie-breaker order as the database listings).
+     *
+     * @param fetchPlan associations to load with the rows
+     * @param version   the entity version the rows are loaded at, read
+     *                  before loading
+     */
+    public static <T> TableSnapshot<T> load(EntityManagerFactory entityManagerFactory, EntityType<T> entityType,
+            FetchPlan fetchPlan, long version) {
+        String jpql = "select e from " + entityType.getName() + " e";
+        if (entityType.hasSingleIdAttribute()) {
+            SingularAttribute<? super T, ?> id = entityType.getId(entityType.getIdType().getJavaType());
+            jpql += " order by e." + id.getName();
+        }
+        Class<T> javaType = entityType.getJavaType();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<T> query = em.createQuery(jpql, javaType);
+            Map<String, Object> hints = new HashMap<>();
+            fetchPlan.addHints(hints, em, javaType);
+            hints.put(READ_ONLY_HINT, true);
+            hints.forEach(query::setHint);
+            List<T> rows = query.getResultList();
+            fetchPlan.initializeCollections(em, entityType.getName(), rows);
+            return new TableSnapshot<>(em, List.copyOf(rows), version);
+        } catch (RuntimeException e) {
+            em.close();
+            throw e;
+        }
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true if the snapshot was loaded longer than the given time ago
+     */
+    public boolean isOlderThan(Duration timeToLive) {
+        return System.currentTimeMillis() - loadedAt > timeToLive.toMillis();
+    }
+
+    @Override
+    public void close() {
+        if (entityManager.isOpen()) {
+            entityManager.close();
+        }
+    }
+}
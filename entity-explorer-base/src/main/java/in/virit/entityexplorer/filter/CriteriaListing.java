@@ -1,14 +1,20 @@
 package in.virit.entityexplorer.filter;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Nulls;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Executes a paged criteria query for a {@link FilterSpecification}. Extracted
@@ -35,6 +41,14 @@ public final class CriteriaListing {
     public static <T> List<T> fetch(EntityManager em, Class<T> entityClass,
             FilterSpecification<T> specification, List<PropertySort> sorts,
             int offset, int limit) {
+        return createQuery(em, entityClass, specification, sorts)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static <T> TypedQuery<T> createQuery(EntityManager em, Class<T> entityClass,
+            FilterSpecification<T> specification, List<PropertySort> sorts) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<T> cq = cb.createQuery(entityClass);
         Root<T> root = cq.from(entityClass);
@@ -45,17 +59,169 @@ public final class CriteriaListing {
         if (!sorts.isEmpty()) {
             cq.orderBy(sorts.stream().map(sort -> toOrder(sort, root, cb)).toList());
         }
-        return em.createQuery(cq)
-                .setFirstResult(offset)
+        return em.createQuery(cq);
+    }
+
+    /**
+     * Fetches a page using keyset pagination when possible: the sort key
+     * tuple of each page's last row is remembered in {@code keyset} and the
+     * next page is fetched with a seek predicate instead of a large offset.
+     * The id is appended to the ordering as a tie-breaker.
+     *
+     * @param keyset the pagination state of this listing, or {@code null} for
+     *               plain offset paging
+     */
+    public static <T> List<T> fetch(EntityManager em, Class<T> entityClass,
+            FilterSpecification<T> specification, List<PropertySort> sorts,
+            KeysetPagination keyset, int offset, int limit) {
+        return fetch(em, entityClass, specification, sorts, keyset, Map.of(), offset, limit);
+    }
+
+    /**
+     * Like {@link #fetch(EntityManager, Class, FilterSpecification, List,
+     * KeysetPagination, int, int)}, but additionally applies query hints,
+     * e.g. a load graph so that shown associations are loaded with the page,
+     * or a read-only hint.
+     *
+     * @param hints the query hints to apply
+     */
+    public static <T> List<T> fetch(EntityManager em, Class<T> entityClass,
+            FilterSpecification<T> specification, List<PropertySort> sorts,
+            KeysetPagination keyset, Map<String, Object> hints, int offset, int limit) {
+        if (keyset == null) {
+            TypedQuery<T> query = createQuery(em, entityClass, specification, sorts);
+            hints.forEach(query::setHint);
+            return query.setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return fetchTuples(em, entityClass, specification, sorts, keyset, true, List.of(), hints, offset, limit)
+                .stream().map(row -> row.get(0, entityClass)).toList();
+    }
+
+    /**
+     * Fetches only the given attribute paths of the matching entities, with
+     * a criteria multiselect, instead of hydrating full managed entities.
+     *
+     * @param paths  the attribute paths to select
+     * @param keyset the pagination state of this listing, or {@code null} for
+     *               plain offset paging
+     * @return one array per row, with the values in the order of
+     * {@code paths}
+     */
+    public static <T> List<Object[]> fetchProjection(EntityManager em, Class<T> entityClass,
+            FilterSpecification<T> specification, List<PropertySort> sorts,
+            KeysetPagination keyset, List<String> paths, int offset, int limit) {
+        return fetchTuples(em, entityClass, specification, sorts, keyset, false, paths, Map.of(), offset, limit)
+                .stream().map(row -> row.toArray()).toList();
+    }
+
+    /**
+     * Executes a tuple query selecting optionally the root entity, then the
+     * given paths and, with keyset pagination, the key values (which are
+     * remembered as the page boundary).
+     */
+    private static <T> List<Tuple> fetchTuples(EntityManager em, Class<T> entityClass,
+            FilterSpecification<T> specification, List<PropertySort> sorts, KeysetPagination keyset,
+            boolean selectRoot, List<String> paths, Map<String, Object> hints, int offset, int limit) {
+        List<PropertySort> keyOrder = keyset == null ? sorts : keyset.keyOrder(sorts);
+        KeysetPagination.Boundary boundary = keyset == null ? null : keyset.seek(keyOrder, offset);
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<T> root = cq.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>();
+        if (selectRoot) {
+            selections.add(root);
+        }
+        paths.forEach(path -> selections.add(resolvePath(root, path)));
+        int keyStart = selections.size();
+        if (keyset != null) {
+            keyOrder.forEach(sort -> selections.add(resolvePath(root, sort.path())));
+        }
+        cq.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = specification.toPredicate(root, cb);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (boundary != null) {
+            predicates.add(keyset.toPredicate(root, cb, keyOrder, boundary.values()));
+        }
+        if (!predicates.isEmpty()) {
+            cq.where(predicates.toArray(Predicate[]::new));
+        }
+        if (!keyOrder.isEmpty()) {
+            cq.orderBy(keyOrder.stream().map(sort -> toOrder(sort, root, cb)).toList());
+        }
+
+        TypedQuery<Tuple> query = em.createQuery(cq);
+        hints.forEach(query::setHint);
+        List<Tuple> rows = query
+                .setFirstResult(boundary == null ? offset : offset - boundary.offset())
                 .setMaxResults(limit)
                 .getResultList();
+        if (keyset != null && !rows.isEmpty()) {
+            Tuple last = rows.getLast();
+            List<Object> lastValues = new ArrayList<>();
+            for (int i = keyStart; i < keyStart + keyOrder.size(); i++) {
+                lastValues.add(last.get(i));
+            }
+            keyset.record(keyOrder, offset + rows.size(), lastValues);
+        }
+        return rows;
+    }
+
+    /**
+     * @return the number of entities matching the specification
+     */
+    public static <T> long count(EntityManager em, Class<T> entityClass,
+            FilterSpecification<T> specification) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<T> root = cq.from(entityClass);
+        cq.select(cb.count(root));
+        Predicate predicate = specification.toPredicate(root, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        return em.createQuery(cq).getSingleResult();
     }
 
+    /**
+     * Counts matching entities, but stops at {@code limit}. Much cheaper than
+     * a full count on huge tables, as the database can stop scanning early.
+     *
+     * @return the number of matching entities, at most {@code limit}
+     */
+    public static <T> long countUpTo(EntityManager em, Class<T> entityClass,
+            FilterSpecification<T> specification, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
+        Root<T> root = cq.from(entityClass);
+        cq.select(cb.literal(1));
+        Predicate predicate = specification.toPredicate(root, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        return em.createQuery(cq).setMaxResults(limit).getResultList().size();
+    }
+
+    /**
+     * NULLs are ordered as the smallest value, consistently across databases
+     * and with the seek predicates of {@link KeysetPagination}.
+     */
     private static Order toOrder(PropertySort sort, Root<?> root, CriteriaBuilder cb) {
+        Path<?> path = resolvePath(root, sort.path());
+        return sort.ascending() ? cb.asc(path, Nulls.FIRST) : cb.desc(path, Nulls.LAST);
+    }
+
+    static Path<?> resolvePath(Root<?> root, String propertyPath) {
         Path<?> path = root;
-        for (String part : sort.path().split("\\.")) {
+        for (String part : propertyPath.split("\\.")) {
             path = path.get(part);
         }
-        return sort.ascending() ? cb.asc(path) : cb.desc(path);
+        return path;
     }
 }
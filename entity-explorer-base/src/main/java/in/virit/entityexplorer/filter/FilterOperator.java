@@ -23,7 +23,12 @@ public enum FilterOperator {
     IS_NULL("is null"),
     IS_NOT_NULL("is not null"),
     /** String only: null or empty string. */
-    IS_EMPTY("is empty");
+    IS_EMPTY("is empty"),
+    /**
+     * Any of the values in a collection. Not offered in the UI, produced by
+     * {@link FilterOptimizer} from OR'ed equalities.
+     */
+    IN("in");
 
     private final String caption;
 
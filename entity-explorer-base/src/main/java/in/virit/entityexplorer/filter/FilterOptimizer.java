@@ -0,0 +1,328 @@
+package in.virit.entityexplorer.filter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Rewrites a filter tree into an equivalent, simpler one before it is turned
+ * into SQL, so that the database sees flat, sargable conditions instead of
+ * the tree the user happened to click together:
+ * <ul>
+ *     <li>NOT is pushed down to the leaves with De Morgan's laws, and negated
+ *     comparisons are replaced by their complement ({@code not x > 1} becomes
+ *     {@code x <= 1})</li>
+ *     <li>nested groups of the same logic and single-child groups are
+ *     flattened, incomplete conditions and empty groups are dropped</li>
+ *     <li>repeated conditions are removed</li>
+ *     <li>OR'ed equalities on one property become an IN list, AND'ed
+ *     inequalities a NOT IN list</li>
+ *     <li>simple contradictions ({@code x is null and x > 1}) and
+ *     tautologies ({@code x is null or x is not null}) are folded</li>
+ * </ul>
+ * All rewrites hold in SQL's three-valued logic, so NULLs match exactly as
+ * with the original tree. The input tree is not modified.
+ */
+public final class FilterOptimizer {
+
+    private FilterOptimizer() {
+    }
+
+    private sealed interface Term permits Leaf, Junction, Constant {
+    }
+
+    private record Leaf(FilterCondition condition) implements Term {
+
+        String path() {
+            return condition.getProperty().path();
+        }
+
+        FilterOperator operator() {
+            return condition.getOperator();
+        }
+
+        boolean negated() {
+            return condition.isNegated();
+        }
+
+        Object key() {
+            return Arrays.asList(path(), operator(), normalized(condition.getValue()), negated());
+        }
+    }
+
+    private record Junction(FilterGroup.Logic logic, List<Term> terms) implements Term {
+    }
+
+    /**
+     * A subtree that is always true or always false. A false one keeps the
+     * conditions that contradict each other, to express it in the tree.
+     */
+    private record Constant(boolean value, List<FilterCondition> witness) implements Term {
+    }
+
+    /**
+     * @return an optimized copy of the group; an empty group if it filters
+     * nothing out
+     */
+    public static FilterGroup optimize(FilterGroup group) {
+        Term term = toTerm(group, false);
+        return switch (term) {
+            case null -> new FilterGroup();
+            case Junction junction -> toGroup(junction);
+            case Leaf leaf -> wrap(FilterGroup.Logic.AND, List.of(leaf.condition()));
+            case Constant constant -> wrap(FilterGroup.Logic.AND, constant.witness());
+        };
+    }
+
+    private static FilterGroup wrap(FilterGroup.Logic logic, List<? extends FilterNode> children) {
+        FilterGroup group = new FilterGroup();
+        group.setLogic(logic);
+        children.forEach(group::add);
+        return group;
+    }
+
+    private static FilterGroup toGroup(Junction junction) {
+        FilterGroup group = new FilterGroup();
+        group.setLogic(junction.logic());
+        for (Term term : junction.terms()) {
+            group.add(switch (term) {
+                case Junction nested -> toGroup(nested);
+                case Leaf leaf -> leaf.condition();
+                // folded away by junction()
+                case Constant constant -> throw new IllegalStateException();
+            });
+        }
+        return group;
+    }
+
+    /**
+     * @return the term of the node, with {@code negate} pushed into it, or
+     * {@code null} if the node has no complete conditions
+     */
+    private static Term toTerm(FilterNode node, boolean negate) {
+        return switch (node) {
+            case FilterGroup group -> {
+                boolean negated = negate != group.isNegated();
+                FilterGroup.Logic logic = negated ? flip(group.getLogic()) : group.getLogic();
+                List<Term> terms = new ArrayList<>();
+                for (FilterNode child : group.getChildren()) {
+                    Term term = toTerm(child, negated);
+                    if (term != null) {
+                        terms.add(term);
+                    }
+                }
+                yield terms.isEmpty() ? null : junction(logic, terms);
+            }
+            case FilterCondition condition -> condition.isComplete() ? leaf(condition, negate) : null;
+        };
+    }
+
+    private static Leaf leaf(FilterCondition condition, boolean negate) {
+        boolean negated = negate != condition.isNegated();
+        FilterOperator operator = condition.getOperator();
+        FilterOperator complement = negated ? complement(operator) : null;
+        Object value = operator == FilterOperator.IN
+                ? ((Collection<?>) condition.getValue()).stream()
+                        .map(v -> FilterPredicateBuilder.convert(v, condition.getProperty().javaType()))
+                        .toList()
+                : FilterPredicateBuilder.convert(condition.getValue(), condition.getProperty().javaType());
+        if (complement != null) {
+            return new Leaf(condition(condition.getProperty(), complement, value, false));
+        }
+        return new Leaf(condition(condition.getProperty(), operator, value, negated));
+    }
+
+    private static FilterCondition condition(FilterProperty property, FilterOperator operator, Object value,
+            boolean negated) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operator);
+        condition.setValue(operator.requiresValue() ? value : null);
+        condition.setNegated(negated);
+        return condition;
+    }
+
+    /**
+     * @return the operator matching exactly the rows the negated operator
+     * matches (three-valued logic: both are unknown for NULL), or
+     * {@code null} if there is none
+     */
+    private static FilterOperator complement(FilterOperator operator) {
+        return switch (operator) {
+            case EQUALS -> FilterOperator.NOT_EQUALS;
+            case NOT_EQUALS -> FilterOperator.EQUALS;
+            case GT -> FilterOperator.LTE;
+            case GTE -> FilterOperator.LT;
+            case LT -> FilterOperator.GTE;
+            case LTE -> FilterOperator.GT;
+            case IS_TRUE -> FilterOperator.IS_FALSE;
+            case IS_FALSE -> FilterOperator.IS_TRUE;
+            case IS_NULL -> FilterOperator.IS_NOT_NULL;
+            case IS_NOT_NULL -> FilterOperator.IS_NULL;
+            case CONTAINS, STARTS_WITH, IS_EMPTY, IN -> null;
+        };
+    }
+
+    private static FilterGroup.Logic flip(FilterGroup.Logic logic) {
+        return logic == FilterGroup.Logic.AND ? FilterGroup.Logic.OR : FilterGroup.Logic.AND;
+    }
+
+    /**
+     * Builds a simplified junction of the terms.
+     */
+    private static Term junction(FilterGroup.Logic logic, List<Term> terms) {
+        boolean and = logic == FilterGroup.Logic.AND;
+        List<Term> flat = new ArrayList<>();
+        Constant dropped = null;
+        for (Term term : terms) {
+            switch (term) {
+                case Junction nested when nested.logic() == logic -> flat.addAll(nested.terms());
+                case Constant constant -> {
+                    if (constant.value() != and) {
+                        // false in AND, true in OR decides the junction
+                        return constant;
+                    }
+                    dropped = constant;
+                }
+                default -> flat.add(term);
+            }
+        }
+
+        // dedupe leaves, keeping the first occurrence
+        Set<Object> keys = new LinkedHashSet<>();
+        flat.removeIf(term -> term instanceof Leaf leaf && !keys.add(leaf.key()));
+
+        Constant folded = and ? contradiction(flat) : tautology(flat);
+        if (folded != null) {
+            return folded;
+        }
+        flat = mergeEqualities(flat, and);
+
+        if (flat.isEmpty()) {
+            return dropped;
+        }
+        return flat.size() == 1 ? flat.getFirst() : new Junction(logic, List.copyOf(flat));
+    }
+
+    /**
+     * Merges {@code x = a or x = b} into {@code x in (a, b)}, and
+     * {@code x <> a and x <> b} into {@code not x in (a, b)}.
+     */
+    private static List<Term> mergeEqualities(List<Term> terms, boolean and) {
+        Map<String, List<Leaf>> byPath = new LinkedHashMap<>();
+        for (Term term : terms) {
+            if (term instanceof Leaf leaf && mergeable(leaf, and)) {
+                byPath.computeIfAbsent(leaf.path(), p -> new ArrayList<>()).add(leaf);
+            }
+        }
+        List<Term> merged = new ArrayList<>();
+        for (Term term : terms) {
+            if (!(term instanceof Leaf leaf) || !mergeable(leaf, and)) {
+                merged.add(term);
+                continue;
+            }
+            List<Leaf> leaves = byPath.remove(leaf.path());
+            if (leaves == null) {
+                // already merged into the first leaf of its property
+                continue;
+            }
+            if (leaves.size() == 1) {
+                merged.add(leaf);
+                continue;
+            }
+            Map<Object, Object> values = new LinkedHashMap<>();
+            for (Leaf l : leaves) {
+                Object value = l.condition().getValue();
+                Collection<?> collection = l.operator() == FilterOperator.IN ? (Collection<?>) value : List.of(value);
+                collection.forEach(v -> values.putIfAbsent(normalized(v), v));
+            }
+            FilterProperty property = leaf.condition().getProperty();
+            merged.add(values.size() == 1
+                    ? new Leaf(condition(property, and ? FilterOperator.NOT_EQUALS : FilterOperator.EQUALS,
+                            values.values().iterator().next(), false))
+                    : new Leaf(condition(property, FilterOperator.IN, List.copyOf(values.values()), and)));
+        }
+        return merged;
+    }
+
+    private static boolean mergeable(Leaf leaf, boolean and) {
+        if (and) {
+            return leaf.operator() == FilterOperator.NOT_EQUALS && !leaf.negated()
+                    || leaf.operator() == FilterOperator.IN && leaf.negated();
+        }
+        return leaf.operator() == FilterOperator.EQUALS && !leaf.negated()
+                || leaf.operator() == FilterOperator.IN && !leaf.negated();
+    }
+
+    /**
+     * @return a false constant if two AND'ed leaves can't both match
+     */
+    private static Constant contradiction(List<Term> terms) {
+        List<Leaf> leaves = leaves(terms);
+        for (Leaf a : leaves) {
+            for (Leaf b : leaves) {
+                if (a != b && a.path().equals(b.path()) && contradict(a, b)) {
+                    return new Constant(false, List.of(a.condition(), b.condition()));
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean contradict(Leaf a, Leaf b) {
+        if (a.operator() == FilterOperator.IS_NULL && !a.negated()) {
+            // any other condition is false or unknown for NULL
+            return b.operator() != FilterOperator.IS_NULL && b.operator() != FilterOperator.IS_EMPTY;
+        }
+        if (a.negated() || b.negated()) {
+            return false;
+        }
+        return a.operator() == FilterOperator.IS_TRUE && b.operator() == FilterOperator.IS_FALSE
+                || a.operator() == FilterOperator.EQUALS && b.operator() == FilterOperator.EQUALS
+                && !Objects.equals(normalized(a.condition().getValue()), normalized(b.condition().getValue()));
+    }
+
+    /**
+     * @return a true constant if two OR'ed leaves together match every row
+     */
+    private static Constant tautology(List<Term> terms) {
+        List<Leaf> leaves = leaves(terms);
+        for (Leaf a : leaves) {
+            for (Leaf b : leaves) {
+                if (a.path().equals(b.path()) && !a.negated() && !b.negated()
+                        && a.operator() == FilterOperator.IS_NULL && b.operator() == FilterOperator.IS_NOT_NULL) {
+                    return new Constant(true, List.of());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Leaf> leaves(List<Term> terms) {
+        List<Leaf> leaves = new ArrayList<>();
+        for (Term term : terms) {
+            if (term instanceof Leaf leaf) {
+                leaves.add(leaf);
+            }
+        }
+        return leaves;
+    }
+
+    /** Makes equal numbers of different scale equal, e.g. 1.0 and 1.00. */
+    private static Object normalized(Object value) {
+        if (value instanceof BigDecimal bd) {
+            return bd.signum() == 0 ? BigDecimal.ZERO : bd.stripTrailingZeros();
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().map(FilterOptimizer::normalized).toList();
+        }
+        return value;
+    }
+}
@@ -9,11 +9,14 @@ import jakarta.persistence.criteria.Root;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Turns a {@link FilterGroup} tree into a JPA Criteria {@link Predicate}.
  * Incomplete conditions and (effectively) empty groups are silently skipped.
+ * The tree is simplified with {@link FilterOptimizer} first.
  */
 public final class FilterPredicateBuilder {
 
@@ -25,10 +28,14 @@ public final class FilterPredicateBuilder {
      * contains no complete conditions (meaning: no filtering)
      */
     public static Predicate toPredicate(FilterGroup group, Root<?> root, CriteriaBuilder cb) {
+        return groupPredicate(FilterOptimizer.optimize(group), root, cb);
+    }
+
+    private static Predicate groupPredicate(FilterGroup group, Root<?> root, CriteriaBuilder cb) {
         List<Predicate> predicates = new ArrayList<>();
         for (FilterNode child : group.getChildren()) {
             Predicate predicate = switch (child) {
-                case FilterGroup nested -> toPredicate(nested, root, cb);
+                case FilterGroup nested -> groupPredicate(nested, root, cb);
                 case FilterCondition condition ->
                     condition.isComplete() ? toPredicate(condition, root, cb) : null;
             };
@@ -51,7 +58,9 @@ public final class FilterPredicateBuilder {
         Path<?> path = resolvePath(root, condition.getProperty().path());
         // Convert the UI-provided value to the attribute's exact java type
         // before use; comparison correctness relies on this.
-        Object value = convert(condition.getValue(), path.getJavaType());
+        Object value = condition.getOperator() == FilterOperator.IN
+                ? ((Collection<?>) condition.getValue()).stream().map(v -> convert(v, path.getJavaType())).toList()
+                : convert(condition.getValue(), path.getJavaType());
 
         Predicate predicate = switch (condition.getOperator()) {
             case EQUALS -> cb.equal(path, value);
@@ -68,6 +77,7 @@ public final class FilterPredicateBuilder {
             case IS_NULL -> cb.isNull(path);
             case IS_NOT_NULL -> cb.isNotNull(path);
             case IS_EMPTY -> cb.or(cb.isNull(path), cb.equal((Expression<String>) path, ""));
+            case IN -> path.in((Collection<?>) value);
         };
         return condition.isNegated() ? cb.not(predicate) : predicate;
     }
@@ -83,7 +93,7 @@ public final class FilterPredicateBuilder {
     @SuppressWarnings("unchecked")
     private static Predicate like(CriteriaBuilder cb, Path<?> path, String pattern) {
         // case-insensitive
-        return cb.like(cb.lower((Expression<String>) path), pattern.toLowerCase(), '\\');
+        return cb.like(cb.lower((Expression<String>) path), pattern.toLowerCase(Locale.ROOT), '\\');
     }
 
     /** Escapes LIKE wildcards so user input is always matched literally. */
@@ -96,7 +106,7 @@ public final class FilterPredicateBuilder {
      * conversions are routed through BigDecimal so that e.g. a Double from a
      * number field can filter a long attribute.
      */
-    private static Object convert(Object value, Class<?> target) {
+    static Object convert(Object value, Class<?> target) {
         if (value == null) {
             return null;
         }
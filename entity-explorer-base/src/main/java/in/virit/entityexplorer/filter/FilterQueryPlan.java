@@ -0,0 +1,118 @@
+package in.virit.entityexplorer.filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link FilterGroup} compiled once into a JPQL where clause with typed
+ * bind values. Unlike a {@link FilterSpecification}, which must rebuild its
+ * criteria objects for every query, a plan is plain data: it can be executed
+ * with any EntityManager and any number of times, and page fetches only bind
+ * the values and the page range. Groups of the same structure compile to the
+ * same JPQL, so Hibernate's query plan cache and the database's statement
+ * cache are shared by all filters of that shape.
+ * <p>
+ * The group is simplified with {@link FilterOptimizer} and the values are
+ * converted to the attribute types on compilation, exactly as
+ * {@link FilterPredicateBuilder} does. The group is compiled as it is at
+ * that moment; compile a snapshot ({@link FilterGroup#copy()}).
+ *
+ * @param where      the where clause using {@code alias}, empty for no
+ *                   filtering
+ * @param parameters the bind values by parameter name
+ */
+public record FilterQueryPlan(String where, Map<String, Object> parameters) {
+
+    private static final String PARAMETER_PREFIX = "f";
+    private static final Pattern PATH = Pattern.compile("[\\p{L}_$][\\p{L}\\p{N}_$]*(\\.[\\p{L}_$][\\p{L}\\p{N}_$]*)*");
+
+    public FilterQueryPlan {
+        parameters = Map.copyOf(parameters);
+    }
+
+    /**
+     * Compiles the group into a where clause.
+     *
+     * @param alias the identification variable of the filtered entity in the
+     *              query the plan is used in
+     * @throws IllegalArgumentException if a property path is not a plain
+     *                                  attribute path
+     */
+    public static FilterQueryPlan compile(FilterGroup group, String alias) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String where = compileGroup(FilterOptimizer.optimize(group), alias, parameters);
+        return new FilterQueryPlan(where == null ? "" : where, parameters);
+    }
+
+    public boolean isEmpty() {
+        return where.isEmpty();
+    }
+
+    private static String compileGroup(FilterGroup group, String alias, Map<String, Object> parameters) {
+        List<String> clauses = new ArrayList<>();
+        for (FilterNode child : group.getChildren()) {
+            String clause = switch (child) {
+                case FilterGroup nested -> compileGroup(nested, alias, parameters);
+                case FilterCondition condition ->
+                    condition.isComplete() ? compileCondition(condition, alias, parameters) : null;
+            };
+            if (clause != null) {
+                clauses.add(clause);
+            }
+        }
+        if (clauses.isEmpty()) {
+            return null;
+        }
+        String combined = "(" + String.join(group.getLogic() == FilterGroup.Logic.AND ? " and " : " or ", clauses) + ")";
+        return group.isNegated() ? "not " + combined : combined;
+    }
+
+    private static String compileCondition(FilterCondition condition, String alias, Map<String, Object> parameters) {
+        FilterProperty property = condition.getProperty();
+        if (!PATH.matcher(property.path()).matches()) {
+            throw new IllegalArgumentException("Not an attribute path: " + property.path());
+        }
+        String path = alias + "." + property.path();
+        Object value = condition.getOperator() == FilterOperator.IN
+                ? ((Collection<?>) condition.getValue()).stream()
+                        .map(v -> FilterPredicateBuilder.convert(v, property.javaType())).toList()
+                : FilterPredicateBuilder.convert(condition.getValue(), property.javaType());
+
+        String clause = switch (condition.getOperator()) {
+            case EQUALS -> path + " = " + bind(parameters, value);
+            // Plain SQL semantics: NULL rows don't match != (IS_NULL exists for those)
+            case NOT_EQUALS -> path + " <> " + bind(parameters, value);
+            case CONTAINS -> like(path, parameters, "%" + FilterPredicateBuilder.escapeLike(String.valueOf(value)) + "%");
+            case STARTS_WITH -> like(path, parameters, FilterPredicateBuilder.escapeLike(String.valueOf(value)) + "%");
+            case GT -> path + " > " + bind(parameters, value);
+            case GTE -> path + " >= " + bind(parameters, value);
+            case LT -> path + " < " + bind(parameters, value);
+            case LTE -> path + " <= " + bind(parameters, value);
+            case IS_TRUE -> path + " = true";
+            case IS_FALSE -> path + " = false";
+            case IS_NULL -> path + " is null";
+            case IS_NOT_NULL -> path + " is not null";
+            case IS_EMPTY -> "(" + path + " is null or " + path + " = '')";
+            case IN -> path + " in " + bind(parameters, value);
+        };
+        return condition.isNegated() ? "not (" + clause + ")" : clause;
+    }
+
+    private static String like(String path, Map<String, Object> parameters, String pattern) {
+        // case-insensitive, as in FilterPredicateBuilder; the escape character
+        // is bound too, as backslashes start escape sequences in HQL literals
+        return "lower(" + path + ") like " + bind(parameters, pattern.toLowerCase(Locale.ROOT))
+                + " escape " + bind(parameters, '\\');
+    }
+
+    private static String bind(Map<String, Object> parameters, Object value) {
+        String name = PARAMETER_PREFIX + parameters.size();
+        parameters.put(name, value);
+        return ":" + name;
+    }
+}
@@ -0,0 +1,194 @@
+package in.virit.entityexplorer.filter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Compiles a {@link FilterGroup} into a plain {@link Predicate}, to filter
+ * entities that are already in memory (cached pages, small tables loaded
+ * once) without a database round trip. It is the in-memory counterpart of
+ * {@link FilterPredicateBuilder} and follows the same semantics as the SQL
+ * it generates:
+ * <ul>
+ *     <li>three-valued logic: a comparison with NULL is unknown, NOT of
+ *     unknown stays unknown, and only rows evaluating to true match, so e.g.
+ *     NULL rows don't match != (use IS_NULL for those)</li>
+ *     <li>CONTAINS and STARTS_WITH are case-insensitive and match the value
+ *     literally (wildcards are escaped in SQL)</li>
+ *     <li>IS_EMPTY matches NULL and the empty string</li>
+ *     <li>numbers compare by value, e.g. 1.0 equals 1.00</li>
+ * </ul>
+ * Ordering comparisons of strings use Java's ordering, which may differ from
+ * the database collation. The tree is optimized with {@link FilterOptimizer}
+ * and the operand values converted once on compilation; attribute values are
+ * read with the generated {@link PropertyAccessors}, not with per-row
+ * reflection.
+ */
+public final class InMemoryFilter {
+
+    private InMemoryFilter() {
+    }
+
+    /** A condition in three-valued logic: TRUE, FALSE or null (unknown). */
+    @FunctionalInterface
+    private interface Condition {
+        Boolean test(Object entity);
+    }
+
+    /**
+     * Compiles the group, as it is now, into a predicate.
+     *
+     * @param type the entity class the predicate is used with
+     * @throws IllegalArgumentException if a property path can't be read from
+     *                                  the class
+     */
+    public static <T> Predicate<T> compile(FilterGroup group, Class<T> type) {
+        Condition condition = compileGroup(FilterOptimizer.optimize(group), type);
+        if (condition == null) {
+            return entity -> true;
+        }
+        return entity -> Boolean.TRUE.equals(condition.test(entity));
+    }
+
+    private static Condition compileGroup(FilterGroup group, Class<?> type) {
+        List<Condition> conditions = new ArrayList<>();
+        for (FilterNode child : group.getChildren()) {
+            Condition condition = switch (child) {
+                case FilterGroup nested -> compileGroup(nested, type);
+                case FilterCondition leaf -> leaf.isComplete() ? compileCondition(leaf, type) : null;
+            };
+            if (condition != null) {
+                conditions.add(condition);
+            }
+        }
+        if (conditions.isEmpty()) {
+            return null;
+        }
+        Condition[] parts = conditions.toArray(Condition[]::new);
+        Condition combined = group.getLogic() == FilterGroup.Logic.AND ? and(parts) : or(parts);
+        return group.isNegated() ? not(combined) : combined;
+    }
+
+    private static Condition and(Condition[] parts) {
+        return entity -> {
+            Boolean result = Boolean.TRUE;
+            for (Condition part : parts) {
+                Boolean value = part.test(entity);
+                if (Boolean.FALSE.equals(value)) {
+                    return Boolean.FALSE;
+                } else if (value == null) {
+                    result = null;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static Condition or(Condition[] parts) {
+        return entity -> {
+            Boolean result = Boolean.FALSE;
+            for (Condition part : parts) {
+                Boolean value = part.test(entity);
+                if (Boolean.TRUE.equals(value)) {
+                    return Boolean.TRUE;
+                } else if (value == null) {
+                    result = null;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static Condition not(Condition condition) {
+        return entity -> {
+            Boolean value = condition.test(entity);
+            return value == null ? null : !value;
+        };
+    }
+
+    /**
+     * Builds a comparator ordering entities as the database listings do:
+     * NULLs first in ascending and last in descending order. Equal rows keep
+     * their order, so sort a list ordered by id to get the listings' id
+     * tie-breaker. Strings use Java's ordering and enums their declaration
+     * order, which may differ from the database collation or enum mapping.
+     *
+     * @throws IllegalArgumentException if a property path can't be read from
+     *                                  the class
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Comparator<T> comparator(Class<T> type, List<CriteriaListing.PropertySort> sorts) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (CriteriaListing.PropertySort sort : sorts) {
+            Function<Object, Object> accessor = PropertyAccessors.forPath(type, sort.path());
+            Comparator<Object> values = Comparator.nullsFirst((a, b) -> ((Comparable) a).compareTo(b));
+            Comparator<T> byProperty = (a, b) -> values.compare(accessor.apply(a), accessor.apply(b));
+            comparator = comparator.thenComparing(sort.ascending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Condition compileCondition(FilterCondition condition, Class<?> type) {
+        Function<Object, Object> accessor = PropertyAccessors.forPath(type, condition.getProperty().path());
+        Class<?> javaType = condition.getProperty().javaType();
+        Object value = condition.getOperator() == FilterOperator.IN
+                ? ((Collection<?>) condition.getValue()).stream()
+                        .map(v -> FilterPredicateBuilder.convert(v, javaType)).toList()
+                : FilterPredicateBuilder.convert(condition.getValue(), javaType);
+
+        Condition compiled = switch (condition.getOperator()) {
+            case EQUALS -> comparing(accessor, actual -> same(actual, value));
+            case NOT_EQUALS -> comparing(accessor, actual -> !same(actual, value));
+            case CONTAINS -> {
+                String needle = String.valueOf(value).toLowerCase(Locale.ROOT);
+                yield comparing(accessor, actual -> actual.toString().toLowerCase(Locale.ROOT).contains(needle));
+            }
+            case STARTS_WITH -> {
+                String prefix = String.valueOf(value).toLowerCase(Locale.ROOT);
+                yield comparing(accessor, actual -> actual.toString().toLowerCase(Locale.ROOT).startsWith(prefix));
+            }
+            case GT -> comparing(accessor, actual -> ((Comparable) actual).compareTo(value) > 0);
+            case GTE -> comparing(accessor, actual -> ((Comparable) actual).compareTo(value) >= 0);
+            case LT -> comparing(accessor, actual -> ((Comparable) actual).compareTo(value) < 0);
+            case LTE -> comparing(accessor, actual -> ((Comparable) actual).compareTo(value) <= 0);
+            case IS_TRUE -> comparing(accessor, Boolean.TRUE::equals);
+            case IS_FALSE -> comparing(accessor, Boolean.FALSE::equals);
+            case IS_NULL -> entity -> accessor.apply(entity) == null;
+            case IS_NOT_NULL -> entity -> accessor.apply(entity) != null;
+            case IS_EMPTY -> entity -> {
+                Object actual = accessor.apply(entity);
+                return actual == null || actual.toString().isEmpty();
+            };
+            case IN -> {
+                List<?> values = (List<?>) value;
+                yield comparing(accessor, actual -> values.stream().anyMatch(v -> same(actual, v)));
+            }
+        };
+        return condition.isNegated() ? not(compiled) : compiled;
+    }
+
+    /**
+     * @return a condition that is unknown for NULL values, as comparisons
+     * with NULL are in SQL
+     */
+    private static Condition comparing(Function<Object, Object> accessor, Predicate<Object> test) {
+        return entity -> {
+            Object actual = accessor.apply(entity);
+            return actual == null ? null : test.test(actual);
+        };
+    }
+
+    private static boolean same(Object actual, Object value) {
+        if (actual instanceof BigDecimal a && value instanceof BigDecimal b) {
+            return a.compareTo(b) == 0;
+        }
+        return actual.equals(value);
+    }
+}
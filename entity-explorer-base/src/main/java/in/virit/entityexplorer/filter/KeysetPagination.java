@@ -0,0 +1,203 @@
+package in.virit.entityexplorer.filter;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keyset ("seek") pagination state for one listing. Instead of making the
+ * database scan and discard {@code offset} rows for every page, the listing
+ * remembers the sort key tuple of the last row of each fetched page and asks
+ * for rows <em>after</em> that tuple. Deep pages then cost the same as the
+ * first one.
+ * <p>
+ * The entity id is always appended to the ordering as a tie-breaker, so the
+ * key tuple identifies a row uniquely. NULL sort values are ordered as the
+ * smallest value (nulls first ascending, last descending) in both the
+ * ordering and the seek predicate, which keeps the two consistent regardless
+ * of the database's default null ordering.
+ * <p>
+ * A page request is served from the closest remembered boundary at or before
+ * its offset; only the rows between the boundary and the offset are skipped
+ * with a plain offset. Random jumps with no earlier boundary fall back to
+ * offset paging. Boundaries are forgotten whenever the ordering changes; a
+ * new instance should be used when the filter changes.
+ */
+public final class KeysetPagination {
+
+    /** Caps the memory used for boundaries in very long browsing sessions. */
+    private static final int MAX_BOUNDARIES = 1000;
+
+    private final String idPath;
+    private final TreeMap<Integer, List<Object>> boundaries = new TreeMap<>();
+    private List<PropertySort> boundaryOrder = List.of();
+
+    /**
+     * A remembered page boundary: the key values of the row just before
+     * {@code offset}.
+     */
+    public record Boundary(int offset, List<Object> values) {
+    }
+
+    /**
+     * @param idPath the name of the (single, basic typed) id attribute used as
+     *               the tie-breaker
+     */
+    public KeysetPagination(String idPath) {
+        this.idPath = idPath;
+    }
+
+    /**
+     * @return keyset pagination for the entity type, or {@code null} if the
+     * type has no single basic id attribute to use as a tie-breaker (e.g.
+     * composite or embedded ids), in which case offset paging should be used
+     */
+    public static KeysetPagination forEntity(EntityType<?> entityType) {
+        if (!entityType.hasSingleIdAttribute()) {
+            return null;
+        }
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            if (attribute.isId()) {
+                return attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC
+                        ? new KeysetPagination(attribute.getName())
+                        : null;
+            }
+        }
+        return null;
+    }
+
+    public String getIdPath() {
+        return idPath;
+    }
+
+    /**
+     * @return the given sorts with the id appended as a tie-breaker (unless it
+     * is already sorted by). This is the ordering the listing must use.
+     */
+    public List<PropertySort> keyOrder(List<PropertySort> sorts) {
+        if (sorts.stream().anyMatch(s -> s.path().equals(idPath))) {
+            return sorts;
+        }
+        List<PropertySort> keyOrder = new ArrayList<>(sorts);
+        keyOrder.add(new PropertySort(idPath, true));
+        return keyOrder;
+    }
+
+    /**
+     * @return the closest remembered boundary at or before the offset, or
+     * {@code null} if the page must be fetched with a plain offset
+     */
+    public synchronized Boundary seek(List<PropertySort> keyOrder, int offset) {
+        if (!keyOrder.equals(boundaryOrder)) {
+            boundaries.clear();
+            boundaryOrder = List.copyOf(keyOrder);
+        }
+        if (offset == 0) {
+            return null;
+        }
+        Map.Entry<Integer, List<Object>> entry = boundaries.floorEntry(offset);
+        return entry == null ? null : new Boundary(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * Remembers the key values of the last row of a fetched page, so the page
+     * starting at {@code nextOffset} can be fetched with a seek.
+     */
+    public synchronized void record(List<PropertySort> keyOrder, int nextOffset, List<Object> lastRowValues) {
+        if (!keyOrder.equals(boundaryOrder)) {
+            // ordering changed while the page was fetched, stale
+            return;
+        }
+        if (boundaries.size() >= MAX_BOUNDARIES) {
+            boundaries.clear();
+        }
+        boundaries.put(nextOffset, List.copyOf(lastRowValues));
+    }
+
+    /**
+     * Builds the criteria predicate matching rows after the boundary values
+     * in the given key order, i.e. the expanded form of
+     * {@code (k1, k2, id) > (?, ?, ?)} that also works for mixed directions
+     * and NULL values.
+     */
+    public Predicate toPredicate(Root<?> root, CriteriaBuilder cb, List<PropertySort> keyOrder, List<Object> values) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
+        for (int i = 0; i < keyOrder.size(); i++) {
+            PropertySort sort = keyOrder.get(i);
+            Path<?> path = CriteriaListing.resolvePath(root, sort.path());
+            Object value = values.get(i);
+            Predicate after = after(cb, path, sort.ascending(), value);
+            if (after != null) {
+                List<Predicate> alternative = new ArrayList<>(equalPrefix);
+                alternative.add(after);
+                alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            }
+            equalPrefix.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Path<?> path, boolean ascending, Object value) {
+        if (value == null) {
+            // nulls are the smallest value: only non-nulls follow ascending,
+            // nothing follows descending
+            return ascending ? cb.isNotNull(path) : null;
+        }
+        Expression<Comparable> comparable = (Expression<Comparable>) path;
+        return ascending
+                ? cb.greaterThan(comparable, (Comparable) value)
+                : cb.or(cb.lessThan(comparable, (Comparable) value), cb.isNull(path));
+    }
+
+    /**
+     * JPQL version of {@link #toPredicate}. Boundary values are bound as named
+     * parameters ({@code k0}, {@code k1}, ...) which are added to
+     * {@code parameters}.
+     *
+     * @param alias the identification variable of the entity in the query
+     */
+    public String toJpql(String alias, List<PropertySort> keyOrder, List<Object> values, Map<String, Object> parameters) {
+        List<String> alternatives = new ArrayList<>();
+        List<String> equalPrefix = new ArrayList<>();
+        for (int i = 0; i < keyOrder.size(); i++) {
+            PropertySort sort = keyOrder.get(i);
+            String path = alias + "." + sort.path();
+            Object value = values.get(i);
+            String param = ":k" + i;
+            if (value != null) {
+                parameters.put("k" + i, value);
+            }
+            String after;
+            if (value == null) {
+                after = sort.ascending() ? path + " is not null" : null;
+            } else {
+                after = sort.ascending()
+                        ? path + " > " + param
+                        : "(" + path + " < " + param + " or " + path + " is null)";
+            }
+            if (after != null) {
+                List<String> alternative = new ArrayList<>(equalPrefix);
+                alternative.add(after);
+                alternatives.add("(" + String.join(" and ", alternative) + ")");
+            }
+            equalPrefix.add(value == null ? path + " is null" : path + " = " + param);
+        }
+        if (alternatives.isEmpty()) {
+            // only possible with descending null keys only, nothing can follow
+            return "1 = 0";
+        }
+        return "(" + String.join(" or ", alternatives) + ")";
+    }
+}
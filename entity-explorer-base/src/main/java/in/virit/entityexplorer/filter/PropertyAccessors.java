@@ -0,0 +1,135 @@
+package in.virit.entityexplorer.filter;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Creates fast property getters for entity classes: bean getters bound once
+ * through {@link LambdaMetafactory}, so reading a value is a plain (and
+ * inlinable) interface call instead of reflection, or direct field access if
+ * there is no getter. Accessors are created once per class and property and
+ * shared by the whole application, e.g. by grid cells and
+ * {@link InMemoryFilter}.
+ */
+public final class PropertyAccessors {
+
+    /** Accessors by class and property. */
+    private static final ClassValue<Map<String, Function<Object, Object>>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Map<String, Function<Object, Object>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private PropertyAccessors() {
+    }
+
+    /**
+     * @return a function reading the (dot separated) property path, NULL if
+     * an intermediate value (e.g. an embeddable) is NULL
+     * @throws IllegalArgumentException if a property can't be read from the
+     *                                  class
+     */
+    public static Function<Object, Object> forPath(Class<?> type, String path) {
+        Function<Object, Object> accessor = null;
+        Class<?> current = type;
+        for (String name : path.split("\\.")) {
+            Class<?> owner = current;
+            Function<Object, Object> part = ACCESSORS.get(owner)
+                    .computeIfAbsent(name, n -> propertyAccessor(owner, n));
+            current = propertyType(owner, name);
+            if (accessor == null) {
+                accessor = part;
+            } else {
+                Function<Object, Object> parent = accessor;
+                accessor = entity -> {
+                    Object value = parent.apply(entity);
+                    return value == null ? null : part.apply(value);
+                };
+            }
+        }
+        return accessor;
+    }
+
+    private static Class<?> propertyType(Class<?> owner, String name) {
+        Method getter = getter(owner, name);
+        if (getter != null) {
+            return getter.getReturnType();
+        }
+        return field(owner, name).getType();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> propertyAccessor(Class<?> owner, String name) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            Method getter = getter(owner, name);
+            MethodHandle handle;
+            if (getter != null) {
+                handle = lookup.unreflect(getter);
+                try {
+                    CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                            MethodType.methodType(Function.class),
+                            MethodType.methodType(Object.class, Object.class),
+                            handle,
+                            MethodType.methodType(wrap(getter.getReturnType()), getter.getDeclaringClass()));
+                    return (Function<Object, Object>) site.getTarget().invokeExact();
+                } catch (LambdaConversionException e) {
+                    // e.g. the entity is in a module we can't define classes
+                    // in, invoke the handle instead
+                }
+            } else {
+                handle = lookup.unreflectGetter(field(owner, name));
+            }
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return entity -> {
+                try {
+                    return generic.invokeExact(entity);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Failed to read " + name, e);
+                }
+            };
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Can't read " + name + " of " + owner.getName(), e);
+        }
+    }
+
+    private static Method getter(Class<?> owner, String name) {
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method method = owner.getMethod(prefix + suffix);
+                if (method.getReturnType() != void.class) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next prefix
+            }
+        }
+        return null;
+    }
+
+    private static Field field(Class<?> owner, String name) {
+        for (Class<?> c = owner; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // try the superclass
+            }
+        }
+        throw new IllegalArgumentException("No property " + name + " in " + owner.getName());
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
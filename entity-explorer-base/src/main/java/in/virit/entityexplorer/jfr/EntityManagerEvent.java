@@ -0,0 +1,24 @@
+package in.virit.entityexplorer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The lifetime of an entity manager opened by the explorer, from creation
+ * until it is closed, so long-lived persistence contexts stand out.
+ */
+@Name("in.virit.entityexplorer.EntityManager")
+@Label("Entity Manager")
+@Category("Entity Explorer")
+@Description("An explorer entity manager, from creation until closed")
+@StackTrace(false)
+public class EntityManagerEvent extends Event {
+
+    @Label("Statements")
+    @Description("SQL statements run through the entity manager")
+    public long statements;
+}
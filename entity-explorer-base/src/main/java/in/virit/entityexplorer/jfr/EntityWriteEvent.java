@@ -0,0 +1,30 @@
+package in.virit.entityexplorer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An entity saved (merged) or deleted by the explorer UI, including the
+ * transaction commit.
+ */
+@Name("in.virit.entityexplorer.EntityWrite")
+@Label("Entity Write")
+@Category("Entity Explorer")
+@Description("An entity saved or deleted in a transaction")
+public class EntityWriteEvent extends Event {
+
+    @Label("Entity")
+    public String entityName;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Failed")
+    public boolean failed;
+
+    @Label("Statements")
+    public long statements;
+}
@@ -0,0 +1,26 @@
+package in.virit.entityexplorer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A filter of a listing compiled into a query predicate.
+ */
+@Name("in.virit.entityexplorer.FilterBuild")
+@Label("Filter Build")
+@Category("Entity Explorer")
+@Description("A listing filter compiled into a query predicate")
+@StackTrace(false)
+public class FilterBuildEvent extends Event {
+
+    @Label("Entity")
+    public String entityName;
+
+    @Label("Kind")
+    @Description("jpql for the quick filter, visual for the filter builder")
+    public String kind;
+}
@@ -0,0 +1,36 @@
+package in.virit.entityexplorer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A listing page loaded from the database, on the UI thread or ahead of time
+ * on a read-ahead thread. Pages served from a cache are not recorded.
+ */
+@Name("in.virit.entityexplorer.PageFetch")
+@Label("Page Fetch")
+@Category("Entity Explorer")
+@Description("A listing page loaded from the database")
+@StackTrace(false)
+public class PageFetchEvent extends Event {
+
+    @Label("Entity")
+    public String entityName;
+
+    @Label("Offset")
+    public int offset;
+
+    @Label("Limit")
+    public int limit;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Statements")
+    @Description("SQL statements run while loading the page")
+    public long statements;
+}
@@ -0,0 +1,31 @@
+package in.virit.entityexplorer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The cells of the rows fetched for one response rendered, from the end of
+ * the first page fetch until the response is written. Lazy loads while
+ * reading cell values show up as statements.
+ */
+@Name("in.virit.entityexplorer.Render")
+@Label("Cell Rendering")
+@Category("Entity Explorer")
+@Description("Cells of fetched listing rows rendered for a response")
+@StackTrace(false)
+public class RenderEvent extends Event {
+
+    @Label("Entity")
+    public String entityName;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Statements")
+    @Description("SQL statements run while rendering, e.g. lazy loads")
+    public long statements;
+}
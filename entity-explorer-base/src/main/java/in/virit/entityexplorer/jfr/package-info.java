@@ -0,0 +1,8 @@
+/**
+ * Java Flight Recorder events of the explorer's hot paths, so its database
+ * work can be correlated with GC, lock and I/O events in recordings. The
+ * events are in the "Entity Explorer" category and carry the entity name and
+ * the number of SQL statements run where applicable. Like all JFR events,
+ * they cost next to nothing unless enabled in the recording settings.
+ */
+package in.virit.entityexplorer.jfr;
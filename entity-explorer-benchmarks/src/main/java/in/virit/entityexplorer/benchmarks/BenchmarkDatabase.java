@@ -0,0 +1,122 @@
+package in.virit.entityexplorer.benchmarks;
+
+import in.virit.entityexplorerit.Address;
+import in.virit.entityexplorerit.ContactMethod;
+import in.virit.entityexplorerit.Customer;
+import in.virit.entityexplorerit.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceConfiguration;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An in-memory H2 database with the test module's {@link Customer} and
+ * {@link Person} entities, scaled up with generated rows. The rows are
+ * generated from a fixed seed, so every run measures the same data.
+ */
+final class BenchmarkDatabase {
+
+    private static final List<String> CITIES = List.of("Berlin", "Hamburg", "Munich", "Cologne", "Frankfurt",
+            "Stuttgart", "Dusseldorf", "Leipzig", "Dortmund", "Essen", "Bremen", "Dresden", "Hanover");
+    private static final List<String> INDUSTRIES = List.of("Manufacturing", "Logistics", "Medical", "Software",
+            "Retail", "Energy", "Consulting", "Foods", "Textiles", "Insurance");
+    private static final List<String> NAMES = List.of("Acme", "Zenith", "Nordlicht", "Blau", "Falke", "Eiche",
+            "Rhein", "Alpen", "Stern", "Hansa", "Kranich", "Linde");
+    private static final int BATCH_SIZE = 500;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Opens the database, named after the row counts, filling it on first
+     * use: benchmarks with the same parameters in one JVM share the filled
+     * database. The benchmarks only read, so the rows stay as generated.
+     */
+    static EntityManagerFactory create(int customers, int persons) {
+        EntityManagerFactory emf = new PersistenceConfiguration("benchmark")
+                .managedClass(Customer.class)
+                .managedClass(Person.class)
+                .property(PersistenceConfiguration.JDBC_URL,
+                        "jdbc:h2:mem:benchmark" + customers + "_" + persons + ";DB_CLOSE_DELAY=-1")
+                .property(PersistenceConfiguration.JDBC_USER, "sa")
+                .property(PersistenceConfiguration.JDBC_PASSWORD, "")
+                // keeps the tables and rows of an earlier trial
+                .property("hibernate.hbm2ddl.auto", "update")
+                .property("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE))
+                .property("hibernate.order_inserts", "true")
+                .createEntityManagerFactory();
+        try (EntityManager em = emf.createEntityManager()) {
+            if (em.createQuery("select count(c) from Customer c", Long.class).getSingleResult() > 0
+                    || em.createQuery("select count(p) from Person p", Long.class).getSingleResult() > 0) {
+                // filled by an earlier trial in this JVM
+                return emf;
+            }
+            Random random = new Random(42);
+            em.getTransaction().begin();
+            for (int i = 0; i < customers; i++) {
+                em.persist(customer(random, i));
+                if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            Person previous = null;
+            for (int i = 0; i < persons; i++) {
+                Person person = person(random, previous);
+                em.persist(person);
+                previous = person;
+                if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+                    em.flush();
+                    em.clear();
+                    // the friend must be managed (or detached with an id) for the next batch
+                    previous = em.getReference(Person.class, em.getEntityManagerFactory()
+                            .getPersistenceUnitUtil().getIdentifier(person));
+                }
+            }
+            em.getTransaction().commit();
+        }
+        return emf;
+    }
+
+    private static Customer customer(Random random, int i) {
+        String city = pick(random, CITIES);
+        Customer customer = new Customer();
+        customer.setCompanyName(pick(random, NAMES) + " " + pick(random, INDUSTRIES) + " " + city);
+        customer.setContactName("Contact " + i);
+        customer.setActive(random.nextInt(10) < 7);
+        customer.setAnnualRevenue(BigDecimal.valueOf(random.nextInt(50_000) * 1_000L, 2));
+        customer.setCreditScore(random.nextInt(101));
+        customer.setCustomerSince(LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9000)));
+        customer.setLastOrderDate(random.nextInt(10) == 0 ? null
+                : LocalDate.of(2020, 1, 1).plusDays(random.nextInt(2000)));
+        customer.setEmail("contact" + i + "@example.com");
+        customer.setPhone("+49 30 " + (1_000_000 + random.nextInt(9_000_000)));
+        Address address = new Address();
+        address.setStreet("Hauptstrasse");
+        address.setHouseNumber(String.valueOf(1 + random.nextInt(200)));
+        address.setPostalCode(String.valueOf(10_000 + random.nextInt(90_000)));
+        address.setCity(city);
+        address.setCountry("Germany");
+        address.setCountryCode("DE");
+        customer.setAddress(address);
+        return customer;
+    }
+
+    private static Person person(Random random, Person friend) {
+        Person person = new Person();
+        person.setFirstName(random.nextInt(20) == 0 ? null : pick(random, NAMES));
+        person.setLastName(pick(random, CITIES));
+        person.setPreferredContactMethod(random.nextInt(5) == 0 ? null
+                : ContactMethod.values()[random.nextInt(ContactMethod.values().length)]);
+        person.setFriend(friend);
+        return person;
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,81 @@
+package in.virit.entityexplorer.benchmarks;
+
+import in.virit.entityexplorer.filter.PropertyAccessors;
+import in.virit.entityexplorerit.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Extracting the cell values of a rendered page of 50 customers, as the grid
+ * does for each shown column: with the generated {@link PropertyAccessors}
+ * the grid uses, and with plain reflection as the baseline. The columns are
+ * a string attribute, a numeric one, an embedded path and a computed getter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CellValueBenchmark {
+
+    @Param({"companyName", "creditScore", "address.city", "creditRating"})
+    String column;
+
+    private List<Customer> page;
+    private Function<Object, Object> accessor;
+    private Method[] getters;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        EntityManagerFactory emf = BenchmarkDatabase.create(50, 0);
+        try (EntityManager em = emf.createEntityManager()) {
+            page = em.createQuery("select c from Customer c order by c.id", Customer.class).getResultList();
+        }
+        emf.close();
+        accessor = PropertyAccessors.forPath(Customer.class, column);
+        String[] path = column.split("\\.");
+        getters = new Method[path.length];
+        Class<?> type = Customer.class;
+        for (int i = 0; i < path.length; i++) {
+            getters[i] = type.getMethod("get" + Character.toUpperCase(path[i].charAt(0)) + path[i].substring(1));
+            type = getters[i].getReturnType();
+        }
+    }
+
+    @Benchmark
+    public void generatedAccessor(Blackhole blackhole) {
+        for (Customer customer : page) {
+            blackhole.consume(String.valueOf(accessor.apply(customer)));
+        }
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) throws ReflectiveOperationException {
+        for (Customer customer : page) {
+            Object value = customer;
+            for (Method getter : getters) {
+                value = value == null ? null : getter.invoke(value);
+            }
+            blackhole.consume(String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package in.virit.entityexplorer.benchmarks;
+
+import in.virit.entityexplorer.filter.FilterCondition;
+import in.virit.entityexplorer.filter.FilterGroup;
+import in.virit.entityexplorer.filter.FilterOperator;
+import in.virit.entityexplorer.filter.FilterPredicateBuilder;
+import in.virit.entityexplorer.filter.FilterProperty;
+import in.virit.entityexplorer.filter.FilterQueryPlan;
+import in.virit.entityexplorerit.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building filters: discovering the filterable properties of an entity, and
+ * turning a filter tree into a Criteria predicate (the
+ * {@link FilterPredicateBuilder} API) or a JPQL plan (what the grid uses).
+ * The trees are nested AND/OR groups with NOTs, {@code depth} levels deep
+ * with three children per group, generated from a fixed seed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({"1", "3", "5"})
+    int depth;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private EntityType<Customer> entityType;
+    private FilterGroup tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // no rows needed, only the metamodel and a CriteriaBuilder
+        emf = BenchmarkDatabase.create(0, 0);
+        em = emf.createEntityManager();
+        entityType = emf.getMetamodel().entity(Customer.class);
+        tree = randomGroup(new Random(depth), FilterProperty.listFor(entityType), depth);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public List<FilterProperty> listProperties() {
+        return FilterProperty.listFor(entityType);
+    }
+
+    @Benchmark
+    public Predicate toPredicate() {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        Root<Customer> root = cb.createQuery(Customer.class).from(Customer.class);
+        return FilterPredicateBuilder.toPredicate(tree, root, cb);
+    }
+
+    @Benchmark
+    public FilterQueryPlan compilePlan() {
+        return FilterQueryPlan.compile(tree, "e");
+    }
+
+    private static FilterGroup randomGroup(Random random, List<FilterProperty> properties, int depth) {
+        FilterGroup group = new FilterGroup();
+        group.setLogic(random.nextBoolean() ? FilterGroup.Logic.AND : FilterGroup.Logic.OR);
+        group.setNegated(random.nextInt(4) == 0);
+        for (int i = 0; i < 3; i++) {
+            group.add(depth > 1 && i < 2
+                    ? randomGroup(random, properties, depth - 1)
+                    : randomCondition(random, properties));
+        }
+        return group;
+    }
+
+    private static FilterCondition randomCondition(Random random, List<FilterProperty> properties) {
+        FilterProperty property = properties.get(random.nextInt(properties.size()));
+        List<FilterOperator> operators = FilterOperator.forProperty(property);
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operators.get(random.nextInt(operators.size())));
+        condition.setValue(value(random, property.javaType()));
+        condition.setNegated(random.nextInt(4) == 0);
+        return condition;
+    }
+
+    private static Object value(Random random, Class<?> type) {
+        if (type == String.class) {
+            return "Berlin";
+        } else if (type == int.class || type == Integer.class) {
+            return random.nextInt(101);
+        } else if (type == long.class || type == Long.class) {
+            return (long) random.nextInt(101);
+        } else if (type == BigDecimal.class) {
+            return BigDecimal.valueOf(random.nextInt(50) * 10_000L);
+        } else if (type == LocalDate.class) {
+            return LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9000));
+        } else if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants[random.nextInt(constants.length)];
+        }
+        return null;
+    }
+}
@@ -0,0 +1,101 @@
+package in.virit.entityexplorer.benchmarks;
+
+import in.virit.entityexplorer.filter.CriteriaListing;
+import in.virit.entityexplorer.filter.FilterSpecification;
+import in.virit.entityexplorer.filter.KeysetPagination;
+import in.virit.entityexplorerit.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetching a grid page of 50 active customers (about 70% of the rows) with
+ * {@link CriteriaListing#fetch} from a table of {@code rows} generated ones, at different offsets and sort
+ * orders, with plain offset paging and with keyset pagination. The keyset
+ * variant seeks from the previous page's boundary, as when scrolling; it is
+ * primed by fetching the previous page in the invocation setup.
+ * <p>
+ * Each invocation uses a cleared persistence context, as the grid does in
+ * its managed read mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"100000"})
+    int rows;
+
+    @Param({"0", "1000", "60000"})
+    int offset;
+
+    /** Sort orders, comma separated paths, "-" prefix for descending. */
+    @Param({"", "companyName", "-creditScore,address.city"})
+    String sort;
+
+    /** Only active customers, as a typical filter. */
+    private static final FilterSpecification<Customer> ACTIVE = (root, cb) -> cb.isTrue(root.get("active"));
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private List<CriteriaListing.PropertySort> sorts;
+    private KeysetPagination keyset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkDatabase.create(rows, 0);
+        em = emf.createEntityManager();
+        sorts = sort.isEmpty() ? List.of() : Arrays.stream(sort.split(","))
+                .map(path -> path.startsWith("-")
+                        ? new CriteriaListing.PropertySort(path.substring(1), false)
+                        : new CriteriaListing.PropertySort(path, true))
+                .toList();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareInvocation() {
+        keyset = KeysetPagination.forEntity(emf.getMetamodel().entity(Customer.class));
+        if (offset >= PAGE_SIZE) {
+            // the page before, with plain offset paging, to remember its boundary
+            CriteriaListing.fetch(em, Customer.class, ACTIVE, sorts, keyset, offset - PAGE_SIZE, PAGE_SIZE);
+        }
+        em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Customer> offsetPaging() {
+        return CriteriaListing.fetch(em, Customer.class, ACTIVE, sorts, offset, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Customer> keysetPaging() {
+        return CriteriaListing.fetch(em, Customer.class, ACTIVE, sorts, keyset, offset, PAGE_SIZE);
+    }
+}
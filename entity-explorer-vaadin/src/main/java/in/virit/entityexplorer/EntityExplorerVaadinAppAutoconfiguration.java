@@ -3,6 +3,7 @@ package in.virit.entityexplorer;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.notification.Notification;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.event.EventListener;
 
 import com.vaadin.flow.router.RouteConfiguration;
@@ -11,6 +12,7 @@ import com.vaadin.flow.server.ServiceInitEvent;
 import org.jboss.logging.Logger;
 
 @AutoConfiguration
+@Import({ExplorerMetricsConfiguration.class, DataGeneratorConfiguration.class})
 public class EntityExplorerVaadinAppAutoconfiguration {
 
     @EventListener
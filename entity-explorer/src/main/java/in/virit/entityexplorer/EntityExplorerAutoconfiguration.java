@@ -14,7 +14,6 @@ import com.vaadin.flow.shared.ui.Transport;
 import com.vaadin.flow.spring.SpringBootAutoConfiguration;
 import com.vaadin.flow.spring.SpringServlet;
 import com.vaadin.flow.spring.VaadinConfigurationProperties;
-import com.vaadin.flow.theme.lumo.Lumo;
 import jakarta.servlet.MultipartConfigElement;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,12 +26,11 @@ import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.event.EventListener;
 import org.springframework.web.context.WebApplicationContext;
 import org.vaadin.firitin.util.VStyleUtil;
 
-import java.io.IOException;
-import java.io.InputStream;
 
 import static com.vaadin.flow.spring.SpringBootAutoConfiguration.configureServletRegistrationBean;
 
@@ -42,6 +40,7 @@ import static com.vaadin.flow.spring.SpringBootAutoConfiguration.configureServle
 @AutoConfiguration
 @AutoConfigureBefore(SpringBootAutoConfiguration.class)
 @AutoConfigurationPackage
+@Import({ExplorerMetricsConfiguration.class, DataGeneratorConfiguration.class})
 public class EntityExplorerAutoconfiguration {
 
     @Autowired
@@ -56,24 +55,16 @@ public class EntityExplorerAutoconfiguration {
         configuration.setRoute("entityeditor", EntityEditorView.class, TopLayout.class);
         configuration.setRoute("entityexplorer", EntityExplorer.class, TopLayout.class);
 
-        evt.getSource().addUIInitListener(uiInitEvent -> {
-            try {
-                InputStream resourceAsStream = Lumo.class.getResourceAsStream("/META-INF/resources/lumo/lumo.css");
-                String lumocss = new String(resourceAsStream.readAllBytes());
-                InputStream utility = Lumo.class.getResourceAsStream("/META-INF/resources/lumo/utility.css");
-                lumocss = lumocss + " \n " + new String(utility.readAllBytes());
-                uiInitEvent.getUI().getElement().executeJs("""
-                    var style = document.createElement('style');
-                    style.innerHTML = $0;
-                    document.head.insertBefore(style, document.head.firstChild);
-                """, lumocss);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-            // TODO WTF
-            //uiInitEvent.getUI().getPage().addStyleSheet("/entityexplorer/"+Lumo.STYLESHEET);
-            //uiInitEvent.getUI().getPage().addStyleSheet("/entityexplorer/"+Lumo.UTILITY_STYLESHEET);
-        });
+        // served and cached by the LumoStylesheetServlet, not read per UI. Linked as
+        // the first child of head, so that all other styles still override Lumo.
+        String lumoStylesheet = context.getServletContext().getContextPath() + "/"
+                + context.getBean(LumoStylesheetServlet.class).getPath();
+        evt.getSource().addUIInitListener(uiInitEvent -> uiInitEvent.getUI().getElement().executeJs("""
+                var link = document.createElement('link');
+                link.rel = 'stylesheet';
+                link.href = $0;
+                document.head.insertBefore(link, document.head.firstChild);
+            """, lumoStylesheet));
 
         // Better error handling, e.g. with Grid & error in lazy loading from backend
         evt.getSource().addSessionInitListener(e -> {
@@ -93,6 +84,17 @@ public class EntityExplorerAutoconfiguration {
         return new OverriddenSpringServlet(context);
     }
 
+    @Bean
+    public LumoStylesheetServlet lumoStylesheetServlet() {
+        return new LumoStylesheetServlet();
+    }
+
+    @Bean
+    public ServletRegistrationBean<LumoStylesheetServlet> lumoStylesheetServletRegistrationBean(
+            LumoStylesheetServlet lumoStylesheetServlet) {
+        return new ServletRegistrationBean<>(lumoStylesheetServlet, LumoStylesheetServlet.MAPPING);
+    }
+
     @Push(transport = Transport.WEBSOCKET)
     public static class MyVaadinAppShell implements AppShellConfigurator {
         @Override
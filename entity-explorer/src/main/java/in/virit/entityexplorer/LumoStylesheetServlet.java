@@ -0,0 +1,109 @@
+package in.virit.entityexplorer;
+
+import com.vaadin.flow.theme.lumo.Lumo;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves Lumo's {@code lumo.css} and {@code utility.css} as one stylesheet.
+ * The stylesheet and its gzipped variant are built once at startup; the URL
+ * contains a hash of the content, so browsers cache it for a year and repeat
+ * visits don't request it at all. Revalidation with the ETag answers 304; the
+ * gzipped variant has its own ETag, as its bytes differ.
+ */
+public class LumoStylesheetServlet extends HttpServlet {
+
+    /** Mapped before the Vaadin servlet's {@code /entityexplorer/*}. */
+    public static final String MAPPING = "/entityexplorer/styles/*";
+
+    private final byte[] css;
+    private final byte[] gzippedCss;
+    private final String hash;
+    private final String etag;
+    private final String gzipEtag;
+
+    public LumoStylesheetServlet() {
+        css = (read("/META-INF/resources/lumo/lumo.css") + " \n " + read("/META-INF/resources/lumo/utility.css"))
+                .getBytes(StandardCharsets.UTF_8);
+        gzippedCss = gzip(css);
+        hash = sha256(css).substring(0, 16);
+        etag = "\"" + hash + "\"";
+        gzipEtag = "\"" + hash + "-gzip\"";
+    }
+
+    /**
+     * @return the stylesheet's path below the context root, changes with the
+     * content
+     */
+    public String getPath() {
+        return "entityexplorer/styles/lumo-" + hash + ".css";
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!("/lumo-" + hash + ".css").equals(request.getPathInfo())) {
+            // e.g. an old version, must not be cached for a year
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        boolean gzipped = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String variantEtag = gzipped ? gzipEtag : etag;
+        response.setHeader("Cache-Control", "public, max-age=31536000, immutable");
+        response.setHeader("ETag", variantEtag);
+        response.setHeader("Vary", "Accept-Encoding");
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && (ifNoneMatch.contains(variantEtag) || ifNoneMatch.equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType("text/css;charset=UTF-8");
+        byte[] body = css;
+        if (gzipped) {
+            response.setHeader("Content-Encoding", "gzip");
+            body = gzippedCss;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String read(String resource) {
+        try (InputStream in = Lumo.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException(resource + " not found");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
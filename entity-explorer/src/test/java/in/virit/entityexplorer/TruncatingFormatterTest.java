@@ -0,0 +1,36 @@
+package in.virit.entityexplorer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link TruncatingFormatter}, in the package of the package-private
+ * formatter.
+ */
+public class TruncatingFormatterTest {
+
+    private final TruncatingFormatter formatter = new TruncatingFormatter(5);
+
+    @Test
+    void shortStringsAreReturnedAsTheyAre() {
+        String value = "abcde";
+        assertSame(value, formatter.format(value));
+        assertEquals("", formatter.format(""));
+    }
+
+    @Test
+    void longValuesAreCutWithAnEllipsis() {
+        assertEquals("abcde...", formatter.format("abcdefgh"));
+        assertEquals("abcde...", formatter.format(new StringBuilder("abcdefgh")));
+        assertEquals("abc", formatter.format(new StringBuilder("abc")));
+    }
+
+    @Test
+    void otherValuesAreFormattedAsStrings() {
+        assertEquals("12345...", formatter.format(123456789));
+        assertEquals("42", formatter.format(42));
+        assertEquals("null", formatter.format(null));
+    }
+}
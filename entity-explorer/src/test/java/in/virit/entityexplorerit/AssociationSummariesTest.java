@@ -0,0 +1,73 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.AssociationSummaries;
+import in.virit.entityexplorer.data.AssociationSummaries.Summary;
+import in.virit.entityexplorer.data.MetamodelIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link AssociationSummaries}: label attribute heuristics, batch
+ * loading and caching of summaries (customerdata.sql, Customer ids 1-100),
+ * and targets without a single id attribute.
+ */
+@SpringBootTest
+public class AssociationSummariesTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private AssociationSummaries summaries() {
+        return new AssociationSummaries(emf, new MetamodelIndex(emf.getMetamodel()));
+    }
+
+    @Test
+    void choosesNameLikeLabelAttribute() {
+        AssociationSummaries summaries = summaries();
+        assertEquals("companyName", summaries.getLabelAttribute(emf.getMetamodel().entity(Customer.class)));
+        assertEquals("firstName", summaries.getLabelAttribute(emf.getMetamodel().entity(Person.class)));
+
+        summaries.setLabelAttribute("Customer", "email");
+        assertEquals("email", summaries.getLabelAttribute(emf.getMetamodel().entity(Customer.class)));
+    }
+
+    @Test
+    void loadsAndCachesSummariesOfMany() {
+        AssociationSummaries summaries = summaries();
+        EntityType<Customer> customer = emf.getMetamodel().entity(Customer.class);
+        Map<Object, Summary> loaded = summaries.summarize(customer, List.of(1L, 2L, 3L, 1_000_000L));
+        assertEquals(3, loaded.size(), "missing ids are left out");
+        try (EntityManager em = emf.createEntityManager()) {
+            assertEquals(em.find(Customer.class, 2L).getCompanyName(), loaded.get(2L).label());
+        }
+
+        // served from the cache until invalidated
+        assertEquals(loaded.get(1L), summaries.summarize(customer, 1L));
+        summaries.setLabelAttribute("Customer", "email");
+        assertEquals(1L, summaries.summarize(customer, 1L).id());
+        try (EntityManager em = emf.createEntityManager()) {
+            assertEquals(em.find(Customer.class, 1L).getEmail(), summaries.summarize(customer, 1L).label());
+        }
+        assertNull(summaries.summarize(customer, 1_000_000L));
+    }
+
+    @Test
+    void compositeIdTargetsAreNotSummarized() {
+        EntityType<Warehouse> warehouse = emf.getMetamodel().entity(Warehouse.class);
+        assertFalse(AssociationSummaries.canSummarize(warehouse));
+        assertTrue(AssociationSummaries.canSummarize(emf.getMetamodel().entity(Customer.class)));
+        assertTrue(summaries().summarize(warehouse, List.of(new WarehouseId("EU", "HAM"))).isEmpty());
+    }
+}
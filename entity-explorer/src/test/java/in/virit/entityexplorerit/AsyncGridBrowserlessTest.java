@@ -0,0 +1,162 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.customfield.CustomField;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridTester;
+import com.vaadin.flow.shared.communication.PushMode;
+import in.virit.entityexplorer.EntityEditorView;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import in.virit.entityexplorer.JpaEntityGrid;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Browserless tests for the asynchronous page loading of the entity grid:
+ * placeholder rows until the page has loaded, then the real rows, with no
+ * queries on the UI thread, and the relation picker of the editor ignoring
+ * placeholders. The in-memory listing is disabled, as small tables don't load
+ * pages at all.
+ */
+@SpringBootTest
+public class AsyncGridBrowserlessTest {
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void showsPlaceholdersUntilThePageHasLoaded() throws InterruptedException {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            UI.getCurrent().getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+            ui.navigate(EntityExplorer.class, "Customer");
+            JpaEntityGrid<Object> component = (JpaEntityGrid<Object>) ui.findGrid(Object.class).component();
+            component.setInMemoryThreshold(0);
+            component.setAsyncLoading(true);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+
+            Object placeholder = grid.getRow(0);
+            assertTrue(component.isPlaceholder(placeholder));
+            awaitRealRow(component, grid);
+            Customer first = assertInstanceOf(Customer.class, grid.getRow(0));
+            assertEquals(1L, first.getId());
+        }
+    }
+
+    @Test
+    void loadsAssociationSummariesOffTheUiThread() throws InterruptedException {
+        Person friend = new Person();
+        friend.setFirstName("Friend");
+        Person listed = new Person();
+        listed.setFirstName("Listed");
+        listed.setFriend(friend);
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.persist(friend);
+            em.persist(listed);
+            em.getTransaction().commit();
+        }
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            UI.getCurrent().getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+            ui.navigate(EntityExplorer.class, "Person");
+            JpaEntityGrid<Object> component = (JpaEntityGrid<Object>) ui.findGrid(Object.class).component();
+            component.setInMemoryThreshold(0);
+            component.setAsyncLoading(true);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+
+            assertTrue(component.isPlaceholder(grid.getRow(0)));
+            // the test thread is the UI thread
+            long statementsBefore = component.getStatementLog().getThreadStatementCount();
+            awaitRealRow(component, grid);
+            assertEquals(statementsBefore, component.getStatementLog().getThreadStatementCount(),
+                    "the friend summaries were loaded with the page");
+        } finally {
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                em.createQuery("update Person set friend = null").executeUpdate();
+                em.createQuery("delete from Person").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
+    @Test
+    void pickerIgnoresPlaceholderSelection() throws InterruptedException {
+        Person edited = new Person();
+        edited.setFirstName("Edited");
+        Person friend = new Person();
+        friend.setFirstName("Friend");
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.persist(edited);
+            em.persist(friend);
+            em.getTransaction().commit();
+        }
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            UI.getCurrent().getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+            EntityEditorView editor = ui.navigate(EntityEditorView.class);
+            editor.editEntity(edited);
+            CustomField<?> friendField = descendants(editor)
+                    .filter(CustomField.class::isInstance)
+                    .map(CustomField.class::cast)
+                    .findFirst().orElseThrow();
+            descendants(editor)
+                    .filter(Button.class::isInstance)
+                    .map(Button.class::cast)
+                    .filter(button -> button.getTooltip() != null
+                            && "Pick a new value...".equals(button.getTooltip().getText()))
+                    .findFirst().orElseThrow()
+                    .click();
+
+            JpaEntityGrid<Object> picker = (JpaEntityGrid<Object>) ui.findGrid(Object.class).component();
+            picker.setInMemoryThreshold(0);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+            Object placeholder = grid.getRow(0);
+            assertTrue(picker.isPlaceholder(placeholder));
+            picker.select(placeholder);
+            assertNull(friendField.getValue(), "a placeholder was picked");
+
+            awaitRealRow(picker, grid);
+            picker.select(grid.getRow(0));
+            Person picked = assertInstanceOf(Person.class, friendField.getValue());
+            assertEquals("Edited", picked.getFirstName());
+        } finally {
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                em.createQuery("update Person set friend = null").executeUpdate();
+                em.createQuery("delete from Person").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
+    private static void awaitRealRow(JpaEntityGrid<Object> component, GridTester<Grid<Object>, Object> grid)
+            throws InterruptedException {
+        PendingUiTasks.runUntil(() -> !component.isPlaceholder(grid.getRow(0)), "page not loaded");
+    }
+
+    private static Stream<Component> descendants(Component component) {
+        return Stream.concat(Stream.of(component), component.getChildren().flatMap(AsyncGridBrowserlessTest::descendants));
+    }
+}
@@ -0,0 +1,119 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.AsyncPageLoader;
+import in.virit.entityexplorer.data.PagePrefetcher;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link AsyncPageLoader}, with a queue standing in for the UI
+ * thread (customerdata.sql, 100 Customer rows).
+ */
+@SpringBootTest
+public class AsyncPageLoaderTest {
+
+    private static final PagePrefetcher.PageLoader<Customer> CUSTOMERS = (em, offset, limit) ->
+            em.createQuery("select c from Customer c order by c.id", Customer.class)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .getResultList();
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private final BlockingQueue<Runnable> uiTasks = new LinkedBlockingQueue<>();
+    private final AtomicInteger loaded = new AtomicInteger();
+
+    private AsyncPageLoader<Customer> newLoader() {
+        return new AsyncPageLoader<>(emf::createEntityManager, uiTasks::add, page -> loaded.incrementAndGet());
+    }
+
+    /**
+     * Runs the UI tasks of the loads until the given number of pages has
+     * been delivered; cancelled loads queue tasks too.
+     */
+    private void awaitLoaded(int pages) throws InterruptedException {
+        while (loaded.get() < pages) {
+            Runnable task = uiTasks.poll(5, TimeUnit.SECONDS);
+            assertNotNull(task, "no page delivered");
+            task.run();
+        }
+    }
+
+    @Test
+    void servesPageOnceLoaded() throws InterruptedException {
+        AsyncPageLoader<Customer> loader = newLoader();
+        assertNull(loader.fetch("id", 0, 50, CUSTOMERS));
+        assertTrue(loader.isLoading());
+        awaitLoaded(1);
+
+        List<Customer> page = loader.fetch("id", 0, 50, CUSTOMERS);
+        assertEquals(50, page.size());
+        assertEquals(1L, page.getFirst().getId());
+        loader.releaseServed();
+    }
+
+    @Test
+    void cancelsLoadsScrolledAwayFrom() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowLoads = new CountDownLatch(2);
+        AtomicInteger interrupted = new AtomicInteger();
+        PagePrefetcher.PageLoader<Customer> slow = (em, offset, limit) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+                throw new IllegalStateException(e);
+            } finally {
+                slowLoads.countDown();
+            }
+            return CUSTOMERS.load(em, offset, limit);
+        };
+        AsyncPageLoader<Customer> loader = newLoader();
+        assertNull(loader.fetch("id", 0, 10, slow));
+        // the next page is kept, a page far away replaces both
+        assertNull(loader.fetch("id", 10, 10, slow));
+        assertEquals(0, loader.getCancelledLoads());
+        assertNull(loader.fetch("id", 80, 10, CUSTOMERS));
+        assertEquals(2, loader.getCancelledLoads());
+        release.countDown();
+
+        awaitLoaded(1);
+        assertEquals(10, loader.fetch("id", 80, 10, CUSTOMERS).size());
+        // cancelled loads run to completion, a JDBC connection must not be
+        // interrupted
+        assertTrue(slowLoads.await(5, TimeUnit.SECONDS));
+        assertEquals(0, interrupted.get());
+        loader.releaseServed();
+        // a different ordering is stale too
+        assertNull(loader.fetch("-id", 80, 10, CUSTOMERS));
+        loader.cancel();
+        assertFalse(loader.isLoading());
+    }
+
+    @Test
+    void failureIsThrownWhenThePageIsRequestedAgain() throws InterruptedException {
+        AsyncPageLoader<Customer> loader = newLoader();
+        PagePrefetcher.PageLoader<Customer> failing = (em, offset, limit) ->
+                em.createQuery("select c from Customer c where c.nonexisting = 1", Customer.class).getResultList();
+        assertNull(loader.fetch("id", 0, 50, failing));
+        awaitLoaded(1);
+        assertThrows(RuntimeException.class, () -> loader.fetch("id", 0, 50, failing));
+    }
+}
@@ -0,0 +1,326 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridTester;
+import com.vaadin.flow.data.provider.SortDirection;
+import in.virit.entityexplorer.EntityEditorView;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import in.virit.entityexplorer.JpaEntityGrid;
+import in.virit.entityexplorer.data.DataGenerator;
+import in.virit.entityexplorer.filter.FilterCondition;
+import in.virit.entityexplorer.filter.FilterGroup;
+import in.virit.entityexplorer.filter.FilterOperator;
+import in.virit.entityexplorer.filter.FilterProperty;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Load test: N concurrent browserless sessions open the Customer listing,
+ * scroll, sort, apply visual filters and edit rows, against generated
+ * Customer rows. Reports page latency percentiles, SQL statements per page,
+ * heap per session and open entity managers to
+ * {@code target/loadtest-report.json}, and fails if a threshold or the
+ * baseline of an earlier report is exceeded.
+ * <p>
+ * Only runs with the {@code load-test} profile:
+ * <pre>
+ * mvn -Pload-test test -Dloadtest.sessions=50 -Dloadtest.baseline=loadtest-baseline.json
+ * </pre>
+ * Settings (system properties, defaults in parentheses):
+ * {@code loadtest.sessions} (8), {@code loadtest.iterations} (5),
+ * {@code loadtest.rows} (20000), {@code loadtest.maxP50Millis} (250),
+ * {@code loadtest.maxP99Millis} (2000), {@code loadtest.maxStatementsPerPage}
+ * (10), {@code loadtest.maxHeapPerSessionMb} (50),
+ * {@code loadtest.maxEntityManagersPerSession} (5), {@code loadtest.baseline}
+ * (none) and {@code loadtest.tolerance} (0.25, the allowed increase over the
+ * baseline).
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class ExplorerLoadTest {
+
+    @TestConfiguration
+    static class Registry {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /**
+     * The measured values, also the format of the baseline.
+     */
+    record Report(int sessions, int iterations, long rows, double p50Millis, double p99Millis,
+            Map<String, Double> p99MillisByOperation, long statements, double statementsPerPage,
+            double heapPerSessionMb, int peakEntityManagers, int entityManagersAfter) {
+    }
+
+    private static final int SESSIONS = Integer.getInteger("loadtest.sessions", 8);
+    private static final int ITERATIONS = Integer.getInteger("loadtest.iterations", 5);
+    private static final int ROWS = Integer.getInteger("loadtest.rows", 20_000);
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong statements = new AtomicLong();
+    private final Set<Grid<?>> countedGrids = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+    @Test
+    void concurrentSessionsStayWithinLimits() throws Exception {
+        Long maxId;
+        try (EntityManager em = emf.createEntityManager()) {
+            maxId = em.createQuery("select max(c.id) from Customer c", Long.class).getSingleResult();
+            DataGeneratorTest.skipInsertedIds(em, maxId);
+        }
+        new DataGenerator(emf, 42).generate(emf.getMetamodel().entity(Customer.class), ROWS);
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            Gauge openEntityManagers = registry.find("entityexplorer.entitymanagers.open").gauge();
+            assertNotNull(openEntityManagers, "explorer metrics not installed");
+            long heapBefore = usedHeap();
+            AtomicLong peakEntityManagers = new AtomicLong();
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(
+                    () -> peakEntityManagers.accumulateAndGet((long) openEntityManagers.value(), Math::max),
+                    0, 10, TimeUnit.MILLISECONDS);
+
+            List<Future<?>> sessions = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(SESSIONS)) {
+                for (int i = 0; i < SESSIONS; i++) {
+                    Random random = new Random(i);
+                    sessions.add(executor.submit(() -> {
+                        BrowserlessUIContext ui;
+                        // the session's current instances belong to this thread
+                        synchronized (app) {
+                            ui = app.newUser().newWindow();
+                        }
+                        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                            browse(ui, random, iteration);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> session : sessions) {
+                    session.get();
+                }
+            }
+            sampler.shutdownNow();
+            // the sessions are still open
+            double heapPerSessionMb = (usedHeap() - heapBefore) / (double) SESSIONS / (1024 * 1024);
+            Report report = report(heapPerSessionMb, (int) peakEntityManagers.get(), (int) openEntityManagers.value());
+            File file = new File("target/loadtest-report.json");
+            file.getParentFile().mkdirs();
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+            Logger.getLogger(ExplorerLoadTest.class.getName()).log(Level.INFO, "Load test report ({0}): {1}",
+                    new Object[]{file, report});
+            assertWithinLimits(report);
+        } finally {
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                em.createQuery("delete from Customer c where c.id > :maxId")
+                        .setParameter("maxId", maxId)
+                        .executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
+    /**
+     * One round of an admin browsing the Customer listing.
+     */
+    private void browse(BrowserlessUIContext ui, Random random, int iteration) {
+        GridTester<Grid<Object>, Object> grid = timed("open", () -> {
+            ui.navigate(EntityExplorer.class, "Customer");
+            GridTester<Grid<Object>, Object> tester = grid(ui);
+            // the view is reused, drop the filter of the previous round
+            ((JpaEntityGrid<?>) ui.findGrid(Object.class).component()).filter(new FilterGroup());
+            tester.getRow(0);
+            return tester;
+        });
+        for (int i = 0; i < 3; i++) {
+            int row = random.nextInt(ROWS);
+            timed("scroll", () -> grid.getRow(row));
+        }
+        String column = List.of("companyName", "creditScore", "customerSince").get(random.nextInt(3));
+        SortDirection direction = random.nextBoolean() ? SortDirection.ASCENDING : SortDirection.DESCENDING;
+        timed("sort", () -> {
+            grid.sortByColumn(column, direction);
+            return grid.getRow(0);
+        });
+        int scrolledRow = random.nextInt(ROWS);
+        timed("scroll", () -> grid.getRow(scrolledRow));
+
+        FilterGroup filter = filter(random);
+        JpaEntityGrid<?> component = (JpaEntityGrid<?>) ui.findGrid(Object.class).component();
+        timed("filter", () -> {
+            component.filter(filter);
+            return grid.size() > 0 ? grid.getRow(0) : null;
+        });
+        if (iteration % 2 == 1 && grid.size() > 0) {
+            Object id = emf.getPersistenceUnitUtil().getIdentifier(grid.getRow(0));
+            timed("edit", () -> {
+                Customer customer;
+                try (EntityManager em = emf.createEntityManager()) {
+                    customer = em.find(Customer.class, id);
+                }
+                customer.setLastOrderDate(LocalDate.now());
+                ui.navigate(EntityEditorView.class).editEntity(customer);
+                ui.findButton().withText("Save").click();
+                // back in the listing, loaded again as the entity changed
+                return grid(ui).getRow(0);
+            });
+        }
+    }
+
+    private GridTester<Grid<Object>, Object> grid(BrowserlessUIContext ui) {
+        Grid<Object> component = ui.findGrid(Object.class).component();
+        // the view is reused when navigating to the same entity
+        if (countedGrids.add(component)) {
+            ((JpaEntityGrid<?>) component).getStatementLog().addListener(entry -> statements.incrementAndGet());
+        }
+        return ui.test(component);
+    }
+
+    private FilterGroup filter(Random random) {
+        FilterGroup group = new FilterGroup();
+        group.add(condition("active", FilterOperator.IS_TRUE, null));
+        group.add(condition("creditScore", FilterOperator.GTE, random.nextInt(100)));
+        if (random.nextBoolean()) {
+            group.add(condition("address.city", FilterOperator.EQUALS, "Berlin"));
+        }
+        return group;
+    }
+
+    private FilterCondition condition(String path, FilterOperator operator, Object value) {
+        FilterProperty property = FilterProperty.listFor(emf.getMetamodel().entity(Customer.class)).stream()
+                .filter(p -> p.path().equals(path))
+                .findFirst()
+                .orElseThrow();
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operator);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private <R> R timed(String operation, Supplier<R> work) {
+        long start = System.nanoTime();
+        R result = work.get();
+        latencies.computeIfAbsent(operation, o -> Collections.synchronizedList(new ArrayList<>()))
+                .add(System.nanoTime() - start);
+        return result;
+    }
+
+    private Report report(double heapPerSessionMb, int peakEntityManagers, int entityManagersAfter) {
+        List<Long> all = new ArrayList<>();
+        Map<String, Double> p99ByOperation = new LinkedHashMap<>();
+        latencies.forEach((operation, values) -> {
+            all.addAll(values);
+            p99ByOperation.put(operation, percentileMillis(values, 0.99));
+        });
+        return new Report(SESSIONS, ITERATIONS, ROWS, percentileMillis(all, 0.5), percentileMillis(all, 0.99),
+                p99ByOperation, statements.get(), (double) statements.get() / all.size(), heapPerSessionMb,
+                peakEntityManagers, entityManagersAfter);
+    }
+
+    private static double percentileMillis(List<Long> nanos, double percentile) {
+        List<Long> sorted;
+        synchronized (nanos) {
+            sorted = new ArrayList<>(nanos);
+        }
+        sorted.sort(null);
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000d;
+    }
+
+    private static void assertWithinLimits(Report report) {
+        List<String> failures = new ArrayList<>();
+        check(failures, "p50 page latency (ms)", report.p50Millis(), doubleSetting("loadtest.maxP50Millis", 250));
+        check(failures, "p99 page latency (ms)", report.p99Millis(), doubleSetting("loadtest.maxP99Millis", 2000));
+        check(failures, "statements per page", report.statementsPerPage(),
+                doubleSetting("loadtest.maxStatementsPerPage", 10));
+        check(failures, "heap per session (MB)", report.heapPerSessionMb(),
+                doubleSetting("loadtest.maxHeapPerSessionMb", 50));
+        check(failures, "peak entity managers per session", (double) report.peakEntityManagers() / report.sessions(),
+                doubleSetting("loadtest.maxEntityManagersPerSession", 5));
+
+        String baselineFile = System.getProperty("loadtest.baseline");
+        if (baselineFile != null) {
+            Report baseline = new ObjectMapper().readValue(new File(baselineFile), Report.class);
+            double allowed = 1 + doubleSetting("loadtest.tolerance", 0.25);
+            check(failures, "p99 page latency (ms) vs baseline", report.p99Millis(), baseline.p99Millis() * allowed);
+            check(failures, "statements per page vs baseline", report.statementsPerPage(),
+                    baseline.statementsPerPage() * allowed);
+            check(failures, "heap per session (MB) vs baseline", report.heapPerSessionMb(),
+                    baseline.heapPerSessionMb() * allowed);
+        }
+        if (!failures.isEmpty()) {
+            fail("Load test regressions:\n" + String.join("\n", failures));
+        }
+    }
+
+    private static void check(List<String> failures, String measure, double value, double limit) {
+        if (value > limit) {
+            failures.add(String.format("%s: %.2f, limit %.2f", measure, value, limit));
+        }
+    }
+
+    private static double doubleSetting(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
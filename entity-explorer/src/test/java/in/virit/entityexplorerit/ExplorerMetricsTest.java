@@ -0,0 +1,75 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridTester;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the explorer publishes its database activity to the
+ * application's Micrometer registry, when there is one (customerdata.sql,
+ * 69 active Customer rows).
+ */
+@SpringBootTest
+public class ExplorerMetricsTest {
+
+    @TestConfiguration
+    static class Registry {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void recordsFetchesFiltersEntityManagersAndPageCache() {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Customer");
+            // pages with computed columns are not shared through the page cache
+            ui.findGrid(Object.class).component().getColumnByKey("creditRating").setVisible(false);
+            // a JPQL filter is listed from the database, not in memory
+            ui.findTextField().withPlaceholderContaining("jqpl").setValue("active = true");
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+            assertEquals(69, grid.size());
+            grid.getRow(0);
+
+            Timer fetch = registry.find("entityexplorer.fetch").tag("entity", "Customer").timer();
+            assertNotNull(fetch);
+            assertTrue(fetch.count() > 0);
+            DistributionSummary rows = registry.find("entityexplorer.page.rows").tag("entity", "Customer").summary();
+            assertTrue(rows.max() > 0);
+            assertNotNull(registry.find("entityexplorer.filter.build").tag("entity", "Customer").timer());
+            Gauge open = registry.find("entityexplorer.entitymanagers.open").gauge();
+            assertTrue(open.value() > 0);
+            Gauge misses = registry.find("entityexplorer.pagecache.misses").gauge();
+            assertTrue(misses.value() > 0);
+            assertTrue(registry.find("entityexplorer.pagecache.size").gauge().value() > 0);
+            assertNotNull(registry.find("entityexplorer.pagecache.hits").gauge());
+        }
+    }
+}
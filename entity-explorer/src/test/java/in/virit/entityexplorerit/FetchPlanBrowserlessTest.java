@@ -0,0 +1,127 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import in.virit.entityexplorer.JpaEntityGrid;
+import in.virit.entityexplorer.data.StatementLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Browserless test for the fetch plan of the entity grid: rendering a page
+ * with a to-one and a collection column runs a bounded number of statements,
+ * not one or more per row, and to-one columns also render targets with a
+ * composite id.
+ */
+@SpringBootTest
+public class FetchPlanBrowserlessTest {
+
+    private static final int TEAMS = 20;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void pageWithAssociationColumnsRunsBoundedStatements() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            Person first = person(em, "Member");
+            Person second = person(em, "Other member");
+            for (int i = 0; i < TEAMS; i++) {
+                Team team = new Team();
+                team.setName("Team " + i);
+                // a lead of its own per team, each a row to load if not joined
+                team.setLead(person(em, "Lead " + i));
+                team.setMembers(List.of(first, second));
+                em.persist(team);
+            }
+            em.getTransaction().commit();
+        }
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Team");
+            JpaEntityGrid<Object> grid = (JpaEntityGrid<Object>) ui.findGrid(Object.class).component();
+            // only the statements of rendering the page itself
+            grid.setInMemoryThreshold(0);
+            grid.setPageCacheEnabled(false);
+            grid.setReadAheadPages(0);
+            StatementLog log = grid.getStatementLog();
+            log.clear();
+
+            grid.getDataCommunicator().setViewportRange(0, TEAMS);
+            grid.getUI().orElseThrow().getInternals().getStateTree().runExecutionsBeforeClientResponse();
+
+            List<StatementLog.Entry> statements = log.getEntries();
+            assertFalse(statements.isEmpty());
+            // the page query with the joined leads, one query initializing
+            // the members of the whole page, and some slack
+            assertTrue(statements.size() <= 4, statements.size() + " statements for " + TEAMS + " rows: "
+                    + statements.stream().map(StatementLog.Entry::sql).toList());
+        } finally {
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                em.createQuery("select t from Team t", Team.class).getResultList().forEach(em::remove);
+                em.flush();
+                em.createQuery("delete from Person").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
+    @Test
+    void rendersToOneColumnsOfCompositeIdTargets() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            Warehouse warehouse = new Warehouse();
+            warehouse.setRegion("EU");
+            warehouse.setCode("HAM");
+            warehouse.setName("Hamburg");
+            em.persist(warehouse);
+            Shipment shipment = new Shipment();
+            shipment.setDescription("Pallets");
+            shipment.setWarehouse(warehouse);
+            em.persist(shipment);
+            em.getTransaction().commit();
+        }
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Shipment");
+            JpaEntityGrid<Object> grid = (JpaEntityGrid<Object>) ui.findGrid(Object.class).component();
+            assertTrue(grid.getColumnByKey("warehouse").isVisible());
+
+            grid.getDataCommunicator().setViewportRange(0, 10);
+            grid.getUI().orElseThrow().getInternals().getStateTree().runExecutionsBeforeClientResponse();
+            Shipment shipment = (Shipment) ui.test(grid).getRow(0);
+            assertEquals("Hamburg", shipment.getWarehouse().getName());
+        } finally {
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                em.createQuery("delete from Shipment").executeUpdate();
+                em.createQuery("delete from Warehouse").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
+    private static Person person(EntityManager em, String firstName) {
+        Person person = new Person();
+        person.setFirstName(firstName);
+        em.persist(person);
+        return person;
+    }
+}
@@ -4,10 +4,12 @@ import com.vaadin.browserless.BrowserlessUIContext;
 import com.vaadin.browserless.SpringBrowserlessApplicationContext;
 import in.virit.entityexplorer.EntityExplorer;
 import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import in.virit.entityexplorer.JpaEntityGrid;
 import in.virit.entityexplorer.filter.FilterGroup;
 import in.virit.entityexplorer.filter.FilterOperator;
 import in.virit.entityexplorer.filter.FilterProperty;
-import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
@@ -18,6 +20,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
  * Browserless port of the visual filter builder scenarios (see
  * {@link FilterBuilderTest} for the real-browser variant): runs against the
  * server-side component tree in milliseconds, so it can afford more scenarios.
+ * Each scenario runs against the database and, with the table snapshot
+ * loaded, in memory.
  * <p>
  * Expected counts come from customerdata.sql: 100 customers, 18 in Berlin of
  * which 15 active, 31 inactive, 21 match
@@ -29,11 +33,13 @@ public class FilterBuilderBrowserlessTest {
     @Autowired
     ApplicationContext applicationContext;
 
-    @Test
-    void basicAndFlowBadgeAndJpqlExclusion() {
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void basicAndFlowBadgeAndJpqlExclusion(boolean inMemory) throws InterruptedException {
         try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
             BrowserlessUIContext ui = app.newUser().newWindow();
             ui.navigate(EntityExplorer.class, "Customer");
+            choosePath(ui, inMemory);
             assertEquals(100, gridSize(ui));
 
             // Build: address.city contains Berlin AND active is true
@@ -60,11 +66,13 @@ public class FilterBuilderBrowserlessTest {
         }
     }
 
-    @Test
-    void nestedGroupsAndNegation() {
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void nestedGroupsAndNegation(boolean inMemory) throws InterruptedException {
         try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
             BrowserlessUIContext ui = app.newUser().newWindow();
             ui.navigate(EntityExplorer.class, "Customer");
+            choosePath(ui, inMemory);
 
             // Root: creditScore >= 95, combined with OR
             ui.findButton().withText("Filters").click();
@@ -96,11 +104,13 @@ public class FilterBuilderBrowserlessTest {
         }
     }
 
-    @Test
-    void clearResetsToUnfilteredListing() {
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void clearResetsToUnfilteredListing(boolean inMemory) throws InterruptedException {
         try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
             BrowserlessUIContext ui = app.newUser().newWindow();
             ui.navigate(EntityExplorer.class, "Customer");
+            choosePath(ui, inMemory);
 
             ui.findButton().withText("Filters").click();
             ui.findButton().withText("Add condition").click();
@@ -116,6 +126,15 @@ public class FilterBuilderBrowserlessTest {
         }
     }
 
+    private static void choosePath(BrowserlessUIContext ui, boolean inMemory) throws InterruptedException {
+        JpaEntityGrid<?> grid = (JpaEntityGrid<?>) ui.findGrid(Object.class).component();
+        if (inMemory) {
+            PendingUiTasks.runUntil(grid::isListedInMemory, "snapshot not loaded");
+        } else {
+            grid.setInMemoryThreshold(0);
+        }
+    }
+
     private int gridSize(BrowserlessUIContext ui) {
         return ui.test(ui.findGrid(Object.class).component()).size();
     }
@@ -0,0 +1,171 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.filter.FilterCondition;
+import in.virit.entityexplorer.filter.FilterGroup;
+import in.virit.entityexplorer.filter.FilterNode;
+import in.virit.entityexplorer.filter.FilterOperator;
+import in.virit.entityexplorer.filter.FilterOptimizer;
+import in.virit.entityexplorer.filter.FilterProperty;
+import in.virit.entityexplorer.filter.FilterQueryPlan;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FilterOptimizer}: the shape of optimized trees, and that
+ * the optimized SQL matches the same rows as a hand-written JPQL version of
+ * the original tree (customerdata.sql, 100 Customer rows).
+ */
+@SpringBootTest
+public class FilterOptimizerTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private static FilterCondition condition(String path, Class<?> javaType, FilterOperator op, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(new FilterProperty(path, path, javaType, true));
+        condition.setOperator(op);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static FilterCondition negated(FilterCondition condition) {
+        condition.setNegated(true);
+        return condition;
+    }
+
+    private static FilterGroup group(FilterGroup.Logic logic, FilterNode... children) {
+        FilterGroup group = new FilterGroup();
+        group.setLogic(logic);
+        for (var child : children) {
+            group.add(child);
+        }
+        return group;
+    }
+
+    private static FilterGroup negated(FilterGroup group) {
+        group.setNegated(true);
+        return group;
+    }
+
+    private static FilterCondition city(String city) {
+        return condition("address.city", String.class, FilterOperator.EQUALS, city);
+    }
+
+    private List<Long> planIds(FilterGroup group) {
+        FilterQueryPlan plan = FilterQueryPlan.compile(group, "c");
+        try (EntityManager em = emf.createEntityManager()) {
+            TypedQuery<Long> query = em.createQuery("select c.id from Customer c"
+                    + (plan.isEmpty() ? "" : " where " + plan.where()) + " order by c.id", Long.class);
+            plan.parameters().forEach(query::setParameter);
+            return query.getResultList();
+        }
+    }
+
+    private List<Long> jpqlIds(String where) {
+        try (EntityManager em = emf.createEntityManager()) {
+            return em.createQuery("select c.id from Customer c where " + where + " order by c.id", Long.class)
+                    .getResultList();
+        }
+    }
+
+    @Test
+    void flattensNestedGroupsAndDropsEmptyOnes() {
+        FilterGroup tree = group(FilterGroup.Logic.AND,
+                group(FilterGroup.Logic.AND,
+                        group(FilterGroup.Logic.AND, condition("active", boolean.class, FilterOperator.IS_TRUE, null)),
+                        new FilterGroup()),
+                condition("creditScore", int.class, FilterOperator.GT, 50),
+                new FilterCondition());
+        FilterGroup optimized = FilterOptimizer.optimize(tree);
+        assertEquals(2, optimized.getChildren().size());
+        assertTrue(optimized.getChildren().stream().allMatch(FilterCondition.class::isInstance));
+        assertEquals(jpqlIds("c.active = true and c.creditScore > 50"), planIds(tree));
+    }
+
+    @Test
+    void pushesNotDownToComplementedLeaves() {
+        // not (score > 50 or not active) == score <= 50 and active
+        FilterGroup tree = group(FilterGroup.Logic.AND, negated(group(FilterGroup.Logic.OR,
+                condition("creditScore", int.class, FilterOperator.GT, 50),
+                negated(condition("active", boolean.class, FilterOperator.IS_TRUE, null)))));
+        FilterGroup optimized = FilterOptimizer.optimize(tree);
+        assertFalse(optimized.isNegated());
+        assertEquals(FilterGroup.Logic.AND, optimized.getLogic());
+        List<FilterOperator> operators = optimized.getChildren().stream()
+                .map(node -> ((FilterCondition) node).getOperator()).toList();
+        assertEquals(List.of(FilterOperator.LTE, FilterOperator.IS_TRUE), operators);
+        assertEquals(jpqlIds("not (c.creditScore > 50 or c.active = false)"), planIds(tree));
+
+        // double negation cancels out
+        FilterGroup twice = group(FilterGroup.Logic.AND, negated(group(FilterGroup.Logic.AND,
+                negated(city("Berlin")))));
+        FilterCondition leaf = (FilterCondition) FilterOptimizer.optimize(twice).getChildren().getFirst();
+        assertEquals(FilterOperator.EQUALS, leaf.getOperator());
+        assertFalse(leaf.isNegated());
+    }
+
+    @Test
+    void collapsesOredEqualitiesIntoInList() {
+        FilterGroup tree = group(FilterGroup.Logic.OR,
+                city("Berlin"), city("Hamburg"), group(FilterGroup.Logic.OR, city("Cologne"), city("Berlin")));
+        FilterGroup optimized = FilterOptimizer.optimize(tree);
+        FilterCondition in = (FilterCondition) optimized.getChildren().getFirst();
+        assertEquals(FilterOperator.IN, in.getOperator());
+        assertEquals(List.of("Berlin", "Hamburg", "Cologne"), in.getValue());
+        assertEquals(jpqlIds("c.address.city in ('Berlin', 'Hamburg', 'Cologne')"), planIds(tree));
+
+        // and the negated form into NOT IN
+        FilterGroup notIn = negated(tree.copy());
+        FilterCondition negatedIn = (FilterCondition) FilterOptimizer.optimize(notIn).getChildren().getFirst();
+        assertEquals(FilterOperator.IN, negatedIn.getOperator());
+        assertTrue(negatedIn.isNegated());
+        assertEquals(jpqlIds("c.address.city not in ('Berlin', 'Hamburg', 'Cologne')"), planIds(notIn));
+    }
+
+    @Test
+    void removesRepeatedConditions() {
+        FilterGroup tree = group(FilterGroup.Logic.AND,
+                condition("creditScore", int.class, FilterOperator.GTE, 80),
+                condition("creditScore", int.class, FilterOperator.GTE, Double.valueOf(80.0)));
+        assertEquals(1, FilterOptimizer.optimize(tree).getChildren().size());
+    }
+
+    @Test
+    void foldsContradictionsAndTautologies() {
+        FilterGroup contradiction = group(FilterGroup.Logic.OR,
+                group(FilterGroup.Logic.AND, city("Berlin"), city("Hamburg")),
+                condition("creditScore", int.class, FilterOperator.GT, 95));
+        FilterGroup optimized = FilterOptimizer.optimize(contradiction);
+        assertEquals(1, optimized.getChildren().size());
+        assertEquals(jpqlIds("c.creditScore > 95"), planIds(contradiction));
+
+        FilterGroup alwaysFalse = group(FilterGroup.Logic.AND,
+                condition("lastOrderDate", java.time.LocalDate.class, FilterOperator.IS_NULL, null),
+                condition("lastOrderDate", java.time.LocalDate.class, FilterOperator.IS_NOT_NULL, null));
+        assertEquals(List.of(), planIds(alwaysFalse));
+
+        FilterGroup tautology = group(FilterGroup.Logic.AND,
+                group(FilterGroup.Logic.OR,
+                        condition("lastOrderDate", java.time.LocalDate.class, FilterOperator.IS_NULL, null),
+                        condition("lastOrderDate", java.time.LocalDate.class, FilterOperator.IS_NOT_NULL, null)),
+                condition("active", boolean.class, FilterOperator.IS_TRUE, null));
+        assertEquals(1, FilterOptimizer.optimize(tautology).getChildren().size());
+        assertEquals(jpqlIds("c.active = true"), planIds(tautology));
+
+        FilterGroup everything = group(FilterGroup.Logic.OR,
+                condition("email", String.class, FilterOperator.IS_NULL, null),
+                condition("email", String.class, FilterOperator.IS_NOT_NULL, null));
+        assertTrue(FilterOptimizer.optimize(everything).isEmpty());
+    }
+}
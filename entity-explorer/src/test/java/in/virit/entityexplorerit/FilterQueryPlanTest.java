@@ -0,0 +1,135 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.filter.FilterCondition;
+import in.virit.entityexplorer.filter.FilterGroup;
+import in.virit.entityexplorer.filter.FilterNode;
+import in.virit.entityexplorer.filter.FilterOperator;
+import in.virit.entityexplorer.filter.FilterPredicateBuilder;
+import in.virit.entityexplorer.filter.FilterProperty;
+import in.virit.entityexplorer.filter.FilterQueryPlan;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FilterQueryPlan}: a compiled plan must match exactly the
+ * rows the criteria predicate of {@link FilterPredicateBuilder} matches, be
+ * reusable across entity managers, and compile equally shaped filters to the
+ * same JPQL.
+ */
+@SpringBootTest
+public class FilterQueryPlanTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private static FilterCondition condition(String path, Class<?> javaType, FilterOperator op, Object value) {
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(new FilterProperty(path, path, javaType, true));
+        condition.setOperator(op);
+        condition.setValue(value);
+        return condition;
+    }
+
+    private static FilterGroup group(FilterGroup.Logic logic, FilterNode... children) {
+        FilterGroup group = new FilterGroup();
+        group.setLogic(logic);
+        for (var child : children) {
+            group.add(child);
+        }
+        return group;
+    }
+
+    private List<Long> criteriaIds(EntityManager em, FilterGroup group) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Customer> root = cq.from(Customer.class);
+        cq.select(root.get("id"));
+        Predicate predicate = FilterPredicateBuilder.toPredicate(group, root, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        cq.orderBy(cb.asc(root.get("id")));
+        return em.createQuery(cq).getResultList();
+    }
+
+    private List<Long> planIds(EntityManager em, FilterQueryPlan plan) {
+        TypedQuery<Long> query = em.createQuery("select c.id from Customer c"
+                + (plan.isEmpty() ? "" : " where " + plan.where()) + " order by c.id", Long.class);
+        plan.parameters().forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    @Test
+    void planMatchesCriteriaPredicate() {
+        var negatedActive = condition("active", boolean.class, FilterOperator.IS_TRUE, null);
+        negatedActive.setNegated(true);
+        var negatedGroup = group(FilterGroup.Logic.AND,
+                condition("address.city", String.class, FilterOperator.CONTAINS, "Berlin"),
+                condition("active", boolean.class, FilterOperator.IS_TRUE, null));
+        negatedGroup.setNegated(true);
+        List<FilterGroup> filters = List.of(
+                new FilterGroup(),
+                group(FilterGroup.Logic.AND,
+                        condition("address.city", String.class, FilterOperator.CONTAINS, "berlin"), negatedActive),
+                group(FilterGroup.Logic.OR,
+                        group(FilterGroup.Logic.AND,
+                                condition("companyName", String.class, FilterOperator.STARTS_WITH, "Berlin"),
+                                condition("creditScore", int.class, FilterOperator.GTE, Double.valueOf(50.0))),
+                        condition("annualRevenue", BigDecimal.class, FilterOperator.GT, new BigDecimal("200000"))),
+                group(FilterGroup.Logic.AND,
+                        condition("customerSince", LocalDate.class, FilterOperator.LT, LocalDate.of(2010, 1, 1)),
+                        condition("companyName", String.class, FilterOperator.NOT_EQUALS, "Berlin Data Works")),
+                group(FilterGroup.Logic.AND,
+                        condition("companyName", String.class, FilterOperator.CONTAINS, "100%"),
+                        condition("lastOrderDate", LocalDate.class, FilterOperator.IS_NULL, null)),
+                group(FilterGroup.Logic.OR,
+                        condition("address.state", String.class, FilterOperator.IS_EMPTY, null)),
+                group(FilterGroup.Logic.AND, negatedGroup));
+
+        for (FilterGroup filter : filters) {
+            FilterQueryPlan plan = FilterQueryPlan.compile(filter.copy(), "c");
+            // compiled once, executed with different entity managers
+            for (int i = 0; i < 2; i++) {
+                try (EntityManager em = emf.createEntityManager()) {
+                    assertEquals(criteriaIds(em, filter), planIds(em, plan), plan.where());
+                }
+            }
+        }
+    }
+
+    @Test
+    void equallyShapedFiltersShareJpql() {
+        FilterQueryPlan berlin = FilterQueryPlan.compile(group(FilterGroup.Logic.AND,
+                condition("address.city", String.class, FilterOperator.CONTAINS, "Berlin"),
+                condition("creditScore", int.class, FilterOperator.GT, 10)), "e");
+        FilterQueryPlan hamburg = FilterQueryPlan.compile(group(FilterGroup.Logic.AND,
+                condition("address.city", String.class, FilterOperator.CONTAINS, "Hamburg"),
+                condition("creditScore", int.class, FilterOperator.GT, 20)), "e");
+        assertEquals(berlin.where(), hamburg.where());
+        assertEquals("%hamburg%", hamburg.parameters().get("f0"));
+        assertTrue(FilterQueryPlan.compile(new FilterGroup(), "e").isEmpty());
+    }
+
+    @Test
+    void rejectsNonAttributePaths() {
+        FilterGroup injected = group(FilterGroup.Logic.AND,
+                condition("id = 1 or 1", String.class, FilterOperator.IS_NULL, null));
+        assertThrows(IllegalArgumentException.class, () -> FilterQueryPlan.compile(injected, "e"));
+    }
+}
@@ -7,12 +7,21 @@ import com.vaadin.flow.component.grid.GridTester;
 import com.vaadin.flow.data.provider.SortDirection;
 import in.virit.entityexplorer.EntityExplorer;
 import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import in.virit.entityexplorer.JpaEntityGrid;
 import in.virit.entityexplorer.filter.FilterProperty;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -20,7 +29,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 /**
  * Browserless tests for the grid's backend sorting: basic-typed columns sort
  * through both listing paths (JPQL and, with a visual filter applied, the
- * criteria one); association, embedded and computed columns are not sortable.
+ * criteria one), and in memory for small tables; association, embedded and
+ * computed columns are not sortable.
  * <p>
  * Expected values come from customerdata.sql (100 rows): first company name
  * ascending is "Acme Manufacturing Cologne", descending "Zenith Medical
@@ -32,11 +42,15 @@ public class GridSortingBrowserlessTest {
     @Autowired
     ApplicationContext applicationContext;
 
+    @Autowired
+    EntityManagerFactory emf;
+
     @Test
     void sortsThroughJpqlListingPath() {
         try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
             BrowserlessUIContext ui = app.newUser().newWindow();
             ui.navigate(EntityExplorer.class, "Customer");
+            grid(ui).setInMemoryThreshold(0);
             GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
 
             grid.sortByColumn("companyName", SortDirection.ASCENDING);
@@ -53,11 +67,17 @@ public class GridSortingBrowserlessTest {
         }
     }
 
-    @Test
-    void sortsThroughCriteriaListingPath() {
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void sortsThroughCriteriaListingPath(boolean inMemory) throws InterruptedException {
         try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
             BrowserlessUIContext ui = app.newUser().newWindow();
             ui.navigate(EntityExplorer.class, "Customer");
+            if (inMemory) {
+                awaitInMemory(grid(ui));
+            } else {
+                grid(ui).setInMemoryThreshold(0);
+            }
 
             // active is true via the visual builder -> criteria listing path
             ui.findButton().withText("Filters").click();
@@ -66,6 +86,7 @@ public class GridSortingBrowserlessTest {
             ui.findButton().withText("Apply").click();
 
             GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+            assertEquals(inMemory, grid(ui).isListedInMemory());
             assertEquals(69, grid.size());
             grid.sortByColumn("creditScore", SortDirection.DESCENDING);
             assertEquals(99, customer(grid, 0).getCreditScore());
@@ -76,6 +97,95 @@ public class GridSortingBrowserlessTest {
         }
     }
 
+    @Test
+    void smallTableIsSortedInMemoryLikeInTheDatabase() throws InterruptedException {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Customer");
+            JpaEntityGrid<?> component = grid(ui);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+            assertFalse(component.isListedInMemory(), "the snapshot loads in the background");
+            awaitInMemory(component);
+
+            grid.sortByColumn("creditScore", SortDirection.DESCENDING);
+            List<Long> inMemory = ids(grid);
+
+            component.setInMemoryThreshold(50);
+            assertFalse(component.isListedInMemory());
+            grid.sortByColumn("creditScore", SortDirection.DESCENDING);
+            assertEquals(inMemory, ids(grid), "ties keep the id order too");
+        }
+    }
+
+    @Test
+    void expiredSnapshotSeesBulkUpdates() throws InterruptedException {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Customer");
+            JpaEntityGrid<?> component = grid(ui);
+            awaitInMemory(component);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+
+            // bulk updates don't bump the entity version
+            renameCompany("Acme Manufacturing Cologne", "AAA Bulk Updated");
+            grid.sortByColumn("companyName", SortDirection.ASCENDING);
+            assertEquals("Acme Manufacturing Cologne", customer(grid, 0).getCompanyName());
+
+            // the expired snapshot is listed from the database until reloaded
+            component.setSnapshotTimeToLive(Duration.ZERO);
+            grid.sortByColumn("companyName", SortDirection.DESCENDING);
+            PendingUiTasks.beforeClientResponse();
+            assertFalse(component.isListedInMemory());
+            grid.sortByColumn("companyName", SortDirection.ASCENDING);
+            assertEquals("AAA Bulk Updated", customer(grid, 0).getCompanyName());
+
+            component.setSnapshotTimeToLive(Duration.ofMinutes(1));
+            awaitInMemory(component);
+            assertEquals("AAA Bulk Updated", customer(grid, 0).getCompanyName());
+        } finally {
+            renameCompany("AAA Bulk Updated", "Acme Manufacturing Cologne");
+        }
+    }
+
+    @Test
+    void tableGrownPastTheThresholdIsListedFromTheDatabase() throws InterruptedException {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Customer");
+            JpaEntityGrid<?> component = grid(ui);
+            component.setInMemoryThreshold(110);
+            awaitInMemory(component);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+            assertEquals(100, grid.size());
+
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                for (int i = 0; i < 20; i++) {
+                    Customer customer = new Customer();
+                    customer.setCompanyName("Grown " + i);
+                    em.persist(customer);
+                }
+                em.getTransaction().commit();
+            }
+            // the page request sees the write and re-lists after the round trip
+            grid.size();
+            PendingUiTasks.beforeClientResponse();
+            assertFalse(component.isListedInMemory(), "not reloaded on the UI thread");
+            assertEquals(120, grid.size());
+
+            // the background count finds the table too large
+            PendingUiTasks.runFor(500);
+            assertFalse(component.isListedInMemory());
+            assertEquals(120, grid.size());
+        } finally {
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                em.createQuery("delete from Customer c where c.companyName like 'Grown %'").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
     @Test
     void onlyBasicTypedColumnsAreSortable() {
         try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
@@ -97,6 +207,29 @@ public class GridSortingBrowserlessTest {
         }
     }
 
+    private static JpaEntityGrid<?> grid(BrowserlessUIContext ui) {
+        return (JpaEntityGrid<?>) ui.findGrid(Object.class).component();
+    }
+
+    private static void awaitInMemory(JpaEntityGrid<?> grid) throws InterruptedException {
+        PendingUiTasks.runUntil(grid::isListedInMemory, "snapshot not loaded");
+    }
+
+    private void renameCompany(String from, String to) {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createQuery("update Customer c set c.companyName = :to where c.companyName = :from")
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .executeUpdate();
+            em.getTransaction().commit();
+        }
+    }
+
+    private static List<Long> ids(GridTester<Grid<Object>, Object> grid) {
+        return IntStream.range(0, grid.size()).mapToObj(row -> customer(grid, row).getId()).toList();
+    }
+
     private static Customer customer(GridTester<Grid<Object>, Object> grid, int row) {
         return (Customer) grid.getRow(row);
     }
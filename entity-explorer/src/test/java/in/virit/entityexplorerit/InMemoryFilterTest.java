@@ -0,0 +1,136 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.filter.CriteriaListing;
+import in.virit.entityexplorer.filter.FilterCondition;
+import in.virit.entityexplorer.filter.FilterGroup;
+import in.virit.entityexplorer.filter.FilterNode;
+import in.virit.entityexplorer.filter.FilterOperator;
+import in.virit.entityexplorer.filter.FilterPredicateBuilder;
+import in.virit.entityexplorer.filter.FilterProperty;
+import in.virit.entityexplorer.filter.InMemoryFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Differential tests for {@link InMemoryFilter}: for randomly generated
+ * filter trees, the in-memory predicate must match exactly the rows the
+ * Criteria path of {@link FilterPredicateBuilder} matches in the database,
+ * including NULL values (Person rows without names or contact method).
+ */
+@SpringBootTest
+public class InMemoryFilterTest {
+
+    private static final List<String> STRINGS = List.of(
+            "berlin", "GmbH", "a", "Zenith Medical Hamburg", "100%", "_", "", "P1", "L2");
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void matchesCriteriaPathForRandomCustomerFilters() {
+        try (EntityManager em = emf.createEntityManager()) {
+            assertSameRows(em, Customer.class, new Random(11), 300);
+        }
+    }
+
+    @Test
+    void matchesCriteriaPathWithNullValues() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            try {
+                for (int i = 0; i < 12; i++) {
+                    Person person = new Person();
+                    person.setFirstName(i % 4 == 0 ? null : "P" + (i % 3));
+                    person.setLastName(i % 3 == 0 ? null : i % 5 == 0 ? "" : "L" + (i % 4));
+                    person.setPreferredContactMethod(i % 2 == 0 ? null : ContactMethod.values()[i % ContactMethod.values().length]);
+                    em.persist(person);
+                }
+                em.getTransaction().commit();
+                em.clear();
+                assertSameRows(em, Person.class, new Random(7), 300);
+            } finally {
+                em.getTransaction().begin();
+                em.createQuery("delete from Person").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
+    private <T> void assertSameRows(EntityManager em, Class<T> type, Random random, int rounds) {
+        Function<T, Object> id = emf.getPersistenceUnitUtil()::getIdentifier;
+        List<FilterProperty> properties = FilterProperty.listFor(emf.getMetamodel().entity(type));
+        List<T> all = CriteriaListing.fetch(em, type, (root, cb) -> null, 0, 10_000);
+        for (int i = 0; i < rounds; i++) {
+            FilterGroup filter = randomGroup(random, properties, 0);
+            List<Object> expected = CriteriaListing.fetch(em, type,
+                            (root, cb) -> FilterPredicateBuilder.toPredicate(filter, root, cb), 0, 10_000)
+                    .stream().map(id).sorted().toList();
+            List<Object> actual = all.stream().filter(InMemoryFilter.compile(filter, type))
+                    .map(id).sorted().toList();
+            assertEquals(expected, actual, () -> describe(filter));
+        }
+    }
+
+    private static FilterGroup randomGroup(Random random, List<FilterProperty> properties, int depth) {
+        FilterGroup group = new FilterGroup();
+        group.setLogic(random.nextBoolean() ? FilterGroup.Logic.AND : FilterGroup.Logic.OR);
+        group.setNegated(random.nextInt(4) == 0);
+        int children = 1 + random.nextInt(3);
+        for (int i = 0; i < children; i++) {
+            group.add(depth < 2 && random.nextInt(3) == 0
+                    ? randomGroup(random, properties, depth + 1)
+                    : randomCondition(random, properties));
+        }
+        return group;
+    }
+
+    private static FilterCondition randomCondition(Random random, List<FilterProperty> properties) {
+        FilterProperty property = properties.get(random.nextInt(properties.size()));
+        List<FilterOperator> operators = FilterOperator.forProperty(property);
+        FilterCondition condition = new FilterCondition();
+        condition.setProperty(property);
+        condition.setOperator(operators.get(random.nextInt(operators.size())));
+        condition.setValue(randomValue(random, property.javaType()));
+        condition.setNegated(random.nextInt(4) == 0);
+        return condition;
+    }
+
+    private static Object randomValue(Random random, Class<?> type) {
+        if (type == String.class) {
+            return STRINGS.get(random.nextInt(STRINGS.size()));
+        } else if (type == int.class || type == Integer.class) {
+            return random.nextInt(101);
+        } else if (type == long.class || type == Long.class) {
+            return (long) random.nextInt(101);
+        } else if (type == BigDecimal.class) {
+            return BigDecimal.valueOf(random.nextInt(50) * 10_000L, random.nextInt(3));
+        } else if (type == LocalDate.class) {
+            return LocalDate.of(2000, 1, 1).plusDays(random.nextInt(27 * 365));
+        } else if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants[random.nextInt(constants.length)];
+        }
+        return null;
+    }
+
+    private static String describe(FilterNode node) {
+        return switch (node) {
+            case FilterGroup group -> (group.isNegated() ? "not " : "") + group.getLogic()
+                    + group.getChildren().stream().map(InMemoryFilterTest::describe).toList();
+            case FilterCondition condition -> (condition.isNegated() ? "not " : "")
+                    + condition.getProperty().path() + " " + condition.getOperator().getCaption()
+                    + " " + condition.getValue();
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridTester;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that listing from the database records the explorer's JFR events
+ * when they are enabled (customerdata.sql, 69 active Customer rows).
+ */
+@SpringBootTest
+public class JfrEventsTest {
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Test
+    void recordsPageFetchesRenderingAndEntityManagers() throws IOException {
+        Path file = Files.createTempFile("entityexplorer", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("in.virit.entityexplorer.PageFetch");
+            recording.enable("in.virit.entityexplorer.FilterBuild");
+            recording.enable("in.virit.entityexplorer.Render");
+            recording.enable("in.virit.entityexplorer.EntityManager");
+            recording.start();
+            try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+                BrowserlessUIContext ui = app.newUser().newWindow();
+                ui.navigate(EntityExplorer.class, "Customer");
+                // a JPQL filter is listed from the database, not in memory
+                ui.findTextField().withPlaceholderContaining("jqpl").setValue("active = true");
+                Grid<Object> component = ui.findGrid(Object.class).component();
+                GridTester<Grid<Object>, Object> grid = ui.test(component);
+                assertEquals(69, grid.size());
+                grid.getRow(0);
+                // the rendering ends when the response is written
+                component.getUI().orElseThrow().getInternals().getStateTree().runExecutionsBeforeClientResponse();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> fetches = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("in.virit.entityexplorer.PageFetch"))
+                    .toList();
+            assertFalse(fetches.isEmpty());
+            RecordedEvent fetch = fetches.getFirst();
+            assertEquals("Customer", fetch.getString("entityName"));
+            assertTrue(fetch.getInt("rows") > 0);
+            assertTrue(fetch.getLong("statements") > 0);
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("in.virit.entityexplorer.FilterBuild")
+                    && "jpql".equals(e.getString("kind"))));
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("in.virit.entityexplorer.Render")
+                    && e.getInt("rows") > 0));
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("in.virit.entityexplorer.EntityManager")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
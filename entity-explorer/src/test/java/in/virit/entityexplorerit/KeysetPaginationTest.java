@@ -0,0 +1,141 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.filter.CriteriaListing;
+import in.virit.entityexplorer.filter.CriteriaListing.PropertySort;
+import in.virit.entityexplorer.filter.FilterSpecification;
+import in.virit.entityexplorer.filter.KeysetPagination;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for {@link KeysetPagination}: paging through a listing with seek
+ * predicates must produce exactly the same rows as plain offset paging with
+ * the same (id tie-broken) ordering, including duplicate sort keys
+ * (customerSince has duplicates in customerdata.sql), mixed directions,
+ * random jumps and NULL sort values.
+ */
+@SpringBootTest
+public class KeysetPaginationTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private static final FilterSpecification<Customer> ALL = (root, cb) -> null;
+
+    private List<Long> offsetIds(EntityManager em, List<PropertySort> keyOrder) {
+        return CriteriaListing.fetch(em, Customer.class, ALL, keyOrder, 0, 1000)
+                .stream().map(Customer::getId).toList();
+    }
+
+    private List<Long> keysetIds(EntityManager em, List<PropertySort> sorts, int pageSize) {
+        KeysetPagination keyset = KeysetPagination.forEntity(emf.getMetamodel().entity(Customer.class));
+        List<Long> ids = new ArrayList<>();
+        List<Customer> page;
+        do {
+            page = CriteriaListing.fetch(em, Customer.class, ALL, sorts, keyset, ids.size(), pageSize);
+            page.forEach(c -> ids.add(c.getId()));
+        } while (page.size() == pageSize);
+        return ids;
+    }
+
+    @Test
+    void forEntityUsesSingleIdAsTieBreaker() {
+        KeysetPagination keyset = KeysetPagination.forEntity(emf.getMetamodel().entity(Customer.class));
+        assertNotNull(keyset);
+        assertEquals("id", keyset.getIdPath());
+        assertEquals(List.of(new PropertySort("companyName", true), new PropertySort("id", true)),
+                keyset.keyOrder(List.of(new PropertySort("companyName", true))));
+    }
+
+    @Test
+    void seekingMatchesOffsetPaging() {
+        try (EntityManager em = emf.createEntityManager()) {
+            List<List<PropertySort>> orderings = List.of(
+                    List.of(),
+                    List.of(new PropertySort("companyName", true)),
+                    List.of(new PropertySort("customerSince", false)),
+                    List.of(new PropertySort("active", true), new PropertySort("creditScore", false)),
+                    List.of(new PropertySort("address.city", true)));
+            KeysetPagination keyset = new KeysetPagination("id");
+            for (List<PropertySort> sorts : orderings) {
+                List<Long> expected = offsetIds(em, keyset.keyOrder(sorts));
+                assertEquals(100, expected.size());
+                assertEquals(expected, keysetIds(em, sorts, 7), "ordering " + sorts);
+            }
+        }
+    }
+
+    @Test
+    void randomJumpFallsBackToOffsetAndResumesSeeking() {
+        try (EntityManager em = emf.createEntityManager()) {
+            List<PropertySort> sorts = List.of(new PropertySort("customerSince", true));
+            KeysetPagination keyset = KeysetPagination.forEntity(emf.getMetamodel().entity(Customer.class));
+            List<Long> expected = offsetIds(em, keyset.keyOrder(sorts));
+
+            // jump straight to the middle: no boundary known yet
+            assertNull(keyset.seek(keyset.keyOrder(sorts), 50));
+            List<Long> middle = CriteriaListing.fetch(em, Customer.class, ALL, sorts, keyset, 50, 10)
+                    .stream().map(Customer::getId).toList();
+            assertEquals(expected.subList(50, 60), middle);
+
+            // the following page seeks from the remembered boundary
+            assertEquals(60, keyset.seek(keyset.keyOrder(sorts), 60).offset());
+            List<Long> next = CriteriaListing.fetch(em, Customer.class, ALL, sorts, keyset, 60, 10)
+                    .stream().map(Customer::getId).toList();
+            assertEquals(expected.subList(60, 70), next);
+
+            // an offset past a boundary seeks and skips only the difference
+            List<Long> skipped = CriteriaListing.fetch(em, Customer.class, ALL, sorts, keyset, 75, 10)
+                    .stream().map(Customer::getId).toList();
+            assertEquals(expected.subList(75, 85), skipped);
+        }
+    }
+
+    @Test
+    void nullSortValuesArePagedThrough() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            try {
+                for (int i = 0; i < 9; i++) {
+                    var person = new Person();
+                    person.setFirstName("P" + i);
+                    // every third without last name
+                    person.setLastName(i % 3 == 0 ? null : "L" + (i % 4));
+                    em.persist(person);
+                }
+                em.getTransaction().commit();
+                em.clear();
+
+                FilterSpecification<Person> all = (root, cb) -> null;
+                for (boolean ascending : new boolean[]{true, false}) {
+                    List<PropertySort> sorts = List.of(new PropertySort("lastName", ascending));
+                    KeysetPagination keyset = KeysetPagination.forEntity(emf.getMetamodel().entity(Person.class));
+                    List<String> expected = CriteriaListing.fetch(em, Person.class, all, keyset.keyOrder(sorts), 0, 100)
+                            .stream().map(Person::getFirstName).toList();
+                    List<String> paged = new ArrayList<>();
+                    List<Person> page;
+                    do {
+                        page = CriteriaListing.fetch(em, Person.class, all, sorts, keyset, paged.size(), 2);
+                        page.forEach(p -> paged.add(p.getFirstName()));
+                    } while (page.size() == 2);
+                    assertEquals(9, paged.size());
+                    assertEquals(expected, paged, "ascending=" + ascending);
+                }
+            } finally {
+                em.getTransaction().begin();
+                em.createQuery("delete from Person").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.LumoStylesheetServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the caching headers and encodings of the Lumo stylesheet served for
+ * the explorer's own Vaadin servlet.
+ */
+@SpringBootTest
+public class LumoStylesheetServletTest {
+
+    @Autowired
+    LumoStylesheetServlet servlet;
+
+    private MockHttpServletResponse get(String path, String acceptEncoding, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + path);
+        request.setServletPath("/entityexplorer/styles");
+        request.setPathInfo(path.substring(path.lastIndexOf('/')));
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        return response;
+    }
+
+    @Test
+    void servesCacheableStylesheetWithGzipVariant() throws Exception {
+        MockHttpServletResponse plain = get(servlet.getPath(), null, null);
+        assertEquals(200, plain.getStatus());
+        assertEquals("public, max-age=31536000, immutable", plain.getHeader("Cache-Control"));
+        assertNull(plain.getHeader("Content-Encoding"));
+        String css = plain.getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(css.contains("--lumo-primary-color"));
+
+        MockHttpServletResponse gzipped = get(servlet.getPath(), "gzip, deflate, br", null);
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+        assertTrue(gzipped.getContentAsByteArray().length < plain.getContentAsByteArray().length);
+        assertArrayEquals(plain.getContentAsByteArray(), gunzip(gzipped.getContentAsByteArray()));
+        assertNotEquals(plain.getHeader("ETag"), gzipped.getHeader("ETag"), "the variants' bytes differ");
+        assertTrue(gzipped.getHeader("ETag").endsWith("-gzip\""));
+    }
+
+    @Test
+    void answersNotModifiedForKnownEtag() throws Exception {
+        String etag = get(servlet.getPath(), null, null).getHeader("ETag");
+        MockHttpServletResponse revalidated = get(servlet.getPath(), null, etag);
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+
+        String gzipEtag = get(servlet.getPath(), "gzip", null).getHeader("ETag");
+        assertEquals(304, get(servlet.getPath(), "gzip", gzipEtag).getStatus());
+    }
+
+    @Test
+    void otherEncodingsEtagIsNotRevalidated() throws Exception {
+        String etag = get(servlet.getPath(), null, null).getHeader("ETag");
+        MockHttpServletResponse gzipped = get(servlet.getPath(), "gzip", etag);
+        assertEquals(200, gzipped.getStatus());
+        assertEquals("gzip", gzipped.getHeader("Content-Encoding"));
+
+        String gzipEtag = get(servlet.getPath(), "gzip", null).getHeader("ETag");
+        MockHttpServletResponse plain = get(servlet.getPath(), null, gzipEtag);
+        assertEquals(200, plain.getStatus());
+        assertNull(plain.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    void unknownVersionIsNotFound() throws Exception {
+        assertEquals(404, get("entityexplorer/styles/lumo-0000000000000000.css", null, null).getStatus());
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
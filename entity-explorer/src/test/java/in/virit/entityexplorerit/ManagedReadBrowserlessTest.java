@@ -0,0 +1,60 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import in.virit.entityexplorer.JpaEntityGrid;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Browserless test for the managed read mode of the entity grid: the
+ * persistence context of the grid stays within one page however far the
+ * user scrolls (customerdata.sql, 100 Customer rows).
+ */
+@SpringBootTest
+public class ManagedReadBrowserlessTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Test
+    void persistenceContextStaysWithinOnePageWhileScrolling() {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Customer");
+            JpaEntityGrid<Object> grid = (JpaEntityGrid<Object>) ui.findGrid(Object.class).component();
+            // pages from the grid's own entity manager
+            grid.setInMemoryThreshold(0);
+            grid.setPageCacheEnabled(false);
+            grid.setReadAheadPages(0);
+            grid.setPageSize(PAGE_SIZE);
+
+            for (int offset = 0; offset < 100; offset += PAGE_SIZE) {
+                scrollTo(grid, offset);
+                int entities = grid.getPersistenceContextStats().entityCount();
+                assertTrue(entities <= PAGE_SIZE, entities + " entities managed at row " + offset);
+            }
+
+            // without clearing, the context keeps every scrolled row
+            grid.setManagedReadMode(false);
+            for (int offset = 0; offset < 100; offset += PAGE_SIZE) {
+                scrollTo(grid, offset);
+            }
+            int entities = grid.getPersistenceContextStats().entityCount();
+            assertTrue(entities > PAGE_SIZE, entities + " entities managed without managed read mode");
+        }
+    }
+
+    private static void scrollTo(JpaEntityGrid<Object> grid, int row) {
+        grid.getDataCommunicator().setViewportRange(row, PAGE_SIZE);
+        grid.getUI().orElseThrow().getInternals().getStateTree().runExecutionsBeforeClientResponse();
+    }
+}
@@ -0,0 +1,63 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.EntityMetadata;
+import in.virit.entityexplorer.data.MetamodelIndex;
+import in.virit.entityexplorer.filter.FilterProperty;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link MetamodelIndex}: entities are indexed once, and the
+ * per-entity metadata is computed once and shared.
+ */
+@SpringBootTest
+public class MetamodelIndexTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void indexesEntitiesByName() {
+        MetamodelIndex index = new MetamodelIndex(emf.getMetamodel());
+        List<String> names = index.getEntities().stream().map(EntityType::getName).toList();
+        assertEquals(names.stream().sorted().toList(), names);
+        assertTrue(names.containsAll(List.of("Customer", "Person")));
+        assertSame(emf.getMetamodel().entity(Customer.class), index.getEntity("Customer"));
+        assertNull(index.getEntity("NoSuchEntity"));
+    }
+
+    @Test
+    void computesEntityMetadataOnce() {
+        MetamodelIndex index = new MetamodelIndex(emf.getMetamodel());
+        EntityType<Customer> customer = emf.getMetamodel().entity(Customer.class);
+        EntityMetadata metadata = index.get(customer);
+        assertSame(metadata, index.get(customer));
+
+        assertNotNull(metadata.getAttribute("companyName"));
+        assertNull(metadata.getAttribute("creditRating"), "derived getters are not attributes");
+        assertEquals(FilterProperty.listFor(customer), metadata.getFilterProperties());
+
+        AtomicInteger introspections = new AtomicInteger();
+        metadata.getColumns(() -> {
+            introspections.incrementAndGet();
+            return List.of();
+        });
+        metadata.getColumns(() -> {
+            introspections.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(1, introspections.get());
+    }
+}
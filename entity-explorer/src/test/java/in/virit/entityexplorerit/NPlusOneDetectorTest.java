@@ -0,0 +1,83 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.NPlusOneDetector;
+import in.virit.entityexplorer.data.StatementLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for {@link NPlusOneDetector}: a cell reader running a statement per
+ * row is reported and named, a page read without further statements is not
+ * (customerdata.sql, 100 Customer rows).
+ */
+@SpringBootTest
+public class NPlusOneDetectorTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private List<Customer> fetchPage(EntityManager em, StatementLog log, NPlusOneDetector detector) {
+        long before = log.getThreadStatementCount();
+        List<Customer> page = em.createQuery("select c from Customer c order by c.id", Customer.class)
+                .setMaxResults(50)
+                .getResultList();
+        detector.pageFetched(page.size(), before);
+        return page;
+    }
+
+    @Test
+    void reportsColumnLoadingPerRow() {
+        StatementLog log = new StatementLog();
+        NPlusOneDetector detector = new NPlusOneDetector(log);
+        try (EntityManager em = log.open(emf)) {
+            Function<Customer, Object> sameCity = detector.counting("sameCity", customer -> em
+                    .createQuery("select count(c) from Customer c where c.address.city = :city")
+                    .setParameter("city", customer.getAddress().getCity())
+                    .getSingleResult());
+            Function<Customer, Object> name = detector.counting("companyName", Customer::getCompanyName);
+            List<Customer> page = fetchPage(em, log, detector);
+            page.forEach(sameCity::apply);
+            page.forEach(name::apply);
+        }
+        NPlusOneDetector.Report report = detector.pagesRendered();
+        assertEquals(50, report.rows());
+        assertEquals(51, report.statements());
+        assertEquals("sameCity", report.culprit());
+        assertEquals(50L, report.lazyLoads().get("sameCity"));
+        assertNull(report.lazyLoads().get("companyName"));
+        // measured once per set of rendered pages
+        assertNull(detector.pagesRendered());
+    }
+
+    @Test
+    void toleratesPageQueries() {
+        StatementLog log = new StatementLog();
+        NPlusOneDetector detector = new NPlusOneDetector(log);
+        try (EntityManager em = log.open(emf)) {
+            Function<Customer, Object> name = detector.counting("companyName", Customer::getCompanyName);
+            fetchPage(em, log, detector).forEach(name::apply);
+            fetchPage(em, log, detector).forEach(name::apply);
+        }
+        assertNull(detector.pagesRendered());
+
+        // unless the threshold is lowered below one statement per 50 rows
+        detector.setStatementsPerRow(0.01);
+        detector.setMinimumStatements(0);
+        try (EntityManager em = log.open(emf)) {
+            fetchPage(em, log, detector);
+            fetchPage(em, log, detector);
+        }
+        NPlusOneDetector.Report report = detector.pagesRendered();
+        assertEquals(100, report.rows());
+        assertNull(report.culprit());
+    }
+}
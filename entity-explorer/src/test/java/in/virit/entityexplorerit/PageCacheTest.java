@@ -0,0 +1,124 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.EntityWriteListener;
+import in.virit.entityexplorer.data.PageCache;
+import in.virit.entityexplorer.data.PageCache.PageKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the shared {@link PageCache}: hits and misses, LRU and TTL
+ * eviction, invalidation by related entities and during a load, and
+ * invalidation through the Hibernate post-commit listener for writes that
+ * don't go through the explorer.
+ */
+@SpringBootTest
+public class PageCacheTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private static PageKey page(String entityName, int offset) {
+        return new PageKey(entityName, "active = true", List.of(), offset, 10);
+    }
+
+    @Test
+    void servesRepeatedPagesFromCache() {
+        PageCache cache = new PageCache();
+        List<Integer> loads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            List<String> rows = cache.get(page("Customer", 0), () -> {
+                loads.add(1);
+                return List.of("a", "b");
+            });
+            assertEquals(List.of("a", "b"), rows);
+        }
+        assertEquals(1, loads.size());
+        assertEquals(new PageCache.Statistics(2, 1, 1), cache.getStatistics());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredPages() {
+        PageCache cache = new PageCache();
+        cache.setMaxPages(2);
+        cache.get(page("Customer", 0), () -> List.of(0));
+        cache.get(page("Customer", 10), () -> List.of(10));
+        // touch the first page, so the second is the eldest
+        cache.get(page("Customer", 0), List::of);
+        cache.get(page("Customer", 20), () -> List.of(20));
+        assertEquals(List.of(0), cache.get(page("Customer", 0), List::of));
+        assertEquals(List.of(), cache.get(page("Customer", 10), List::of));
+
+        cache.setTimeToLive(Duration.ZERO);
+        cache.get(page("Person", 0), () -> List.of(1));
+        assertEquals(List.of(2), cache.get(page("Person", 0), () -> List.of(2)));
+    }
+
+    @Test
+    void writesOfShownAssociationTargetsInvalidatePages() {
+        PageCache cache = new PageCache();
+        PageKey teams = new PageKey("Team", Set.of("Person"), "", List.of(), 0, 10);
+        cache.get(teams, () -> List.of("members before"));
+        cache.invalidate("Customer");
+        assertEquals(List.of("members before"), cache.get(teams, List::of));
+
+        cache.invalidate("Person");
+        assertEquals(List.of("members after"), cache.get(teams, () -> List.of("members after")));
+
+        // also while loading
+        cache.invalidate("Team");
+        cache.get(teams, () -> {
+            cache.invalidate("Person");
+            return List.of("stale");
+        });
+        assertEquals(List.of("fresh"), cache.get(teams, () -> List.of("fresh")));
+    }
+
+    @Test
+    void pageInvalidatedWhileLoadingIsNotCached() {
+        PageCache cache = new PageCache();
+        List<String> rows = cache.get(page("Customer", 0), () -> {
+            // e.g. a commit while the page query runs
+            cache.invalidate("Customer");
+            return List.of("stale");
+        });
+        assertEquals(List.of("stale"), rows);
+        assertEquals(List.of("fresh"), cache.get(page("Customer", 0), () -> List.of("fresh")));
+        assertEquals(List.of("fresh"), cache.get(page("Customer", 0), () -> List.of("other")));
+    }
+
+    @Test
+    void hostApplicationWritesInvalidatePages() {
+        PageCache cache = new PageCache();
+        assertTrue(EntityWriteListener.register(emf, cache::invalidate));
+        cache.get(page("Person", 0), () -> List.of("cached"));
+        cache.get(page("Customer", 0), () -> List.of("cached"));
+
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            Person person = new Person();
+            person.setFirstName("Cache");
+            em.persist(person);
+            em.getTransaction().commit();
+
+            assertEquals(List.of("fresh"), cache.get(page("Person", 0), () -> List.of("fresh")));
+            assertEquals(List.of("cached"), cache.get(page("Customer", 0), () -> List.of("fresh")));
+
+            em.getTransaction().begin();
+            em.remove(person);
+            em.getTransaction().commit();
+        }
+        assertEquals(List.of("deleted"), cache.get(page("Person", 0), () -> List.of("deleted")));
+    }
+}
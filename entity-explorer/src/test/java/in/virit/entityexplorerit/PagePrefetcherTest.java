@@ -0,0 +1,138 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.PagePrefetcher;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests for {@link PagePrefetcher}: read-ahead in the detected scroll
+ * direction, pages served from the buffer, the buffer dropped when the
+ * ordering changes, and entity managers closed on cancel (customerdata.sql,
+ * 100 Customer rows).
+ */
+@SpringBootTest
+public class PagePrefetcherTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    /** Offsets of the loaded pages, also of the ones loaded ahead. */
+    private final Set<Integer> loadedOffsets = ConcurrentHashMap.newKeySet();
+    /** The entity managers of the read-ahead tasks. */
+    private final List<EntityManager> readAheadEntityManagers = new CopyOnWriteArrayList<>();
+
+    private final PagePrefetcher.PageLoader<Customer> customers = (em, offset, limit) -> {
+        List<Customer> page = em.createQuery("select c from Customer c order by c.id", Customer.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        loadedOffsets.add(offset);
+        return page;
+    };
+
+    private PagePrefetcher<Customer> newPrefetcher(int readAheadPages) {
+        return new PagePrefetcher<>(() -> {
+            EntityManager em = emf.createEntityManager();
+            readAheadEntityManagers.add(em);
+            return em;
+        }, readAheadPages);
+    }
+
+    @Test
+    void readsAheadInTheScrollDirection() throws InterruptedException {
+        PagePrefetcher<Customer> prefetcher = newPrefetcher(1);
+        try (EntityManager em = emf.createEntityManager()) {
+            prefetcher.fetch(em, "id", 80, 10, customers);
+            await(() -> loadedOffsets.contains(90));
+
+            // scrolling up reads ahead upwards, the page below is dropped
+            prefetcher.fetch(em, "id", 70, 10, customers);
+            await(() -> loadedOffsets.contains(60));
+            assertEquals(2, prefetcher.getMisses());
+            assertEquals(0, prefetcher.getHits());
+            await(() -> !readAheadEntityManagers.getFirst().isOpen());
+
+            assertEquals(61L, prefetcher.fetch(em, "id", 60, 10, customers).getFirst().getId());
+            assertEquals(1, prefetcher.getHits());
+        } finally {
+            prefetcher.cancel();
+        }
+    }
+
+    @Test
+    void servesPageFromTheBuffer() throws InterruptedException {
+        PagePrefetcher<Customer> prefetcher = newPrefetcher(1);
+        try (EntityManager em = emf.createEntityManager()) {
+            prefetcher.fetch(em, "id", 0, 10, customers);
+            await(() -> loadedOffsets.contains(10));
+            loadedOffsets.clear();
+
+            List<Customer> page = prefetcher.fetch(em, "id", 10, 10, customers);
+            assertEquals(1, prefetcher.getHits());
+            assertFalse(loadedOffsets.contains(10), "loaded again");
+            assertEquals(11L, page.getFirst().getId());
+
+            // the served rows stay attached until released
+            EntityManager served = readAheadEntityManagers.getFirst();
+            assertTrue(served.contains(page.getFirst()));
+            prefetcher.releaseServed();
+            assertFalse(served.isOpen());
+        } finally {
+            prefetcher.cancel();
+        }
+    }
+
+    @Test
+    void discardsTheBufferWhenTheOrderingChanges() throws InterruptedException {
+        PagePrefetcher<Customer> prefetcher = newPrefetcher(1);
+        try (EntityManager em = emf.createEntityManager()) {
+            prefetcher.fetch(em, "id", 0, 10, customers);
+            await(() -> loadedOffsets.contains(10));
+
+            prefetcher.fetch(em, "-id", 10, 10, customers);
+            assertEquals(0, prefetcher.getHits());
+            assertEquals(2, prefetcher.getMisses());
+            EntityManager buffered = readAheadEntityManagers.getFirst();
+            await(() -> !buffered.isOpen());
+        } finally {
+            prefetcher.cancel();
+        }
+    }
+
+    @Test
+    void cancelClosesTheBufferedEntityManagers() throws InterruptedException {
+        PagePrefetcher<Customer> prefetcher = newPrefetcher(2);
+        try (EntityManager em = emf.createEntityManager()) {
+            prefetcher.fetch(em, "id", 0, 10, customers);
+            await(() -> loadedOffsets.containsAll(List.of(10, 20)));
+            prefetcher.fetch(em, "id", 10, 10, customers);
+            assertEquals(1, prefetcher.getHits());
+        }
+        prefetcher.cancel();
+        await(() -> readAheadEntityManagers.stream().noneMatch(EntityManager::isOpen));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("timed out");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.ParameterizedFilterCache;
+import in.virit.entityexplorer.data.ParameterizedJpql;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link ParameterizedJpql}: literal extraction from quick filters,
+ * shared shapes for filters differing only in literals, the same results as
+ * the literal filters, and the {@link ParameterizedFilterCache}.
+ */
+@SpringBootTest
+public class ParameterizedJpqlTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void extractsStringAndNumericLiterals() {
+        ParameterizedJpql filter = ParameterizedJpql.extract(
+                "e.companyName like '%O''Brien%' and e.creditScore > 50 and e.address.postalCode2 = 'x'");
+        assertEquals("e.companyName like :q0 and e.creditScore > :q1 and e.address.postalCode2 = :q2",
+                filter.jpql());
+        assertEquals(Map.of("q0", "%O'Brien%", "q1", 50, "q2", "x"), filter.parameters());
+
+        // typed literals and JDBC escapes are kept
+        assertEquals("e.annualRevenue > 1.5BD", ParameterizedJpql.extract("e.annualRevenue > 1.5BD").jpql());
+        assertEquals(Map.of(), ParameterizedJpql.extract("e.customerSince > {d '2020-01-01'}").parameters());
+    }
+
+    @Test
+    void literalVariantsShareOneShape() {
+        try (EntityManager em = emf.createEntityManager()) {
+            ParameterizedJpql a = ParameterizedJpql.forFilter(em, "Customer", "e.companyName like '%a%'");
+            ParameterizedJpql ab = ParameterizedJpql.forFilter(em, "Customer", "e.companyName  like '%ab%'");
+            assertEquals(a.jpql(), ab.jpql());
+            assertEquals(customers(em, "e.companyName like '%a%'"), customers(em, a));
+            assertEquals(customers(em, "e.companyName like '%ab%'"), customers(em, ab));
+        }
+    }
+
+    @Test
+    void parameterizedFiltersMatchLiteralResults() {
+        try (EntityManager em = emf.createEntityManager()) {
+            // where a parameter of the literal's Java type can't be bound
+            // (e.g. an Integer for a BigDecimal, if Hibernate is strict about
+            // it), the literal filter is used as is
+            for (String jpql : List.of(
+                    "e.creditScore >= 50 and e.active = true",
+                    "e.annualRevenue > 100000",
+                    "e.address.city in ('Berlin', 'Cologne')",
+                    "e.customerSince > {d '2020-01-01'}")) {
+                ParameterizedJpql filter = ParameterizedJpql.forFilter(em, "Customer", jpql);
+                assertEquals(customers(em, jpql), customers(em, filter), jpql);
+            }
+        }
+    }
+
+    @Test
+    void cacheResolvesEachFilterOncePerEntity() {
+        try (EntityManager em = emf.createEntityManager()) {
+            ParameterizedFilterCache cache = new ParameterizedFilterCache(2);
+            ParameterizedJpql active = cache.forFilter(em, "Customer", "e.active = true");
+            assertSame(active, cache.forFilter(em, "Customer", " e.active  =  true"));
+            assertNotSame(active, cache.forFilter(em, "Person", "e.active = true"));
+
+            // the least recently used filter is evicted
+            cache.forFilter(em, "Customer", "e.creditScore > 50");
+            assertNotSame(active, cache.forFilter(em, "Customer", "e.active = true"));
+        }
+    }
+
+    private List<Long> customers(EntityManager em, String jpqlFilter) {
+        return customers(em, ParameterizedJpql.literal(jpqlFilter));
+    }
+
+    private List<Long> customers(EntityManager em, ParameterizedJpql filter) {
+        TypedQuery<Long> query = em.createQuery(
+                "select e.id from Customer e where " + filter.jpql() + " order by e.id", Long.class);
+        filter.bind(query);
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,61 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinSession;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs the UI tasks of background work, queued while a browserless test
+ * holds the session lock, and the tasks registered to run before the client
+ * response.
+ */
+final class PendingUiTasks {
+
+    private PendingUiTasks() {
+    }
+
+    /**
+     * Runs the pending UI tasks until the condition holds, failing after
+     * five seconds.
+     */
+    static void runUntil(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            VaadinSession session = VaadinSession.getCurrent();
+            if (session.hasLock()) {
+                session.getService().runPendingAccessTasks(session);
+            }
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail(message);
+    }
+
+    /**
+     * Runs the pending UI tasks for the given time, e.g. to let background
+     * work complete that has no visible effect.
+     */
+    static void runFor(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            VaadinSession session = VaadinSession.getCurrent();
+            if (session.hasLock()) {
+                session.getService().runPendingAccessTasks(session);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Runs the tasks registered with {@link UI#beforeClientResponse}, as at
+     * the end of a round trip.
+     */
+    static void beforeClientResponse() {
+        UI.getCurrent().getInternals().getStateTree().runExecutionsBeforeClientResponse();
+    }
+}
@@ -0,0 +1,145 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridTester;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import in.virit.entityexplorer.JpaEntityGrid;
+import in.virit.entityexplorer.data.Projection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the projection mode of the entity grid: only the visible basic
+ * columns are loaded, only into rows that can't be selected, and the edit and
+ * delete actions reload projected rows by id (customerdata.sql, 100
+ * Customer rows).
+ */
+@SpringBootTest
+public class ProjectionBrowserlessTest {
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void projectionSelectsTheIdAndVisibleBasicColumns() {
+        EntityType<Customer> customer = emf.getMetamodel().entity(Customer.class);
+        Projection<Customer> projection = Projection.forAttributes(customer,
+                List.of("companyName", "creditScore", "actions"), Set.of("actions"));
+        assertEquals(List.of("id", "companyName", "creditScore"), projection.getPaths());
+        Customer row = projection.toEntity(new Object[]{7L, "Acme", 42});
+        assertEquals(7L, row.getId());
+        assertEquals("Acme", row.getCompanyName());
+        assertEquals(42, row.getCreditScore());
+        assertNull(row.getEmail());
+
+        assertNull(Projection.forAttributes(customer, List.of("creditRating"), Set.of()), "computed column");
+        assertNull(Projection.forAttributes(emf.getMetamodel().entity(Person.class), List.of("friend"), Set.of()),
+                "association column");
+    }
+
+    @Test
+    void onlyRowsThatCantBeSelectedAreProjected() {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            JpaEntityGrid<Object> component = projectedCustomers(ui);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+
+            Customer projected = (Customer) grid.getRow(0);
+            assertEquals(1L, projected.getId());
+            assertNotNull(projected.getCompanyName());
+            assertNull(projected.getEmail(), "hidden columns are not loaded");
+
+            component.setSelectionMode(Grid.SelectionMode.SINGLE);
+            Customer full = (Customer) grid.getRow(0);
+            assertEquals(email(1L), full.getEmail(), "selectable rows are full entities");
+        }
+    }
+
+    @Test
+    void editReloadsProjectedRowById() {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            projectedCustomers(ui);
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+            assertNull(((Customer) grid.getRow(0)).getEmail());
+
+            grid.invokeLitRendererFunction(0, "actions", "edit");
+            String email = email(1L);
+            assertTrue(ui.findTextField().components().stream().anyMatch(field -> email.equals(field.getValue())),
+                    "the editor shows the full entity");
+        }
+    }
+
+    @Test
+    void deleteReloadsProjectedRowById() {
+        Customer deleted = new Customer();
+        deleted.setCompanyName("Projected Delete");
+        deleted.setEmail("delete@example.com");
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.persist(deleted);
+            em.getTransaction().commit();
+        }
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            projectedCustomers(ui);
+            ui.findTextField().withPlaceholderContaining("jqpl").setValue("companyName = 'Projected Delete'");
+            GridTester<Grid<Object>, Object> grid = ui.test(ui.findGrid(Object.class).component());
+            assertEquals(1, grid.size());
+            assertNull(((Customer) grid.getRow(0)).getEmail());
+
+            grid.invokeLitRendererFunction(0, "actions", "remove");
+            ui.findButton().withText("Delete").click();
+            try (EntityManager em = emf.createEntityManager()) {
+                assertNull(em.find(Customer.class, deleted.getId()));
+                assertEquals(100L, em.createQuery("select count(c) from Customer c").getSingleResult());
+            }
+        } finally {
+            try (EntityManager em = emf.createEntityManager()) {
+                em.getTransaction().begin();
+                em.createQuery("delete from Customer c where c.companyName = 'Projected Delete'").executeUpdate();
+                em.getTransaction().commit();
+            }
+        }
+    }
+
+    /**
+     * Lists the customers from the database in projection mode, without the
+     * computed and email columns and without selection.
+     */
+    private static JpaEntityGrid<Object> projectedCustomers(BrowserlessUIContext ui) {
+        ui.navigate(EntityExplorer.class, "Customer");
+        JpaEntityGrid<Object> component = (JpaEntityGrid<Object>) ui.findGrid(Object.class).component();
+        component.setInMemoryThreshold(0);
+        component.getColumnByKey("creditRating").setVisible(false);
+        component.getColumnByKey("email").setVisible(false);
+        component.setSelectionMode(Grid.SelectionMode.NONE);
+        component.setProjectionMode(true);
+        return component;
+    }
+
+    private String email(long customerId) {
+        try (EntityManager em = emf.createEntityManager()) {
+            return em.find(Customer.class, customerId).getEmail();
+        }
+    }
+}
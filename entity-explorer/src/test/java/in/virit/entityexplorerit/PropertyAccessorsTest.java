@@ -0,0 +1,57 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.filter.PropertyAccessors;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link PropertyAccessors}: getters, boolean and computed ones,
+ * fields without a getter, nested paths, and shared accessor instances.
+ */
+public class PropertyAccessorsTest {
+
+    private static Customer customer() {
+        Customer customer = new Customer();
+        customer.setCompanyName("Acme");
+        customer.setActive(true);
+        customer.setCreditScore(95);
+        Address address = new Address();
+        address.setCity("Berlin");
+        customer.setAddress(address);
+        return customer;
+    }
+
+    @Test
+    void readsGettersAndFields() {
+        Customer customer = customer();
+        assertEquals("Acme", PropertyAccessors.forPath(Customer.class, "companyName").apply(customer));
+        assertEquals(true, PropertyAccessors.forPath(Customer.class, "active").apply(customer));
+        assertEquals(95, PropertyAccessors.forPath(Customer.class, "creditScore").apply(customer));
+        assertEquals(customer.getCreditRating(), PropertyAccessors.forPath(Customer.class, "creditRating").apply(customer),
+                "computed getter");
+        // Person has no id getter
+        assertEquals(0L, PropertyAccessors.forPath(Person.class, "id").apply(new Person()));
+    }
+
+    @Test
+    void readsNestedPathsNullSafe() {
+        Function<Object, Object> city = PropertyAccessors.forPath(Customer.class, "address.city");
+        Customer customer = customer();
+        assertEquals("Berlin", city.apply(customer));
+        customer.setAddress(null);
+        assertNull(city.apply(customer));
+    }
+
+    @Test
+    void accessorsAreSharedAndValidated() {
+        assertSame(PropertyAccessors.forPath(Customer.class, "companyName"),
+                PropertyAccessors.forPath(Customer.class, "companyName"));
+        assertThrows(IllegalArgumentException.class, () -> PropertyAccessors.forPath(Customer.class, "nonexisting"));
+    }
+}
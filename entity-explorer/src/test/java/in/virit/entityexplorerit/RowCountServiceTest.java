@@ -0,0 +1,109 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.CountQuery;
+import in.virit.entityexplorer.data.RowCountService;
+import in.virit.entityexplorer.data.RowCountService.RowCount;
+import in.virit.entityexplorer.data.RowCountService.Strategy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the {@link RowCountService}: cached counts until they expire or
+ * the entity is invalidated, also during a count, and bounded estimates
+ * (customerdata.sql, 100 Customer rows, 69 of them active).
+ */
+@SpringBootTest
+public class RowCountServiceTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    /** Counts the Customer rows and how often it was executed. */
+    private static class CountingQuery implements CountQuery {
+
+        private final CountQuery customers = CountQuery.jpql("Customer", "");
+        private final AtomicInteger executions = new AtomicInteger();
+        private Runnable duringCount = () -> {
+        };
+
+        @Override
+        public long count(EntityManager em) {
+            executions.incrementAndGet();
+            duringCount.run();
+            return customers.count(em);
+        }
+
+        @Override
+        public long countUpTo(EntityManager em, int limit) {
+            executions.incrementAndGet();
+            duringCount.run();
+            return customers.countUpTo(em, limit);
+        }
+    }
+
+    private static RowCount count(RowCountService service, CountQuery query, Strategy strategy) {
+        return service.count("Customer", "", strategy, query).join();
+    }
+
+    @Test
+    void cachesCountsUntilTheyExpire() {
+        RowCountService service = new RowCountService(emf);
+        CountingQuery query = new CountingQuery();
+        assertEquals(new RowCount(100, true), count(service, query, Strategy.EXACT));
+        assertEquals(new RowCount(100, true), count(service, query, Strategy.EXACT));
+        assertEquals(1, query.executions.get());
+
+        service.setTimeToLive(Duration.ZERO);
+        count(service, query, Strategy.EXACT);
+        count(service, query, Strategy.EXACT);
+        assertEquals(3, query.executions.get());
+    }
+
+    @Test
+    void invalidationDropsCountsAlsoWhileCounting() {
+        RowCountService service = new RowCountService(emf);
+        CountingQuery query = new CountingQuery();
+        count(service, query, Strategy.EXACT);
+        service.invalidate("Person");
+        count(service, query, Strategy.EXACT);
+        assertEquals(1, query.executions.get(), "another entity was invalidated");
+
+        service.invalidate("Customer");
+        count(service, query, Strategy.EXACT);
+        assertEquals(2, query.executions.get());
+
+        // e.g. a commit while the count query runs
+        service.invalidate("Customer");
+        query.duringCount = () -> service.invalidate("Customer");
+        count(service, query, Strategy.EXACT);
+        query.duringCount = () -> {
+        };
+        count(service, query, Strategy.EXACT);
+        count(service, query, Strategy.EXACT);
+        assertEquals(4, query.executions.get(), "the count made during invalidation was cached");
+    }
+
+    @Test
+    void estimateIsALowerBoundAboveTheThreshold() {
+        RowCountService service = new RowCountService(emf);
+        service.setEstimateThreshold(80);
+        assertEquals(new RowCount(80, false),
+                service.count("Customer", null, Strategy.ESTIMATE, CountQuery.jpql("Customer", "")).join());
+        assertEquals(new RowCount(69, true), service.count("Customer", null, Strategy.ESTIMATE,
+                CountQuery.jpql("Customer", "active = true")).join(), "below the threshold the count is exact");
+
+        // an estimate doesn't satisfy an exact count
+        CountingQuery query = new CountingQuery();
+        assertEquals(new RowCount(80, false), count(service, query, Strategy.ESTIMATE));
+        assertEquals(new RowCount(100, true), count(service, query, Strategy.EXACT));
+        assertEquals(2, query.executions.get());
+    }
+}
@@ -0,0 +1,79 @@
+package in.virit.entityexplorerit;
+
+import com.vaadin.browserless.BrowserlessUIContext;
+import com.vaadin.browserless.SpringBrowserlessApplicationContext;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import in.virit.entityexplorer.EntityExplorer;
+import in.virit.entityexplorer.EntityExplorerAutoconfiguration;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmarks the server-side footprint of rendered rows: the number of state
+ * tree nodes (components and elements the server keeps and syncs to the
+ * client) after rendering 10 and 50 Customer rows, for the entity grid with
+ * its template based row actions and for a grid with the former component
+ * per row actions (a layout with three buttons).
+ */
+@SpringBootTest
+public class RowRenderingBrowserlessTest {
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void renderedRowsCreateNoServerSideComponents() {
+        try (var app = SpringBrowserlessApplicationContext.create(applicationContext, EntityExplorerAutoconfiguration.class)) {
+            BrowserlessUIContext ui = app.newUser().newWindow();
+            ui.navigate(EntityExplorer.class, "Customer");
+            Grid<Object> grid = ui.findGrid(Object.class).component();
+            int entityGridTen = stateNodesAfterRendering(grid, 10);
+            int entityGridFifty = stateNodesAfterRendering(grid, 50);
+
+            Grid<Object> componentGrid = new Grid<>();
+            componentGrid.addComponentColumn(item -> new HorizontalLayout(
+                    new Button(VaadinIcon.EDIT.create()),
+                    new Button(VaadinIcon.TRASH.create()),
+                    new Button(VaadinIcon.EYE.create())));
+            componentGrid.setItems(customers());
+            grid.getUI().orElseThrow().add(componentGrid);
+            int componentGridTen = stateNodesAfterRendering(componentGrid, 10);
+            int componentGridFifty = stateNodesAfterRendering(componentGrid, 50);
+
+            String nodes = "state nodes for 10/50 rows: entity grid " + entityGridTen + "/" + entityGridFifty
+                    + ", component per row actions " + componentGridTen + "/" + componentGridFifty;
+            assertEquals(entityGridTen, entityGridFifty, nodes);
+            // a layout, three buttons and three icons per row
+            assertTrue(componentGridFifty - componentGridTen >= 40 * 7, nodes);
+        }
+    }
+
+    private List<Object> customers() {
+        try (EntityManager em = emf.createEntityManager()) {
+            return List.copyOf(em.createQuery("select c from Customer c", Customer.class).getResultList());
+        }
+    }
+
+    private static int stateNodesAfterRendering(Grid<?> grid, int rows) {
+        grid.getDataCommunicator().setViewportRange(0, rows);
+        grid.getUI().orElseThrow().getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        int[] count = {0};
+        grid.getElement().getNode().visitNodeTree(node -> count[0]++);
+        return count[0];
+    }
+}
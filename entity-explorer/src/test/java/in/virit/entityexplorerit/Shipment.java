@@ -0,0 +1,43 @@
+package in.virit.entityexplorerit;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+
+/**
+ * An entity with a to-one association to a {@link Warehouse}, whose id is
+ * composite.
+ */
+@Entity
+public class Shipment {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String description;
+
+    @ManyToOne
+    private Warehouse warehouse;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Warehouse getWarehouse() {
+        return warehouse;
+    }
+
+    public void setWarehouse(Warehouse warehouse) {
+        this.warehouse = warehouse;
+    }
+}
@@ -0,0 +1,70 @@
+package in.virit.entityexplorerit;
+
+import in.virit.entityexplorer.data.StatementLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link StatementLog}: statements of its entity managers are
+ * recorded with timing, after the application's statement inspector, and
+ * scoped work labels them and records the rows (customerdata.sql, 100
+ * Customer rows).
+ */
+@SpringBootTest
+public class StatementLogTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    void recordsStatementsOfItsEntityManagers() {
+        StatementLog log = new StatementLog();
+        List<StatementLog.Entry> notified = new ArrayList<>();
+        log.addListener(notified::add);
+        try (EntityManager em = log.open(emf)) {
+            em.createQuery("select count(c) from Customer c").getSingleResult();
+        }
+        // not opened through the log
+        try (EntityManager em = emf.createEntityManager()) {
+            em.createQuery("select count(c) from Customer c").getSingleResult();
+        }
+        List<StatementLog.Entry> entries = log.getEntries();
+        assertEquals(1, entries.size());
+        assertEquals(entries, notified);
+        StatementLog.Entry entry = entries.getFirst();
+        assertTrue(entry.sql().toLowerCase().contains("customer"), entry.sql());
+        assertTrue(entry.sql().startsWith(TaggingStatementInspector.TAG), "the application's inspector still applies");
+        assertTrue(entry.durationNanos() > 0);
+        assertEquals(-1, entry.rows());
+        assertNull(entry.cause());
+    }
+
+    @Test
+    void scopesLabelStatementsAndCountRows() {
+        StatementLog log = new StatementLog();
+        try (EntityManager em = log.open(emf)) {
+            List<?> page = log.scope("fetch offset 10, limit 25", () -> em
+                    .createQuery("select c from Customer c order by c.id")
+                    .setFirstResult(10)
+                    .setMaxResults(25)
+                    .getResultList());
+            assertEquals(25, page.size());
+        }
+        StatementLog.Entry entry = log.getEntries().getFirst();
+        assertEquals(25, entry.rows());
+        assertEquals("fetch offset 10, limit 25", entry.cause());
+
+        log.clear();
+        assertTrue(log.getEntries().isEmpty());
+    }
+}
@@ -0,0 +1,18 @@
+package in.virit.entityexplorerit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * The application's statement inspector in the tests, see
+ * application.properties: prefixes each statement with a comment, like an
+ * application tagging its SQL.
+ */
+public class TaggingStatementInspector implements StatementInspector {
+
+    public static final String TAG = "/* entityexplorer-test */ ";
+
+    @Override
+    public String inspect(String sql) {
+        return TAG + sql;
+    }
+}
@@ -0,0 +1,58 @@
+package in.virit.entityexplorerit;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An entity with a to-one and a collection association, for testing how
+ * association columns are loaded.
+ */
+@Entity
+public class Team {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String name;
+
+    @ManyToOne
+    private Person lead;
+
+    @ManyToMany
+    private List<Person> members = new ArrayList<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Person getLead() {
+        return lead;
+    }
+
+    public void setLead(Person lead) {
+        this.lead = lead;
+    }
+
+    public List<Person> getMembers() {
+        return members;
+    }
+
+    public void setMembers(List<Person> members) {
+        this.members = members;
+    }
+}
@@ -0,0 +1,46 @@
+package in.virit.entityexplorerit;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+
+/**
+ * An entity with an {@link IdClass}, for testing association columns whose
+ * target has no single id attribute.
+ */
+@Entity
+@IdClass(WarehouseId.class)
+public class Warehouse {
+
+    @Id
+    private String region;
+
+    @Id
+    private String code;
+
+    private String name;
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,31 @@
+package in.virit.entityexplorerit;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The composite id of a {@link Warehouse}.
+ */
+public class WarehouseId implements Serializable {
+
+    private String region;
+    private String code;
+
+    public WarehouseId() {
+    }
+
+    public WarehouseId(String region, String code) {
+        this.region = region;
+        this.code = code;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WarehouseId other && Objects.equals(region, other.region) && Objects.equals(code, other.code);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(region, code);
+    }
+}